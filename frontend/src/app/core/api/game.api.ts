@@ -55,8 +55,8 @@ export class GameApi {
     return this.http.post<{ message: string; bothReady: boolean; gameStarted: boolean }>(`${this.baseUrl}/api/games/${gameId}/ready`, {});
   }
 
-  getBoards(gameId: string): Observable<{ playerBoard: number[][]; enemyBoard: number[][]; currentTurn?: string | null; gameFinished: boolean; winner: string; opponentName: string; opponentAvatar: string; isBotGame: boolean; isHost: boolean }> {
-    return this.http.get<{ playerBoard: number[][]; enemyBoard: number[][]; currentTurn?: string; gameFinished: boolean; winner: string; opponentName: string; opponentAvatar: string; isBotGame: boolean; isHost: boolean }>(`${this.baseUrl}/api/games/${gameId}/boards`);
+  getBoards(gameId: string): Observable<{ playerBoard: number[][]; enemyBoard: number[][]; currentTurn?: string | null; gameFinished: boolean; winner: string; opponentName: string; opponentAvatar: string; isBotGame: boolean; isHost: boolean; seq?: number }> {
+    return this.http.get<{ playerBoard: number[][]; enemyBoard: number[][]; currentTurn?: string; gameFinished: boolean; winner: string; opponentName: string; opponentAvatar: string; isBotGame: boolean; isHost: boolean; seq?: number }>(`${this.baseUrl}/api/games/${gameId}/boards`);
   }
 
   attackEnemy(gameId: string, x: number, y: number) {
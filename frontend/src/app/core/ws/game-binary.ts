@@ -0,0 +1,86 @@
+import type { GameUpdate } from './game-ws.service';
+
+/**
+ * Reference client of the 'seabattle.bin.v1' subprotocol; the layout is documented on the
+ * server in GameBinaryCodec. Only gameStateDelta, gameSnapshot and gameFinished are binary —
+ * everything else still arrives as JSON text frames.
+ */
+export const GAME_BINARY_PROTOCOL = 'seabattle.bin.v1';
+
+const TURNS = ['HOST', 'GUEST'];
+const RESULTS = ['HOST_WIN', 'GUEST_WIN', 'SURRENDER'];
+const SIZE = 10;
+
+export function decodeGameFrame(data: ArrayBuffer): GameUpdate {
+  const view = new DataView(data);
+  const opcode = view.getUint8(0);
+  const gameId = uuid(new Uint8Array(data, 1, 16));
+  let pos = 17;
+
+  if (opcode === 1) {
+    const seq = view.getUint32(pos);
+    const baseSeq = seq - view.getUint8(pos + 4);
+    const flags = view.getUint8(pos + 5);
+    const currentTurn = code(TURNS, view.getUint8(pos + 6));
+    const winner = code(RESULTS, view.getUint8(pos + 7)) ?? undefined;
+    const checksum = view.getInt32(pos + 8);
+    pos += 12;
+    const playerCells = cells(view, pos);
+    pos += 1 + view.getUint8(pos) * 2;
+    const enemyCells = cells(view, pos);
+    return {
+      type: 'gameStateDelta', gameId, seq, baseSeq, currentTurn, winner, checksum, playerCells, enemyCells,
+      hit: (flags & 1) !== 0, sunk: (flags & 2) !== 0, already: (flags & 4) !== 0, gameFinished: (flags & 8) !== 0
+    };
+  }
+  if (opcode === 2) {
+    const seq = view.getUint32(pos);
+    const flags = view.getUint8(pos + 4);
+    const currentTurn = code(TURNS, view.getUint8(pos + 5));
+    const winner = code(RESULTS, view.getUint8(pos + 6)) ?? undefined;
+    const checksum = view.getInt32(pos + 7);
+    pos += 11;
+    return {
+      type: 'gameSnapshot', gameId, seq, currentTurn, winner, checksum, gameFinished: (flags & 8) !== 0,
+      playerBoard: board(view, pos), enemyBoard: board(view, pos + SIZE * SIZE / 2)
+    };
+  }
+  if (opcode === 3) {
+    return { type: 'gameFinished', gameId, gameFinished: true, winner: code(RESULTS, view.getUint8(pos)) ?? undefined };
+  }
+  return { type: 'error', message: `Неизвестный бинарный кадр ${opcode}` };
+}
+
+function code(names: string[], value: number): string | null {
+  return value === 0 ? null : names[value - 1];
+}
+
+/** Ячейки [x, y, value, ...] из пар (x*10+y, value). */
+function cells(view: DataView, pos: number): number[] {
+  const n = view.getUint8(pos);
+  const result: number[] = [];
+  for (let i = 0; i < n; i++) {
+    const index = view.getUint8(pos + 1 + i * 2);
+    result.push(Math.floor(index / SIZE), index % SIZE, view.getUint8(pos + 2 + i * 2));
+  }
+  return result;
+}
+
+/** 100 клеток по две в байте, старший полубайт первым. */
+function board(view: DataView, pos: number): number[][] {
+  const grid: number[][] = [];
+  for (let i = 0; i < SIZE; i++) {
+    const row: number[] = [];
+    for (let j = 0; j < SIZE; j += 2) {
+      const packed = view.getUint8(pos + (i * SIZE + j) / 2);
+      row.push(packed >> 4, packed & 0x0f);
+    }
+    grid.push(row);
+  }
+  return grid;
+}
+
+function uuid(bytes: Uint8Array): string {
+  const hex = Array.from(bytes, b => b.toString(16).padStart(2, '0')).join('');
+  return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+}
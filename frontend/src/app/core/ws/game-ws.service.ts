@@ -2,15 +2,23 @@ import { Injectable, inject } from '@angular/core';
 import { BehaviorSubject, Observable } from 'rxjs';
 import { AuthService } from '../auth/auth.service';
 import { getWsBaseUrl } from '../api/api-config';
+import { environment } from '../../../environments/environment';
+import { GAME_BINARY_PROTOCOL, decodeGameFrame } from './game-binary';
 
 export interface GameUpdate {
-  type: 'gameStateUpdate' | 'attackResult' | 'gameFinished' | 'playerReady' | 'subscribed' | 'error'
+  type: 'gameStateDelta' | 'gameSnapshot' | 'attackResult' | 'gameFinished' | 'playerReady' | 'subscribed' | 'error' | 'ack'
     | 'rematchRequested' | 'rematchAccepted' | 'rematchDeclined' | 'rematchRequestSent';
   gameId?: string;
   newGameId?: string;
   requestedByUsername?: string;
   playerBoard?: number[][];
   enemyBoard?: number[][];
+  /** gameStateDelta: изменённые клетки тройками [x, y, value, ...] */
+  playerCells?: number[];
+  enemyCells?: number[];
+  seq?: number;
+  baseSeq?: number;
+  checksum?: number;
   currentTurn?: string | null;
   gameFinished?: boolean;
   winner?: string;
@@ -23,6 +31,34 @@ export interface GameUpdate {
   bothReady?: boolean;
   gameStarted?: boolean;
   message?: string;
+  /** ack: ответ на команду с тем же requestId */
+  requestId?: string;
+  ok?: boolean;
+  status?: number;
+  result?: any;
+}
+
+export type GameCommand = 'attack' | 'ready' | 'placeShips' | 'surrender';
+
+/** FNV-1a по обеим доскам построчно — то же, что BoardModel.checksum на сервере. */
+export function boardChecksum(playerBoard: number[][], enemyBoard: number[][]): number {
+  let hash = 0x811c9dc5 | 0;
+  for (const grid of [playerBoard, enemyBoard]) {
+    for (const row of grid) {
+      for (const value of row) {
+        hash = Math.imul(hash ^ value, 0x01000193);
+      }
+    }
+  }
+  return hash;
+}
+
+/** Применяет тройки [x, y, value] к доске на месте. */
+export function applyCells(board: number[][], cells: number[] | undefined): void {
+  if (!cells) return;
+  for (let i = 0; i + 2 < cells.length; i += 3) {
+    board[cells[i]][cells[i + 1]] = cells[i + 2];
+  }
 }
 
 @Injectable({
@@ -40,6 +76,11 @@ export class GameWebSocketService {
   private intentionalDisconnect = false;
   /** Pending reconnect timeout — cleared in disconnect() to prevent reconnect after switching game */
   private reconnectTimeoutId: ReturnType<typeof setTimeout> | null = null;
+  /** Команды, ждущие ack, по requestId */
+  private pendingCommands = new Map<string, { resolve: (ack: GameUpdate) => void; reject: (err: GameUpdate) => void }>();
+  private nextRequestId = 0;
+  /** Последний применённый seq игры; при переподключении сервер досылает только пропущенное. */
+  private resumeSeq: { gameId: string; seq: number } | null = null;
 
   connect(gameId: string): Observable<boolean> {
     return new Observable(observer => {
@@ -60,7 +101,11 @@ export class GameWebSocketService {
         const token = this.authService.getToken();
         const tokenParam = token ? `?token=${encodeURIComponent(token)}` : '';
         const wsUrl = `${wsBase}/api/ws/game${tokenParam}`;
-        this.socket = new WebSocket(wsUrl);
+        // Бинарный протокол только по явному включению; по умолчанию JSON
+        this.socket = environment.binaryGameProtocol
+          ? new WebSocket(wsUrl, [GAME_BINARY_PROTOCOL])
+          : new WebSocket(wsUrl);
+        this.socket.binaryType = 'arraybuffer';
         this.currentGameId = gameId;
         // Очистить последнее значение, чтобы новый подписчик не получил старый rematchAccepted (replay BehaviorSubject)
         this.gameUpdates$.next(null);
@@ -77,7 +122,19 @@ export class GameWebSocketService {
 
         this.socket.onmessage = (event) => {
           try {
-            const data: GameUpdate = JSON.parse(event.data);
+            const data: GameUpdate = event.data instanceof ArrayBuffer
+              ? decodeGameFrame(event.data)
+              : JSON.parse(event.data);
+            if (data.type === 'ack' && data.requestId && this.pendingCommands.has(data.requestId)) {
+              const pending = this.pendingCommands.get(data.requestId)!;
+              this.pendingCommands.delete(data.requestId);
+              if (data.ok) {
+                pending.resolve(data);
+              } else {
+                pending.reject(data);
+              }
+              return;
+            }
             this.gameUpdates$.next(data);
           } catch (error) {
             this.gameUpdates$.next({ type: 'error', message: 'Некорректное сообщение' });
@@ -86,6 +143,7 @@ export class GameWebSocketService {
 
         this.socket.onclose = () => {
           this.currentGameId = null;
+          this.rejectPendingCommands();
           if (this.intentionalDisconnect) {
             this.intentionalDisconnect = false;
             return;
@@ -135,17 +193,56 @@ export class GameWebSocketService {
   subscribeToGame(gameId: string): void {
     // Send subscription message
     if (this.socket && this.socket.readyState === WebSocket.OPEN) {
+      const lastSeq = this.resumeSeq?.gameId === gameId ? this.resumeSeq.seq : undefined;
       this.socket.send(JSON.stringify({
         type: 'subscribe',
-        gameId: gameId
+        gameId: gameId,
+        lastSeq
       }));
     }
   }
 
+  /** Запомнить seq, на котором находится клиент (null — состояния нет, нужен снапшот). */
+  setResumeSeq(gameId: string, seq: number | null): void {
+    this.resumeSeq = seq === null ? null : { gameId, seq };
+  }
+
+  /** Подписка отправлена с lastSeq: сервер сам пришлёт пропущенные дельты или снапшот. */
+  willResume(gameId: string): boolean {
+    return this.resumeSeq?.gameId === gameId;
+  }
+
   getGameUpdates(): Observable<GameUpdate | null> {
     return this.gameUpdates$.asObservable();
   }
 
+  /**
+   * Команда игры по уже открытому сокету вместо REST-запроса. Промис выполняется ack'ом с ok=true
+   * и отклоняется ack'ом с ошибкой (status как у REST) или при обрыве соединения.
+   */
+  sendCommand(type: GameCommand, gameId: string, body: Record<string, unknown> = {}): Promise<GameUpdate> {
+    if (!this.socket || this.socket.readyState !== WebSocket.OPEN) {
+      return Promise.reject({ type: 'error', message: 'WebSocket не подключён' } as GameUpdate);
+    }
+    const requestId = `${++this.nextRequestId}`;
+    return new Promise((resolve, reject) => {
+      this.pendingCommands.set(requestId, { resolve, reject });
+      this.socket!.send(JSON.stringify({ ...body, type, requestId, gameId }));
+    });
+  }
+
+  private rejectPendingCommands(): void {
+    this.pendingCommands.forEach(pending => pending.reject({ type: 'error', message: 'Соединение WebSocket разорвано' }));
+    this.pendingCommands.clear();
+  }
+
+  /** Запросить полное состояние (gameSnapshot), если пропущена дельта или не сошлась контрольная сумма. */
+  requestResync(gameId: string): void {
+    if (this.socket && this.socket.readyState === WebSocket.OPEN) {
+      this.socket.send(JSON.stringify({ type: 'resync', gameId }));
+    }
+  }
+
   sendRematchRequest(gameId: string): void {
     if (this.socket && this.socket.readyState === WebSocket.OPEN) {
       this.socket.send(JSON.stringify({ type: 'rematchRequest', gameId }));
@@ -39,6 +39,8 @@ export class LoginComponent {
       const msg = e?.error?.message;
       if (status === 401 || (typeof msg === 'string' && msg.toLowerCase().includes('invalid credential'))) {
         this.errorMsg = 'Неверный логин или пароль';
+      } else if (status === 429) {
+        this.errorMsg = 'Слишком много попыток входа, попробуйте немного позже';
       } else {
         this.errorMsg = typeof msg === 'string' ? msg : 'Неверный логин или пароль';
       }
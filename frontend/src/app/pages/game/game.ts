@@ -3,7 +3,7 @@ import { ActivatedRoute, Router } from '@angular/router';
 import { GameApi } from '../../core/api/game.api';
 import { UserApi } from '../../core/api/user.api';
 import { AuthService } from '../../core/auth/auth.service';
-import { GameWebSocketService, GameUpdate } from '../../core/ws/game-ws.service';
+import { GameWebSocketService, GameUpdate, applyCells, boardChecksum } from '../../core/ws/game-ws.service';
 import { getApiBaseUrl } from '../../core/api/api-config';
 import { CommonModule } from '@angular/common';
 import { RouterLink } from '@angular/router';
@@ -31,6 +31,8 @@ export class GameComponent implements OnInit, OnDestroy {
 
   playerBoard: number[][] = [];
   enemyBoard: number[][] = [];
+  /** Номер состояния досок, к которому применяются дельты по WebSocket; null — нужна полная синхронизация. */
+  stateSeq: number | null = null;
 
   isLoading: boolean = false;
   gameOver: boolean = false;
@@ -111,6 +113,7 @@ export class GameComponent implements OnInit, OnDestroy {
 
       this.playerBoard = res.playerBoard;
       this.enemyBoard = res.enemyBoard;
+      this.setStateSeq(res.seq ?? null);
       this.currentTurn = res.currentTurn;
       this.opponentName = res.opponentName;
       this.opponentAvatar = res.opponentAvatar || '';
@@ -176,24 +179,54 @@ export class GameComponent implements OnInit, OnDestroy {
     });
   }
 
+  /** seq применённого состояния; сервис сокета отправит его при переподписке. */
+  private setStateSeq(seq: number | null) {
+    this.stateSeq = seq;
+    if (this.gameId) {
+      this.gameWs.setResumeSeq(this.gameId, seq);
+    }
+  }
+
+  private applyTurnAndResult(update: GameUpdate) {
+    if (update.currentTurn !== undefined) {
+      this.currentTurn = update.currentTurn;
+      this.isPlayerTurn = (this.isHost && update.currentTurn === 'HOST') || (!this.isHost && update.currentTurn === 'GUEST');
+    }
+    if (update.gameFinished) {
+      this.gameOver = true;
+      this.handleGameFinished(update.winner);
+    }
+  }
+
   private handleGameUpdate(update: GameUpdate) {
     switch (update.type) {
-      case 'gameStateUpdate':
+      case 'gameStateDelta':
         if (update.gameId && update.gameId !== this.gameId) return;
-        if (update.playerBoard) {
-          this.playerBoard = update.playerBoard;
-        }
-        if (update.enemyBoard) {
-          this.enemyBoard = update.enemyBoard;
+        if (this.stateSeq !== null && update.baseSeq !== undefined && update.baseSeq < this.stateSeq) {
+          // Уже применённая дельта (живая копия досланной после переподключения) — пропускаем
+          return;
         }
-        if (update.currentTurn !== undefined) {
-          this.currentTurn = update.currentTurn;
-          this.isPlayerTurn = (this.isHost && update.currentTurn === 'HOST') || (!this.isHost && update.currentTurn === 'GUEST');
+        if (this.stateSeq === null || update.baseSeq !== this.stateSeq) {
+          // Пропустили обновление (или ещё нет базы) — берём полное состояние
+          this.gameWs.requestResync(this.gameId!);
+          return;
         }
-        if (update.gameFinished) {
-          this.gameOver = true;
-          this.handleGameFinished(update.winner);
+        applyCells(this.playerBoard, update.playerCells);
+        applyCells(this.enemyBoard, update.enemyCells);
+        this.setStateSeq(update.seq ?? null);
+        if (boardChecksum(this.playerBoard, this.enemyBoard) !== update.checksum) {
+          this.setStateSeq(null);
+          this.gameWs.requestResync(this.gameId!);
         }
+        this.applyTurnAndResult(update);
+        break;
+
+      case 'gameSnapshot':
+        if (update.gameId !== this.gameId) return;
+        this.playerBoard = update.playerBoard ?? this.playerBoard;
+        this.enemyBoard = update.enemyBoard ?? this.enemyBoard;
+        this.setStateSeq(update.seq ?? null);
+        this.applyTurnAndResult(update);
         break;
 
       case 'gameFinished':
@@ -202,9 +235,10 @@ export class GameComponent implements OnInit, OnDestroy {
         break;
 
       case 'subscribed':
-        // Подтягиваем актуальное состояние после подписки (на случай пропущенных обновлений)
-        if (!this.isBotGame && update.gameId === this.gameId) {
-          this.loadBoards();
+        // Подтягиваем актуальное состояние после подписки (на случай пропущенных обновлений);
+        // с lastSeq сервер сам досылает пропущенное
+        if (!this.isBotGame && update.gameId === this.gameId && !this.gameWs.willResume(this.gameId)) {
+          this.gameWs.requestResync(this.gameId);
         }
         break;
 
@@ -340,6 +374,9 @@ export class GameComponent implements OnInit, OnDestroy {
           this.triggerBotMove();
         }
       });
+    } else if (this.webSocketConnected) {
+      // Выстрел по уже открытому сокету; доски придут дельтой gameStateDelta
+      this.gameWs.sendCommand('attack', this.gameId, { x: i, y: j }).catch(() => {});
     } else {
       this.gameApi.attackEnemy(this.gameId, i, j).subscribe({
         next: () => {
@@ -396,6 +433,10 @@ export class GameComponent implements OnInit, OnDestroy {
     if (!this.gameId) return;
 
     if (confirm('Вы уверены, что хотите сдаться? Вы проиграете игру.')) {
+      if (!this.isBotGame && this.webSocketConnected) {
+        this.gameWs.sendCommand('surrender', this.gameId).catch(() => {});
+        return;
+      }
       this.gameApi.surrender(this.gameId, this.isBotGame).subscribe({
         next: () => {
           if (this.isBotGame) {
@@ -6,4 +6,6 @@ export const environment = {
   production: true,
   /** Same origin — use relative URLs: /api/... */
   apiBaseUrl: '',
+  /** Request the compact binary game WebSocket protocol (seabattle.bin.v1) instead of JSON. */
+  binaryGameProtocol: false,
 };
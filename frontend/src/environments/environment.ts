@@ -9,6 +9,8 @@ export const environment = {
    * Empty string = same origin (relative URLs like /api/...).
    */
   apiBaseUrl: getDevApiBaseUrl(),
+  /** Request the compact binary game WebSocket protocol (seabattle.bin.v1) instead of JSON. */
+  binaryGameProtocol: false,
 };
 
 function getDevApiBaseUrl(): string {
@@ -2,6 +2,8 @@ package com.seabattle.server;
 
 import com.seabattle.server.entity.User;
 import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.service.UserAccessChanged;
+import com.seabattle.server.service.UserAccessRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,6 +26,7 @@ public class SeaBattleServerApplication {
     @Bean
     CommandLineRunner run(
             UserRepository userRepository,
+            UserAccessRegistry userAccess,
             PasswordEncoder passwordEncoder,
             @Value("${seabattle.reset-admin-password:false}") boolean resetAdminPassword) {
         return args -> {
@@ -43,6 +46,7 @@ public class SeaBattleServerApplication {
                             log.info("Reset password for user 'admin' to 'password'");
                         }
                         userRepository.save(admin);
+                        userAccess.on(UserAccessChanged.of(admin));
                     },
                     () -> {
                         User admin = User.builder()
@@ -55,6 +59,7 @@ public class SeaBattleServerApplication {
                                 .status(User.Status.ACTIVE)
                                 .build();
                         userRepository.save(admin);
+                        userAccess.on(UserAccessChanged.of(admin));
                         log.info("Created default user: admin / password");
                     }
             );
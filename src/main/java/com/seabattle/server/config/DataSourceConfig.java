@@ -1,18 +1,27 @@
 package com.seabattle.server.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
+import java.util.Map;
 
 /**
  * Exposes a DataSource that reports PostgreSQL version as 17.0 to Flyway,
  * so Flyway accepts PostgreSQL 17.8 (which it otherwise rejects).
  * Creates the real pool from spring.datasource.* and wraps it as @Primary.
+ * <p>
+ * When app.datasource.replica.url is set, a second pool is created and connections of
+ * {@code @Transactional(readOnly = true)} work are taken from it; everything else (and every
+ * read when no replica is configured) goes to the primary pool.
  */
 @Configuration
 public class DataSourceConfig {
@@ -23,6 +32,51 @@ public class DataSourceConfig {
             @Value("${spring.datasource.username:}") String username,
             @Value("${spring.datasource.password:}") String password,
             @Value("${spring.datasource.driver-class-name:}") String driverClassName) {
+        return build(url, username, password, driverClassName);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("flywayRealDataSource") DataSource flywayRealDataSource,
+            @Value("${app.datasource.replica.url:}") String replicaUrl,
+            @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${app.datasource.replica.driver-class-name:${spring.datasource.driver-class-name:}}") String replicaDriver,
+            @Value("${app.datasource.replica.pool-size:10}") int replicaPoolSize) {
+        DataSource primary = FlywayPostgresVersionWorkaround.wrap(flywayRealDataSource);
+        if (replicaUrl == null || replicaUrl.isBlank()) {
+            return primary;
+        }
+        DataSource replica = build(replicaUrl, replicaUsername, replicaPassword, replicaDriver);
+        if (replica instanceof HikariDataSource hikari) {
+            hikari.setPoolName("replica");
+            hikari.setMaximumPoolSize(replicaPoolSize);
+            hikari.setReadOnly(true);
+        }
+        return readWriteRouting(primary, FlywayPostgresVersionWorkaround.wrap(replica));
+    }
+
+    /**
+     * Pool is picked by the read-only flag of the current transaction, which the transaction
+     * manager sets whatever the JPA connection handling mode. The lazy proxy fetches the physical
+     * connection on the first statement, after that flag is set, so read-only transactions land on
+     * the replica pool.
+     */
+    public static DataSource readWriteRouting(DataSource primary, DataSource replica) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+            }
+        };
+        routing.setTargetDataSources(Map.of(true, replica, false, primary));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static DataSource build(String url, String username, String password, String driverClassName) {
         var builder = DataSourceBuilder.create();
         builder.url(url);
         if (username != null && !username.isEmpty()) builder.username(username);
@@ -30,10 +84,4 @@ public class DataSourceConfig {
         if (driverClassName != null && !driverClassName.isEmpty()) builder.driverClassName(driverClassName);
         return builder.build();
     }
-
-    @Bean
-    @Primary
-    public DataSource dataSource(@Qualifier("flywayRealDataSource") DataSource flywayRealDataSource) {
-        return FlywayPostgresVersionWorkaround.wrap(flywayRealDataSource);
-    }
 }
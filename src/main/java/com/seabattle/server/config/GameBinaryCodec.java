@@ -0,0 +1,184 @@
+package com.seabattle.server.config;
+
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Game;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Fixed-layout frames of the {@value #PROTOCOL} WebSocket subprotocol, the opt-in alternative to
+ * JSON for the messages sent on every shot. Big-endian, so a browser reads them with a plain
+ * {@code DataView}; {@code frontend/src/app/core/ws/game-binary.ts} is the reference client.
+ * <pre>
+ * every frame   u8 opcode, 16 B game id (most significant half first)
+ * 1 delta       u32 seq, u8 seq - baseSeq, u8 flags, u8 turn, u8 winner, i32 checksum,
+ *               u8 n, n x (u8 x*10+y, u8 value) own board, u8 m, m x (u8, u8) enemy board
+ * 2 snapshot    u32 seq, u8 flags, u8 turn, u8 winner, i32 checksum,
+ *               50 B own board, 50 B enemy board (two cells per byte, high nibble first)
+ * 3 finished    u8 winner
+ * flags         1 hit, 2 sunk, 4 already, 8 game finished
+ * turn          0 none, 1 HOST, 2 GUEST
+ * winner        0 none, 1 + ordinal of {@link Game.GameResult}
+ * </pre>
+ * Other messages are rare and stay JSON text frames on binary sessions too.
+ */
+public final class GameBinaryCodec {
+
+    public static final String PROTOCOL = "seabattle.bin.v1";
+
+    static final byte DELTA = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte FINISHED = 3;
+
+    private static final int HIT = 1;
+    private static final int SUNK = 2;
+    private static final int ALREADY = 4;
+    private static final int GAME_FINISHED = 8;
+
+    private static final int CELLS = BoardModel.SIZE * BoardModel.SIZE;
+
+    private GameBinaryCodec() { }
+
+    /** Whether the message has a binary layout; the rest is always sent as JSON. */
+    public static boolean supports(GameSocketMessage message) {
+        return message instanceof GameSocketMessage.GameStateDelta
+                || message instanceof GameSocketMessage.GameSnapshot
+                || message instanceof GameSocketMessage.GameFinished;
+    }
+
+    public static byte[] encode(GameSocketMessage message) {
+        if (message instanceof GameSocketMessage.GameStateDelta d) {
+            ByteBuffer buf = ByteBuffer.allocate(17 + 12 + 2 + d.playerCells().length / 3 * 2 + d.enemyCells().length / 3 * 2);
+            header(buf, DELTA, d.gameId());
+            buf.putInt((int) d.seq());
+            buf.put((byte) (d.seq() - d.baseSeq()));
+            buf.put((byte) flags(d.hit(), d.sunk(), d.already(), d.gameFinished()));
+            buf.put(turn(d.currentTurn()));
+            buf.put(winner(d.winner()));
+            buf.putInt(d.checksum());
+            cells(buf, d.playerCells());
+            cells(buf, d.enemyCells());
+            return buf.array();
+        }
+        if (message instanceof GameSocketMessage.GameSnapshot s) {
+            ByteBuffer buf = ByteBuffer.allocate(17 + 11 + CELLS);
+            header(buf, SNAPSHOT, s.gameId());
+            buf.putInt((int) s.seq());
+            buf.put((byte) flags(false, false, false, s.gameFinished()));
+            buf.put(turn(s.currentTurn()));
+            buf.put(winner(s.winner()));
+            buf.putInt(s.checksum());
+            board(buf, s.playerBoard());
+            board(buf, s.enemyBoard());
+            return buf.array();
+        }
+        if (message instanceof GameSocketMessage.GameFinished f) {
+            ByteBuffer buf = ByteBuffer.allocate(17 + 1);
+            header(buf, FINISHED, f.gameId());
+            buf.put(winner(f.winner()));
+            return buf.array();
+        }
+        throw new IllegalArgumentException("No binary layout for " + message.getClass().getSimpleName());
+    }
+
+    public static GameSocketMessage decode(ByteBuffer buf) {
+        byte opcode = buf.get();
+        UUID gameId = new UUID(buf.getLong(), buf.getLong());
+        switch (opcode) {
+            case DELTA -> {
+                long seq = Integer.toUnsignedLong(buf.getInt());
+                long baseSeq = seq - Byte.toUnsignedInt(buf.get());
+                int flags = buf.get();
+                String turn = turn(buf.get());
+                String winner = winner(buf.get());
+                int checksum = buf.getInt();
+                int[] playerCells = cells(buf);
+                int[] enemyCells = cells(buf);
+                return new GameSocketMessage.GameStateDelta(gameId, seq, baseSeq, turn,
+                        (flags & GAME_FINISHED) != 0, winner,
+                        (flags & HIT) != 0, (flags & SUNK) != 0, (flags & ALREADY) != 0,
+                        playerCells, enemyCells, checksum);
+            }
+            case SNAPSHOT -> {
+                long seq = Integer.toUnsignedLong(buf.getInt());
+                int flags = buf.get();
+                String turn = turn(buf.get());
+                String winner = winner(buf.get());
+                int checksum = buf.getInt();
+                int[][] playerBoard = board(buf);
+                int[][] enemyBoard = board(buf);
+                return new GameSocketMessage.GameSnapshot(gameId, seq, turn, (flags & GAME_FINISHED) != 0, winner,
+                        playerBoard, enemyBoard, checksum);
+            }
+            case FINISHED -> {
+                return new GameSocketMessage.GameFinished(gameId, winner(buf.get()));
+            }
+            default -> throw new IllegalArgumentException("Unknown frame opcode " + opcode);
+        }
+    }
+
+    private static void header(ByteBuffer buf, byte opcode, UUID gameId) {
+        buf.put(opcode);
+        buf.putLong(gameId.getMostSignificantBits());
+        buf.putLong(gameId.getLeastSignificantBits());
+    }
+
+    private static int flags(boolean hit, boolean sunk, boolean already, boolean finished) {
+        return (hit ? HIT : 0) | (sunk ? SUNK : 0) | (already ? ALREADY : 0) | (finished ? GAME_FINISHED : 0);
+    }
+
+    private static byte turn(String turn) {
+        return turn == null ? 0 : (byte) (Game.Turn.valueOf(turn).ordinal() + 1);
+    }
+
+    private static String turn(byte code) {
+        return code == 0 ? null : Game.Turn.values()[code - 1].name();
+    }
+
+    private static byte winner(String result) {
+        return result == null ? 0 : (byte) (Game.GameResult.valueOf(result).ordinal() + 1);
+    }
+
+    private static String winner(byte code) {
+        return code == 0 ? null : Game.GameResult.values()[code - 1].name();
+    }
+
+    private static void cells(ByteBuffer buf, int[] triples) {
+        buf.put((byte) (triples.length / 3));
+        for (int i = 0; i < triples.length; i += 3) {
+            buf.put((byte) (triples[i] * BoardModel.SIZE + triples[i + 1]));
+            buf.put((byte) triples[i + 2]);
+        }
+    }
+
+    private static int[] cells(ByteBuffer buf) {
+        int[] triples = new int[Byte.toUnsignedInt(buf.get()) * 3];
+        for (int i = 0; i < triples.length; i += 3) {
+            int index = Byte.toUnsignedInt(buf.get());
+            triples[i] = index / BoardModel.SIZE;
+            triples[i + 1] = index % BoardModel.SIZE;
+            triples[i + 2] = buf.get();
+        }
+        return triples;
+    }
+
+    private static void board(ByteBuffer buf, int[][] grid) {
+        for (int i = 0; i < CELLS; i += 2) {
+            int high = grid[i / BoardModel.SIZE][i % BoardModel.SIZE];
+            int low = grid[(i + 1) / BoardModel.SIZE][(i + 1) % BoardModel.SIZE];
+            buf.put((byte) (high << 4 | low));
+        }
+    }
+
+    private static int[][] board(ByteBuffer buf) {
+        int[][] grid = new int[BoardModel.SIZE][BoardModel.SIZE];
+        for (int i = 0; i < CELLS; i += 2) {
+            int packed = Byte.toUnsignedInt(buf.get());
+            grid[i / BoardModel.SIZE][i % BoardModel.SIZE] = packed >> 4;
+            grid[(i + 1) / BoardModel.SIZE][(i + 1) % BoardModel.SIZE] = packed & 0x0f;
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,46 @@
+package com.seabattle.server.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Heartbeat of the game WebSocket. Every interval sessions silent for longer than the idle
+ * timeout are closed and unregistered in one pass, then the rest get a ping; the browser answers
+ * with a pong on its own, so a live but quiet client is never reaped. Half-open TCP connections
+ * (phones switching networks, sleeping tabs) never send a close frame and would otherwise stay
+ * in the subscription indexes until a broadcast happened to find them closed.
+ * <p>
+ * The idle timeout should cover a few intervals so one lost pong does not drop a session.
+ */
+@Component
+public class GameSessionReaper {
+
+    private final GameWebSocketHandler handler;
+    private final Duration idleTimeout;
+    private final Counter reaped;
+    private final Counter pings;
+
+    public GameSessionReaper(GameWebSocketHandler handler,
+                             MeterRegistry meters,
+                             @Value("${app.ws.heartbeat.idle-timeout-ms:75000}") long idleTimeoutMs) {
+        this.handler = handler;
+        this.idleTimeout = Duration.ofMillis(idleTimeoutMs);
+        this.reaped = meters.counter("ws.game.reaped");
+        this.pings = meters.counter("ws.game.pings");
+        Gauge.builder("ws.game.sessions", handler, GameWebSocketHandler::connectedSessions).register(meters);
+        Gauge.builder("ws.game.subscribed", handler, GameWebSocketHandler::subscribedGames).register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ws.heartbeat.interval-ms:25000}",
+            initialDelayString = "${app.ws.heartbeat.interval-ms:25000}")
+    public void heartbeat() {
+        reaped.increment(handler.reapIdle(idleTimeout));
+        pings.increment(handler.pingAll());
+    }
+}
@@ -0,0 +1,109 @@
+package com.seabattle.server.config;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Game WebSocket subscriptions indexed both ways: game -> sessions, (game, user) -> sessions and
+ * session -> games. Subscribe, unsubscribe and lookups are O(1) per subscription, so closing a
+ * session touches only the games it was subscribed to.
+ * <p>
+ * Index sets are created and dropped inside {@link ConcurrentHashMap#compute}, which is atomic
+ * per key, so an empty set is never left behind or removed while another thread adds to it.
+ */
+public class GameSessionRegistry {
+
+    private record GameUser(UUID gameId, String username) { }
+
+    private final Map<UUID, Set<WebSocketSession>> byGame = new ConcurrentHashMap<>();
+    private final Map<GameUser, Set<WebSocketSession>> byGameUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> bySession = new ConcurrentHashMap<>();
+
+    /** Subscribes the session to the game; subscribing twice is a no-op. */
+    public void subscribe(UUID gameId, String username, WebSocketSession session) {
+        bySession.compute(session.getId(), (id, games) -> {
+            if (games == null) games = ConcurrentHashMap.newKeySet();
+            games.add(gameId);
+            return games;
+        });
+        add(byGame, gameId, session);
+        add(byGameUser, new GameUser(gameId, username), session);
+    }
+
+    /** Drops every subscription of the session; returns the games it was subscribed to. */
+    public Set<UUID> unsubscribeAll(WebSocketSession session, String username) {
+        Set<UUID> games = bySession.remove(session.getId());
+        if (games == null) return Set.of();
+        for (UUID gameId : games) {
+            remove(byGame, gameId, session);
+            remove(byGameUser, new GameUser(gameId, username), session);
+        }
+        return games;
+    }
+
+    /**
+     * Drops every subscription to the game, e.g. after it was deleted. Touches only the removed
+     * sessions: their (game, user) keys come from the {@code username} session attribute, the
+     * same name they were subscribed under.
+     */
+    public void removeGame(UUID gameId) {
+        Set<WebSocketSession> removed = byGame.remove(gameId);
+        if (removed == null) return;
+        for (WebSocketSession session : removed) {
+            remove(byGameUser, new GameUser(gameId, (String) session.getAttributes().get("username")), session);
+            bySession.computeIfPresent(session.getId(), (id, games) -> {
+                games.remove(gameId);
+                return games.isEmpty() ? null : games;
+            });
+        }
+    }
+
+    /** Sessions subscribed to the game (live view; empty when none). */
+    public Collection<WebSocketSession> sessions(UUID gameId) {
+        Set<WebSocketSession> sessions = byGame.get(gameId);
+        return sessions != null ? sessions : List.of();
+    }
+
+    /** Sessions of one player in the game (usually one; more with several tabs). */
+    public Collection<WebSocketSession> sessions(UUID gameId, String username) {
+        Set<WebSocketSession> sessions = byGameUser.get(new GameUser(gameId, username));
+        return sessions != null ? sessions : List.of();
+    }
+
+    /** Every subscribed session, each once. */
+    public Set<WebSocketSession> allSessions() {
+        Set<WebSocketSession> all = new HashSet<>();
+        byGame.values().forEach(all::addAll);
+        return all;
+    }
+
+    public int sessionCount() {
+        return bySession.size();
+    }
+
+    public int gameCount() {
+        return byGame.size();
+    }
+
+    private static <K> void add(Map<K, Set<WebSocketSession>> index, K key, WebSocketSession session) {
+        index.compute(key, (k, sessions) -> {
+            if (sessions == null) sessions = ConcurrentHashMap.newKeySet();
+            sessions.add(session);
+            return sessions;
+        });
+    }
+
+    private static <K> void remove(Map<K, Set<WebSocketSession>> index, K key, WebSocketSession session) {
+        index.computeIfPresent(key, (k, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+}
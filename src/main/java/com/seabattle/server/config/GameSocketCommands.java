@@ -0,0 +1,110 @@
+package com.seabattle.server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seabattle.server.dto.AttackResult;
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.dto.PlaceShipsRequest;
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.service.DrainGate;
+import com.seabattle.server.service.GameCommandDispatcher;
+import com.seabattle.server.service.GameService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Game commands over an already authenticated game WebSocket session, run on the game's lane like
+ * their REST counterparts. Every command is answered with an {@code ack} carrying its requestId;
+ * the state change itself reaches both players as the usual game events.
+ */
+@Component
+public class GameSocketCommands {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSocketCommands.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GameService gameService;
+    private final GameCommandDispatcher commands;
+    private final GameSocketSender sender;
+
+    public GameSocketCommands(GameService gameService, GameCommandDispatcher commands, GameSocketSender sender) {
+        this.gameService = gameService;
+        this.commands = commands;
+        this.sender = sender;
+    }
+
+    public void handle(WebSocketSession session, String type, Map<String, Object> payload) {
+        String requestId = payload.get("requestId") != null ? payload.get("requestId").toString() : null;
+        String gameIdStr = (String) payload.get("gameId");
+        UUID userId = (UUID) session.getAttributes().get("userId");
+        if (userId == null) {
+            sender.send(session, GameSocketMessage.Ack.failed(requestId, 401, "Authentication required"));
+            return;
+        }
+        if (gameIdStr == null) {
+            sender.send(session, GameSocketMessage.Ack.failed(requestId, 400, "Missing gameId"));
+            return;
+        }
+        try {
+            UUID gameId = UUID.fromString(gameIdStr);
+            Object result = switch (type) {
+                case "attack" -> {
+                    int x = coordinate(payload.get("x"));
+                    int y = coordinate(payload.get("y"));
+                    AttackResult shot = commands.execute(gameId, () -> gameService.attack(gameId, userId, x, y));
+                    yield new GameSocketMessage.ShotResult(shot.isHit(), shot.isSunk(), shot.isAlready(),
+                            shot.isGameFinished(), shot.getWinner(), shot.getCurrentTurn());
+                }
+                case "ready" -> {
+                    Game game = commands.execute(gameId, () -> gameService.markReady(gameId, userId));
+                    yield new GameSocketMessage.ReadyResult(
+                            (game.isHostReady() && game.isGuestReady())
+                                    || (game.isBot() && game.getStatus() == Game.GameStatus.IN_PROGRESS),
+                            game.getStatus() == Game.GameStatus.IN_PROGRESS);
+                }
+                case "placeShips" -> {
+                    PlaceShipsRequest request = objectMapper.convertValue(payload, PlaceShipsRequest.class);
+                    commands.execute(gameId, () -> gameService.placeShipsOnline(gameId, userId, request));
+                    yield null;
+                }
+                default -> {
+                    commands.execute(gameId, () -> gameService.surrenderOnline(gameId, userId));
+                    yield null;
+                }
+            };
+            sender.send(session, GameSocketMessage.Ack.ok(requestId, result));
+        } catch (RuntimeException e) {
+            int status = commandStatus(e);
+            if (status == 500) {
+                log.error("Game command {} failed for {}", type, userId, e);
+            }
+            sender.send(session, GameSocketMessage.Ack.failed(requestId, status,
+                    status == 500 ? "Internal error" : e.getMessage()));
+        }
+    }
+
+    private static int coordinate(Object value) {
+        if (!(value instanceof Number n) || n.intValue() < 0 || n.intValue() >= BoardModel.SIZE) {
+            throw new IllegalArgumentException("Coordinates must be between 0 and " + (BoardModel.SIZE - 1));
+        }
+        return n.intValue();
+    }
+
+    /** Same statuses as the REST endpoints and {@code ApiExceptionHandler}. */
+    private static int commandStatus(RuntimeException e) {
+        if (e instanceof DrainGate.DrainingException) return 503;
+        if (e instanceof OptimisticLockingFailureException) return 409;
+        if (e instanceof EntityNotFoundException || e instanceof NoSuchElementException) return 404;
+        if (e instanceof IllegalStateException) return 403;
+        if (e instanceof IllegalArgumentException) return 400;
+        return 500;
+    }
+}
@@ -0,0 +1,75 @@
+package com.seabattle.server.config;
+
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.service.ActiveGame;
+import com.seabattle.server.service.ActiveGameRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether a game WebSocket session's user plays in a game. Membership is fixed when a game is
+ * created, so a positive answer is kept for the rest of the session; only deleting the game
+ * ({@link #forgetGame}) drops it. A miss is answered from the registry or by an id-only query,
+ * never by loading the users.
+ */
+@Component
+public class GameSocketParticipation {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSocketParticipation.class);
+
+    private final GameRepository gameRepository;
+    private final ActiveGameRegistry activeGameRegistry;
+
+    /** Session id -> games its user is known to play in. */
+    private final Map<String, Set<UUID>> participantOf = new ConcurrentHashMap<>();
+
+    public GameSocketParticipation(GameRepository gameRepository, ActiveGameRegistry activeGameRegistry) {
+        this.gameRepository = gameRepository;
+        this.activeGameRegistry = activeGameRegistry;
+    }
+
+    public boolean isParticipant(WebSocketSession session, UUID gameId) {
+        UUID userId = (UUID) session.getAttributes().get("userId");
+        if (userId == null) {
+            return false;
+        }
+        Set<UUID> known = participantOf.get(session.getId());
+        if (known != null && known.contains(gameId)) {
+            return true;
+        }
+
+        boolean participant;
+        try {
+            ActiveGame active = activeGameRegistry.peek(gameId).orElse(null);
+            if (active != null) {
+                participant = active.participant(userId) != null;
+            } else {
+                participant = gameRepository.isParticipant(gameId, userId);
+            }
+        } catch (Exception e) {
+            log.warn("Error checking user participation: {}", e.getMessage());
+            return false;
+        }
+        if (participant) {
+            participantOf.computeIfAbsent(session.getId(), id -> ConcurrentHashMap.newKeySet()).add(gameId);
+        }
+        return participant;
+    }
+
+    /** The session closed. */
+    public void forgetSession(WebSocketSession session) {
+        participantOf.remove(session.getId());
+    }
+
+    /** The game was deleted. */
+    public void forgetGame(UUID gameId) {
+        participantOf.values().forEach(games -> games.remove(gameId));
+    }
+}
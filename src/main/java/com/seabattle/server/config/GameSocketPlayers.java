@@ -0,0 +1,210 @@
+package com.seabattle.server.config;
+
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.service.DrainGate;
+import com.seabattle.server.service.GameService;
+import com.seabattle.server.service.RematchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Player sessions of the game WebSocket: subscriptions to the games they play in, resyncs and
+ * rematch offers, and the game and per-player fan-out of game events.
+ */
+@Component
+public class GameSocketPlayers {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSocketPlayers.class);
+
+    private final GameService gameService;
+    private final RematchService rematchService;
+    private final GameSocketParticipation participation;
+    private final GameSocketSender sender;
+    private final GameSocketResume resume;
+    private final GameSessionRegistry sessions = new GameSessionRegistry();
+
+    public GameSocketPlayers(GameService gameService, RematchService rematchService,
+                             GameSocketParticipation participation, GameSocketSender sender, GameSocketResume resume) {
+        this.gameService = gameService;
+        this.rematchService = rematchService;
+        this.participation = participation;
+        this.sender = sender;
+        this.resume = resume;
+    }
+
+    public void subscribe(WebSocketSession session, Map<String, Object> payload) {
+        String gameIdStr = (String) payload.get("gameId");
+        if (gameIdStr == null) {
+            log.warn("Missing gameId in subscribe message");
+            return;
+        }
+
+        try {
+            UUID gameId = UUID.fromString(gameIdStr);
+            String username = (String) session.getAttributes().get("username");
+            UUID userId = (UUID) session.getAttributes().get("userId");
+            if (username == null || userId == null) {
+                log.warn("User not authenticated in WebSocket session");
+                sender.sendError(session, "Authentication required");
+                return;
+            }
+
+            if (!participation.isParticipant(session, gameId)) {
+                log.warn("User is not a participant in game {}", gameId);
+                sender.sendError(session, "You are not a participant in this game");
+                return;
+            }
+
+            sessions.subscribe(gameId, username, session);
+            session.getAttributes().put("gameId", gameId);
+            log.debug("Session {} subscribed to game {}", session.getId(), gameId);
+
+            sender.send(session, new GameSocketMessage.Subscribed(gameId));
+            if (payload.get("lastSeq") instanceof Number lastSeq) {
+                resume.resume(session, gameId, username, lastSeq.longValue(),
+                        () -> gameService.stateSnapshot(gameId, userId));
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid gameId format: {}", gameIdStr);
+            sender.sendError(session, "Invalid game ID format");
+        }
+    }
+
+    /** Full state for a client whose delta sequence or checksum no longer matches. */
+    public void resync(WebSocketSession session, Map<String, Object> payload) {
+        String gameIdStr = (String) payload.get("gameId");
+        UUID userId = (UUID) session.getAttributes().get("userId");
+        if (gameIdStr == null || userId == null) {
+            sender.sendError(session, "Missing gameId or not authenticated");
+            return;
+        }
+        try {
+            UUID gameId = UUID.fromString(gameIdStr);
+            sender.send(session, gameService.stateSnapshot(gameId, userId));
+        } catch (IllegalArgumentException e) {
+            sender.sendError(session, "Invalid game ID format");
+        } catch (RuntimeException e) {
+            log.debug("Resync of game {} for {} failed: {}", gameIdStr, userId, e.getMessage());
+            sender.sendError(session, "Cannot resync this game");
+        }
+    }
+
+    public void requestRematch(WebSocketSession session, Map<String, Object> payload) {
+        String gameIdStr = (String) payload.get("gameId");
+        String username = (String) session.getAttributes().get("username");
+        if (gameIdStr == null || username == null) {
+            sender.sendError(session, "Missing gameId or not authenticated");
+            return;
+        }
+        try {
+            UUID gameId = UUID.fromString(gameIdStr);
+            if (!participation.isParticipant(session, gameId)) {
+                sender.sendError(session, "You are not a participant in this game");
+                return;
+            }
+            String otherUsername = rematchService.requestRematch(gameId, username);
+            if (otherUsername == null) {
+                sender.sendError(session, "Cannot request rematch for this game");
+                return;
+            }
+            sendToUser(gameId, otherUsername, new GameSocketMessage.RematchRequested(gameId, username));
+            sender.send(session, new GameSocketMessage.RematchRequestSent(gameId));
+        } catch (IllegalArgumentException e) {
+            sender.sendError(session, "Invalid game ID format");
+        }
+    }
+
+    public void acceptRematch(WebSocketSession session, Map<String, Object> payload) {
+        String gameIdStr = (String) payload.get("gameId");
+        String username = (String) session.getAttributes().get("username");
+        if (gameIdStr == null || username == null) {
+            sender.sendError(session, "Missing gameId or not authenticated");
+            return;
+        }
+        try {
+            UUID gameId = UUID.fromString(gameIdStr);
+            if (!participation.isParticipant(session, gameId)) {
+                sender.sendError(session, "You are not a participant in this game");
+                return;
+            }
+            UUID newGameId;
+            try {
+                newGameId = rematchService.acceptRematch(gameId, username);
+            } catch (DrainGate.DrainingException e) {
+                sender.sendError(session, e.getMessage());
+                return;
+            }
+            if (newGameId == null) {
+                sender.sendError(session, "Cannot accept rematch");
+                return;
+            }
+            broadcast(gameId, new GameSocketMessage.RematchAccepted(gameId, newGameId));
+        } catch (IllegalArgumentException e) {
+            sender.sendError(session, "Invalid game ID format");
+        }
+    }
+
+    public void declineRematch(WebSocketSession session, Map<String, Object> payload) {
+        String gameIdStr = (String) payload.get("gameId");
+        if (gameIdStr == null) {
+            sender.sendError(session, "Missing gameId");
+            return;
+        }
+        try {
+            UUID gameId = UUID.fromString(gameIdStr);
+            String requestedBy = rematchService.declineRematch(gameId);
+            if (requestedBy != null) {
+                sendToUser(gameId, requestedBy, new GameSocketMessage.RematchDeclined(gameId));
+            }
+        } catch (IllegalArgumentException e) {
+            sender.sendError(session, "Invalid game ID format");
+        }
+    }
+
+    /** Serializes the message once per wire format and sends the same frame to every session subscribed to the game. */
+    public void broadcast(UUID gameId, GameSocketMessage message) {
+        Collection<WebSocketSession> subscribers = sessions.sessions(gameId);
+        if (subscribers.isEmpty()) {
+            log.debug("No sessions found for game {}", gameId);
+            return;
+        }
+        sender.sendAll(subscribers, message);
+    }
+
+    /** Serializes the message once per wire format and sends it to every session of the player in the game. */
+    public void sendToUser(UUID gameId, String username, GameSocketMessage message) {
+        sender.sendAll(sessions.sessions(gameId, username), message);
+    }
+
+    /** The session closed or was dropped: forgets its subscriptions and cached participation. */
+    public void leave(WebSocketSession session) {
+        sessions.unsubscribeAll(session, (String) session.getAttributes().get("username"));
+        participation.forgetSession(session);
+    }
+
+    /** The game was deleted: drops its subscriptions and the participation cached for it. */
+    public void forgetGame(UUID gameId) {
+        sessions.removeGame(gameId);
+        participation.forgetGame(gameId);
+    }
+
+    /** Every subscribed session, each once. */
+    public Set<WebSocketSession> subscribers() {
+        return sessions.allSessions();
+    }
+
+    public int subscribedGames() {
+        return sessions.gameCount();
+    }
+
+    public int subscribedSessions() {
+        return sessions.sessionCount();
+    }
+}
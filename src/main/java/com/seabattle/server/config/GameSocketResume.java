@@ -0,0 +1,52 @@
+package com.seabattle.server.config;
+
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.service.RecentGameEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Catch-up for a game WebSocket client that reconnected at lastSeq: the messages it missed from
+ * {@link RecentGameEvents}, or a snapshot when they are no longer all there.
+ */
+@Component
+public class GameSocketResume {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSocketResume.class);
+
+    private final RecentGameEvents recentEvents;
+    private final GameSocketSender sender;
+
+    public GameSocketResume(RecentGameEvents recentEvents, GameSocketSender sender) {
+        this.recentEvents = recentEvents;
+        this.sender = sender;
+    }
+
+    /**
+     * @param recipient the player's username, or {@link RecentGameEvents#SPECTATORS}
+     * @param snapshot  full state, built only when the missed messages are gone
+     */
+    public void resume(WebSocketSession session, UUID gameId, String recipient, long lastSeq,
+                       Supplier<GameSocketMessage.GameSnapshot> snapshot) {
+        Optional<List<GameSocketMessage>> missed = recentEvents.since(gameId, recipient, lastSeq);
+        if (missed.isPresent()) {
+            missed.get().forEach(m -> sender.send(session, m));
+            log.debug("Resumed game {} for session {} from seq {} with {} messages",
+                    gameId, session.getId(), lastSeq, missed.get().size());
+            return;
+        }
+        try {
+            sender.send(session, snapshot.get());
+        } catch (RuntimeException e) {
+            log.debug("Snapshot of game {} for session {} failed: {}", gameId, session.getId(), e.getMessage());
+            sender.sendError(session, "Cannot resync this game");
+        }
+    }
+}
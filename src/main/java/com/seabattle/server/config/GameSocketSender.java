@@ -0,0 +1,117 @@
+package com.seabattle.server.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seabattle.server.dto.GameSocketMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Writes to game WebSocket sessions. Every frame goes through the session's only queue: the
+ * players' {@link OutboundQueues} or, for spectator sessions, {@link SpectatorHub#outbound()}.
+ * Messages are JSON text by default; a session that accepted the {@value GameBinaryCodec#PROTOCOL}
+ * subprotocol gets the per-shot messages as binary frames.
+ */
+@Component
+public class GameSocketSender {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OutboundQueues outbound;
+    private final SpectatorHub spectators;
+
+    public GameSocketSender(OutboundQueues outbound, SpectatorHub spectators) {
+        this.outbound = outbound;
+        this.spectators = spectators;
+    }
+
+    /** Sessions opened with {@code mode=spectator}. */
+    public static boolean isSpectator(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get("spectator"));
+    }
+
+    public void send(WebSocketSession session, GameSocketMessage message) {
+        send(session, new Frames(message));
+    }
+
+    /** Serializes the message once per wire format and sends the same frame to every session. */
+    public void sendAll(Collection<WebSocketSession> sessions, GameSocketMessage message) {
+        if (sessions.isEmpty()) return;
+        Frames frames = new Frames(message);
+        sessions.forEach(session -> send(session, frames));
+    }
+
+    public void sendError(WebSocketSession session, String errorMessage) {
+        send(session, new GameSocketMessage.ErrorMessage(errorMessage));
+    }
+
+    /** Queues a protocol-level ping; browsers answer with a pong. */
+    public void ping(WebSocketSession session) {
+        queueOf(session).send(session, new PingMessage());
+    }
+
+    /** Closes the session after the frames already queued for it. */
+    public void close(WebSocketSession session, CloseStatus status) {
+        queueOf(session).close(session, status);
+    }
+
+    /** The session is gone: drops its queue. */
+    public void closed(WebSocketSession session) {
+        queueOf(session).closed(session);
+    }
+
+    /** Queues the frame on the session's outbound queue; never blocks on the client. */
+    private void send(WebSocketSession session, Frames frames) {
+        queueOf(session).send(session, frames.of(session), frames.stateOf());
+    }
+
+    /** The only queue allowed to write to the session. */
+    private OutboundQueues queueOf(WebSocketSession session) {
+        return isSpectator(session) ? spectators.outbound() : outbound;
+    }
+
+    private TextMessage json(GameSocketMessage message) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + message.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * One message encoded on first use per wire format and then shared by all recipients. Binary
+     * frames get a fresh buffer view per send because the container consumes its position.
+     */
+    private final class Frames {
+        private final GameSocketMessage message;
+        private TextMessage text;
+        private byte[] binary;
+
+        Frames(GameSocketMessage message) {
+            this.message = message;
+        }
+
+        /** Board updates may be conflated by the outbound queue; everything else is always delivered. */
+        UUID stateOf() {
+            return message instanceof GameSocketMessage.GameStateDelta d ? d.gameId()
+                    : message instanceof GameSocketMessage.GameSnapshot s ? s.gameId()
+                    : null;
+        }
+
+        WebSocketMessage<?> of(WebSocketSession session) {
+            if (GameBinaryCodec.PROTOCOL.equals(session.getAcceptedProtocol()) && GameBinaryCodec.supports(message)) {
+                if (binary == null) binary = GameBinaryCodec.encode(message);
+                return new BinaryMessage(binary);
+            }
+            if (text == null) text = json(message);
+            return text;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.seabattle.server.config;
+
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.service.GameService;
+import com.seabattle.server.service.RecentGameEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spectator sessions of the game WebSocket (opened with {@code mode=spectator}, token optional).
+ * They are read-only: they can only pick a featured game to watch and resync it. All their
+ * frames go through {@link SpectatorHub#outbound()}, so a session is never written by two queues.
+ */
+@Component
+public class GameSocketSpectators {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSocketSpectators.class);
+
+    private final GameService gameService;
+    private final SpectatorHub spectators;
+    private final GameSocketSender sender;
+    private final GameSocketResume resume;
+
+    public GameSocketSpectators(GameService gameService, SpectatorHub spectators,
+                                GameSocketSender sender, GameSocketResume resume) {
+        this.gameService = gameService;
+        this.spectators = spectators;
+        this.sender = sender;
+        this.resume = resume;
+    }
+
+    public void handle(WebSocketSession session, String type, Map<String, Object> payload) {
+        if (!"spectate".equals(type) && !"resync".equals(type)) {
+            sender.sendError(session, "Spectator sessions are read-only");
+            return;
+        }
+        String gameIdStr = (String) payload.get("gameId");
+        if (gameIdStr == null) {
+            sender.sendError(session, "Missing gameId");
+            return;
+        }
+        try {
+            UUID gameId = UUID.fromString(gameIdStr);
+            if ("spectate".equals(type)) {
+                if (!gameService.isSpectatable(gameId)) {
+                    sender.sendError(session, "Game is not open to spectators");
+                    return;
+                }
+                if (!spectators.watch(gameId, session)) {
+                    sender.sendError(session, "Too many spectators, try again later");
+                    return;
+                }
+                sender.send(session, new GameSocketMessage.Spectating(gameId));
+                if (payload.get("lastSeq") instanceof Number lastSeq) {
+                    resume.resume(session, gameId, RecentGameEvents.SPECTATORS, lastSeq.longValue(),
+                            () -> gameService.spectatorSnapshot(gameId));
+                    return;
+                }
+            }
+            sender.send(session, gameService.spectatorSnapshot(gameId));
+        } catch (IllegalArgumentException e) {
+            sender.sendError(session, "Invalid game ID format");
+        } catch (RuntimeException e) {
+            log.debug("Spectating game {} failed: {}", gameIdStr, e.getMessage());
+            spectators.leave(session);
+            sender.sendError(session, "Cannot spectate this game");
+        }
+    }
+
+    /** Whether anyone watches the game, so the spectator view is only built when needed. */
+    public boolean hasViewers(UUID gameId) {
+        return spectators.hasViewers(gameId);
+    }
+
+    /**
+     * Serializes the message once per wire format for all viewers of the game. Board updates may
+     * be conflated for slow viewers, who then resync from the sequence gap.
+     */
+    public void broadcast(UUID gameId, GameSocketMessage message) {
+        sender.sendAll(spectators.viewers(gameId), message);
+    }
+
+    public void leave(WebSocketSession session) {
+        spectators.leave(session);
+    }
+
+    public void removeGame(UUID gameId) {
+        spectators.removeGame(gameId);
+    }
+}
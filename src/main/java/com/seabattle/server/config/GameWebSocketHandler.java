@@ -1,45 +1,71 @@
 package com.seabattle.server.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.seabattle.server.entity.Game;
+import com.seabattle.server.dto.GameSocketMessage;
 import com.seabattle.server.entity.User;
-import com.seabattle.server.repository.GameRepository;
-import com.seabattle.server.repository.UserRepository;
-import com.seabattle.server.service.RematchService;
+import com.seabattle.server.service.UserAccessChanged;
+import com.seabattle.server.service.UserAccessRegistry;
 import com.seabattle.server.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Game WebSocket. Messages are JSON text by default; a client that offers the
+ * {@value GameBinaryCodec#PROTOCOL} subprotocol gets the per-shot messages as binary frames
+ * instead (see {@link GameBinaryCodec}). Client-to-server messages are JSON in both cases.
+ * <p>
+ * The handler authenticates the connection, keeps it alive and routes each message: player
+ * subscriptions and rematches to {@link GameSocketPlayers}, game commands to
+ * {@link GameSocketCommands}, everything from a spectator session to {@link GameSocketSpectators}.
+ * All writes go through {@link GameSocketSender}.
+ * <p>
+ * The handshake is authenticated from the token claims and {@link UserAccessRegistry}, like REST
+ * requests, without loading the user. The same check runs again on every message, and a block,
+ * delete or admin demotion closes the user's open sessions as soon as the change commits.
+ */
 @Component
-public class GameWebSocketHandler extends TextWebSocketHandler {
+public class GameWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
 
     private static final Logger log = LoggerFactory.getLogger(GameWebSocketHandler.class);
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final UserRepository userRepository;
-    private final GameRepository gameRepository;
+    private final UserAccessRegistry userAccess;
     private final JwtUtil jwtUtil;
-    private final RematchService rematchService;
+    private final GameSocketSender sender;
+    private final GameSocketPlayers players;
+    private final GameSocketCommands commands;
+    private final GameSocketSpectators spectators;
 
-    private final Map<UUID, CopyOnWriteArraySet<WebSocketSession>> gameSessions = new ConcurrentHashMap<>();
+    /** Every open session with the time it was last heard from, for the idle reaper. */
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
 
-    public GameWebSocketHandler(UserRepository userRepository, GameRepository gameRepository, JwtUtil jwtUtil, RematchService rematchService) {
-        this.userRepository = userRepository;
-        this.gameRepository = gameRepository;
+    public GameWebSocketHandler(UserAccessRegistry userAccess, JwtUtil jwtUtil, GameSocketSender sender,
+                                GameSocketPlayers players, GameSocketCommands commands,
+                                GameSocketSpectators spectators) {
+        this.userAccess = userAccess;
         this.jwtUtil = jwtUtil;
-        this.rematchService = rematchService;
+        this.sender = sender;
+        this.players = players;
+        this.commands = commands;
+        this.spectators = spectators;
     }
 
     @Override
@@ -52,12 +78,19 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             if (query != null) {
                 for (String param : query.split("&")) {
                     String[] keyValue = param.split("=");
+                    if (keyValue.length == 2 && "mode".equals(keyValue[0]) && "spectator".equals(keyValue[1])) {
+                        session.getAttributes().put("spectator", true);
+                    }
                     if (keyValue.length == 2 && "token".equals(keyValue[0])) {
                         String token = keyValue[1];
-                        if (jwtUtil.validateToken(token)) {
-                            String username = jwtUtil.extractUsername(token);
-                            session.getAttributes().put("username", username);
-                            log.debug("Authenticated WebSocket user: {}", username);
+                        // Без запроса пользователя: id и роль из токена, блокировки и удаления из реестра
+                        Claims claims = jwtUtil.verify(token).orElse(null);
+                        String role = claims != null ? claims.get("role", String.class) : null;
+                        if (claims != null && userAccess.allows(JwtUtil.userId(claims), role)) {
+                            session.getAttributes().put("username", claims.getSubject());
+                            session.getAttributes().put("userId", JwtUtil.userId(claims));
+                            session.getAttributes().put("role", role);
+                            log.debug("Authenticated WebSocket user: {}", claims.getSubject());
                         } else {
                             log.warn("Invalid token in WebSocket connection");
                             session.close(CloseStatus.POLICY_VIOLATION.withReason("Invalid token"));
@@ -67,26 +100,60 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
                 }
             }
         }
+        connections.put(session.getId(), new Connection(session));
+    }
+
+    /** Pong to one of the heartbeat pings: the peer is still there. */
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        touch(session);
+    }
+
+    private void touch(WebSocketSession session) {
+        Connection connection = connections.get(session.getId());
+        if (connection != null) {
+            connection.lastSeenNanos = System.nanoTime();
+        }
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        touch(session);
+        if (revoked(session)) {
+            log.info("Closing game WebSocket of revoked user {}", session.getAttributes().get("username"));
+            unregister(session);
+            sender.close(session, CloseStatus.POLICY_VIOLATION.withReason("Access revoked"));
+            return;
+        }
         try {
             Map<String, Object> payload = objectMapper.readValue(message.getPayload(), Map.class);
             String type = (String) payload.get("type");
 
+            if (GameSocketSender.isSpectator(session)) {
+                spectators.handle(session, type, payload);
+                return;
+            }
             switch (type) {
                 case "subscribe":
-                    handleSubscribe(session, payload);
+                    players.subscribe(session, payload);
+                    break;
+                case "attack":
+                case "ready":
+                case "placeShips":
+                case "surrender":
+                    commands.handle(session, type, payload);
+                    break;
+                case "resync":
+                    players.resync(session, payload);
                     break;
                 case "rematchRequest":
-                    handleRematchRequest(session, payload);
+                    players.requestRematch(session, payload);
                     break;
                 case "rematchAccept":
-                    handleRematchAccept(session, payload);
+                    players.acceptRematch(session, payload);
                     break;
                 case "rematchDecline":
-                    handleRematchDecline(session, payload);
+                    players.declineRematch(session, payload);
                     break;
                 default:
                     log.warn("Unknown game message type: {}", type);
@@ -96,206 +163,154 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private void handleSubscribe(WebSocketSession session, Map<String, Object> payload) {
-        String gameIdStr = (String) payload.get("gameId");
-        if (gameIdStr == null) {
-            log.warn("Missing gameId in subscribe message");
-            return;
-        }
+    /** Authenticated session whose user was blocked, deleted or demoted since the handshake. */
+    private boolean revoked(WebSocketSession session) {
+        UUID userId = (UUID) session.getAttributes().get("userId");
+        return userId != null && !userAccess.allows(userId, (String) session.getAttributes().get("role"));
+    }
 
-        try {
-            UUID gameId = UUID.fromString(gameIdStr);
-            String username = (String) session.getAttributes().get("username");
-            if (username == null) {
-                log.warn("User not authenticated in WebSocket session");
-                sendError(session, "Authentication required");
-                return;
+    /**
+     * Closes the open sessions of a user who was just blocked or deleted, and the admin sessions of
+     * a demoted admin. Decided from the change itself, so it does not depend on whether
+     * {@link UserAccessRegistry} has seen the event yet.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(UserAccessChanged change) {
+        boolean revokeAll = change.deleted() || change.status() == User.Status.BLOCKED;
+        boolean revokeAdmin = change.role() != User.Role.ADMIN;
+        int closed = 0;
+        for (Connection c : connections.values()) {
+            Map<String, Object> attributes = c.session.getAttributes();
+            if (!change.userId().equals(attributes.get("userId"))) continue;
+            if (revokeAll || (revokeAdmin && User.Role.ADMIN.name().equals(attributes.get("role")))) {
+                unregister(c.session);
+                sender.close(c.session, CloseStatus.POLICY_VIOLATION.withReason("Access revoked"));
+                closed++;
             }
+        }
+        if (closed > 0) {
+            log.info("Closed {} game WebSocket sessions of user {} after an access change", closed, change.userId());
+        }
+    }
 
-            if (!isUserParticipant(session, gameId)) {
-                log.warn("User is not a participant in game {}", gameId);
-                sendError(session, "You are not a participant in this game");
-                return;
-            }
+    /** The game was deleted: drops its subscriptions, viewers and the participation cached for it. */
+    public void forgetGame(UUID gameId) {
+        players.forgetGame(gameId);
+        spectators.removeGame(gameId);
+    }
 
-            gameSessions.computeIfAbsent(gameId, k -> new CopyOnWriteArraySet<>()).add(session);
-            session.getAttributes().put("gameId", gameId);
-            log.debug("Session {} subscribed to game {}", session.getId(), gameId);
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(GameBinaryCodec.PROTOCOL);
+    }
 
-            sendMessage(session, Map.of("type", "subscribed", "gameId", gameIdStr));
-        } catch (IllegalArgumentException e) {
-            log.warn("Invalid gameId format: {}", gameIdStr);
-            sendError(session, "Invalid game ID format");
-        }
+    /** Serializes the message once per wire format and sends the same frame to every session subscribed to the game. */
+    public void broadcastToGame(UUID gameId, GameSocketMessage message) {
+        players.broadcast(gameId, message);
     }
 
-    private void handleRematchRequest(WebSocketSession session, Map<String, Object> payload) {
-        String gameIdStr = (String) payload.get("gameId");
-        String username = (String) session.getAttributes().get("username");
-        if (gameIdStr == null || username == null) {
-            sendError(session, "Missing gameId or not authenticated");
-            return;
-        }
-        try {
-            UUID gameId = UUID.fromString(gameIdStr);
-            if (!isUserParticipant(session, gameId)) {
-                sendError(session, "You are not a participant in this game");
-                return;
-            }
-            String otherUsername = rematchService.requestRematch(gameId, username);
-            if (otherUsername == null) {
-                sendError(session, "Cannot request rematch for this game");
-                return;
-            }
-            sendToUser(gameId, otherUsername, Map.of(
-                "type", "rematchRequested",
-                "gameId", gameIdStr,
-                "requestedByUsername", username
-            ));
-            sendMessage(session, Map.of("type", "rematchRequestSent", "gameId", gameIdStr));
-        } catch (IllegalArgumentException e) {
-            sendError(session, "Invalid game ID format");
-        }
+    /** Whether anyone watches the game, so the spectator view is only built when needed. */
+    public boolean hasSpectators(UUID gameId) {
+        return spectators.hasViewers(gameId);
     }
 
-    private void handleRematchAccept(WebSocketSession session, Map<String, Object> payload) {
-        String gameIdStr = (String) payload.get("gameId");
-        String username = (String) session.getAttributes().get("username");
-        if (gameIdStr == null || username == null) {
-            sendError(session, "Missing gameId or not authenticated");
-            return;
-        }
-        try {
-            UUID gameId = UUID.fromString(gameIdStr);
-            if (!isUserParticipant(session, gameId)) {
-                sendError(session, "You are not a participant in this game");
-                return;
-            }
-            UUID newGameId = rematchService.acceptRematch(gameId, username);
-            if (newGameId == null) {
-                sendError(session, "Cannot accept rematch");
-                return;
-            }
-            broadcastToGame(gameId, Map.of(
-                "type", "rematchAccepted",
-                "gameId", gameIdStr,
-                "newGameId", newGameId.toString()
-            ));
-        } catch (IllegalArgumentException e) {
-            sendError(session, "Invalid game ID format");
-        }
+    /** Serializes the message once per wire format for all viewers of the game. */
+    public void broadcastToSpectators(UUID gameId, GameSocketMessage message) {
+        spectators.broadcast(gameId, message);
     }
 
-    private void handleRematchDecline(WebSocketSession session, Map<String, Object> payload) {
-        String gameIdStr = (String) payload.get("gameId");
-        if (gameIdStr == null) {
-            sendError(session, "Missing gameId");
-            return;
-        }
-        try {
-            UUID gameId = UUID.fromString(gameIdStr);
-            String requestedBy = rematchService.declineRematch(gameId);
-            if (requestedBy != null) {
-                sendToUser(gameId, requestedBy, Map.of("type", "rematchDeclined", "gameId", gameIdStr));
-            }
-        } catch (IllegalArgumentException e) {
-            sendError(session, "Invalid game ID format");
-        }
+    /** Serializes the message once per wire format and sends it to every session of the player in the game. */
+    public void sendToUser(UUID gameId, String username, GameSocketMessage message) {
+        players.sendToUser(gameId, username, message);
     }
 
-    private boolean isUserParticipant(WebSocketSession session, UUID gameId) {
-        String username = (String) session.getAttributes().get("username");
-        if (username == null) {
-            return false;
+    /**
+     * Tells every subscribed client that this node is restarting and closes its session with
+     * 1012 (service restart). Each client gets its own reconnect delay within spreadMs, so
+     * reconnects and the state reloads behind them do not arrive as one burst.
+     */
+    public void announceRestart(long spreadMs) {
+        Set<WebSocketSession> all = players.subscribers();
+        connections.values().stream().map(c -> c.session).filter(GameSocketSender::isSpectator).forEach(all::add);
+        for (WebSocketSession session : all) {
+            long delay = spreadMs > 0 ? ThreadLocalRandom.current().nextLong(spreadMs) : 0;
+            sender.send(session, new GameSocketMessage.ServerRestart(delay));
+            sender.close(session, CloseStatus.SERVICE_RESTARTED);
         }
+        log.info("Announced restart to {} WebSocket sessions", all.size());
+    }
 
-        try {
-            User user = userRepository.findByUsername(username).orElse(null);
-            if (user == null) return false;
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        unregister(session);
+        sender.closed(session);
+        log.info("Game WebSocket connection closed: sessionId={}", session.getId());
+    }
 
-            Game game = gameRepository.findById(gameId).orElse(null);
-            if (game == null) return false;
+    private void unregister(WebSocketSession session) {
+        connections.remove(session.getId());
+        players.leave(session);
+        spectators.leave(session);
+    }
 
-            // Compare by ID to avoid EntityManager detachment issues
-            boolean isHost = game.getHost().getId().equals(user.getId());
-            boolean isGuest = game.getGuest() != null && game.getGuest().getId().equals(user.getId());
-            return isHost || isGuest;
-        } catch (Exception e) {
-            log.warn("Error checking user participation: {}", e.getMessage());
-            return false;
+    /**
+     * Queues a protocol-level ping to every connected session; browsers answer with a pong.
+     *
+     * @return number of pinged sessions
+     */
+    public int pingAll() {
+        int pinged = 0;
+        for (Connection c : connections.values()) {
+            sender.ping(c.session);
+            pinged++;
         }
+        return pinged;
     }
 
-    public void broadcastToGame(UUID gameId, Object message) {
-        log.debug("Broadcasting to game {}: {}", gameId, message);
-        CopyOnWriteArraySet<WebSocketSession> sessions = gameSessions.get(gameId);
-        if (sessions == null) {
-            log.debug("No sessions found for game {}", gameId);
-            return;
-        }
-        sessions.removeIf(s -> !s.isOpen());
-        sessions.forEach(session -> {
-            if (session.isOpen()) {
-                try {
-                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
-                } catch (IOException e) {
-                    log.warn("Error sending message to session {}: {}", session.getId(), e.getMessage());
-                }
+    /**
+     * Closes and unregisters every session that has sent nothing, not even a pong, for longer
+     * than idle. Half-open connections never report a close, so they are dropped from the
+     * indexes here instead of in {@link #afterConnectionClosed}.
+     *
+     * @return number of reaped sessions
+     */
+    public int reapIdle(Duration idle) {
+        long idleBefore = System.nanoTime() - idle.toNanos();
+        int reaped = 0;
+        for (Connection c : connections.values()) {
+            if (c.lastSeenNanos - idleBefore < 0) {
+                unregister(c.session);
+                sender.close(c.session, CloseStatus.SESSION_NOT_RELIABLE.withReason("Idle timeout"));
+                reaped++;
             }
-        });
+        }
+        if (reaped > 0) {
+            log.info("Reaped {} idle game WebSocket sessions", reaped);
+        }
+        return reaped;
     }
 
-    public void sendToUser(UUID gameId, String username, Object message) {
-        CopyOnWriteArraySet<WebSocketSession> sessions = gameSessions.get(gameId);
-        if (sessions == null) return;
-        sessions.removeIf(s -> !s.isOpen());
-        sessions.forEach(session -> {
-            String sessionUsername = (String) session.getAttributes().get("username");
-            if (session.isOpen() && username.equals(sessionUsername)) {
-                try {
-                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
-                } catch (IOException e) {
-                    log.warn("Error sending message to session {}: {}", session.getId(), e.getMessage());
-                }
-            }
-        });
+    /** Open game WebSocket sessions, subscribed or not. */
+    public int connectedSessions() {
+        return connections.size();
     }
 
-    private void sendMessage(WebSocketSession session, Object message) {
-        try {
-            if (session.isOpen()) {
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
-            }
-        } catch (IOException e) {
-            log.warn("Error sending message: {}", e.getMessage());
-        }
+    /** Games with at least one subscribed session. */
+    public int subscribedGames() {
+        return players.subscribedGames();
     }
 
-    private void sendError(WebSocketSession session, String errorMessage) {
-        sendMessage(session, Map.of("type", "error", "message", errorMessage));
+    /** Open game WebSocket sessions with at least one subscription. */
+    public int subscribedSessions() {
+        return players.subscribedSessions();
     }
 
-    @Override
-    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        gameSessions.forEach((gameId, sessions) -> {
-            sessions.remove(session);
-            if (sessions.isEmpty()) {
-                gameSessions.remove(gameId);
-            }
-        });
+    private static final class Connection {
+        final WebSocketSession session;
+        volatile long lastSeenNanos = System.nanoTime();
 
-        Object gameIdObj = session.getAttributes().get("gameId");
-        if (gameIdObj instanceof UUID) {
-            UUID gameId = (UUID) gameIdObj;
-            CopyOnWriteArraySet<WebSocketSession> sessions = gameSessions.get(gameId);
-            if (sessions != null) {
-                sessions.remove(session);
-                if (sessions.isEmpty()) {
-                    gameSessions.remove(gameId);
-                }
-            }
+        Connection(WebSocketSession session) {
+            this.session = session;
         }
-
-        log.info("Game WebSocket connection closed: sessionId={}", session.getId());
     }
 }
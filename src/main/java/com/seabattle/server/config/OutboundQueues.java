@@ -0,0 +1,301 @@
+package com.seabattle.server.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound queue per WebSocket session. Callers (request threads, game lanes, often inside a
+ * transaction) only append a frame and return; each session's queue is drained in order by one
+ * sender task at a time, so frames of a session are never written concurrently and a slow client
+ * only holds a sender thread, not the caller.
+ * <p>
+ * Limits per session: queued bytes ({@code buffer-size-limit}) and the time one send may take
+ * ({@code send-time-limit-ms}). On overflow state frames are conflated: of the queued board
+ * updates of a game only the newest is kept, and its sequence gap makes the client resync. A
+ * session still over the byte limit after that, or whose current send is past the time limit,
+ * is closed with {@link CloseStatus#SESSION_NOT_RELIABLE}. The time limit is also set as the
+ * container's blocking send timeout, so a send already stuck on a dead client fails instead of
+ * holding its sender thread, and evicted sessions are closed on their own threads, never on the
+ * senders other sessions are waiting for.
+ * <p>
+ * {@code ConcurrentWebSocketSessionDecorator} is not used: it flushes on whichever caller thread
+ * wins its lock, which is exactly the blocking this avoids.
+ */
+@Component
+public class OutboundQueues {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundQueues.class);
+
+    private final Map<String, Outbound> queues = new ConcurrentHashMap<>();
+    private final Executor senders;
+    private final ExecutorService closers = platformClosers();
+    private final long sendTimeLimitMs;
+    private final long sendTimeLimitNanos;
+    private final int bufferSizeLimit;
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+    private final Counter sent;
+    private final Counter conflated;
+    private final Counter evictedSlow;
+    private final Counter evictedOverflow;
+    private final Counter evictedFailed;
+    private final Timer sendTime;
+
+    @Autowired
+    public OutboundQueues(MeterRegistry meters,
+                          Environment environment,
+                          @Value("${app.ws.outbound.threads:4}") int threads,
+                          @Value("${app.ws.outbound.send-time-limit-ms:5000}") long sendTimeLimitMs,
+                          @Value("${app.ws.outbound.buffer-size-limit:65536}") int bufferSizeLimit) {
+        this(meters, Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("ws-send-")
+                : platformSenders(threads), sendTimeLimitMs, bufferSizeLimit);
+    }
+
+    public OutboundQueues(MeterRegistry meters, Executor senders, long sendTimeLimitMs, int bufferSizeLimit) {
+        this(meters, "ws.outbound", senders, sendTimeLimitMs, bufferSizeLimit);
+    }
+
+    /** A separate set of queues, e.g. for spectators; its meters are named metricPrefix.*. */
+    public OutboundQueues(MeterRegistry meters, String metricPrefix, Executor senders,
+                          long sendTimeLimitMs, int bufferSizeLimit) {
+        this.senders = senders;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sent = meters.counter(metricPrefix + ".sent");
+        this.conflated = meters.counter(metricPrefix + ".conflated");
+        this.evictedSlow = meters.counter(metricPrefix + ".evicted", "reason", "send-time");
+        this.evictedOverflow = meters.counter(metricPrefix + ".evicted", "reason", "buffer");
+        this.evictedFailed = meters.counter(metricPrefix + ".evicted", "reason", "send-failed");
+        this.sendTime = meters.timer(metricPrefix + ".send");
+        Gauge.builder(metricPrefix + ".queued", queuedFrames, AtomicInteger::get).register(meters);
+        Gauge.builder(metricPrefix + ".sessions", queues, Map::size).register(meters);
+    }
+
+    static ExecutorService platformSenders(int threads) {
+        return platformSenders("ws-send-", threads);
+    }
+
+    static ExecutorService platformSenders(String namePrefix, int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, namePrefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Close threads for evicted sessions; each close is bounded by the blocking send timeout. */
+    private static ExecutorService platformClosers() {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ws-close-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Queues a control frame; it is never conflated. */
+    public void send(WebSocketSession session, WebSocketMessage<?> frame) {
+        send(session, frame, null);
+    }
+
+    /**
+     * Queues a frame without waiting for it to be written. A non-null stateOf marks a board update
+     * of that game, which overflow may replace with a newer one.
+     */
+    public void send(WebSocketSession session, WebSocketMessage<?> frame, UUID stateOf) {
+        enqueue(session, new Frame(frame, stateOf, null));
+    }
+
+    /** Closes the session once the frames queued before have been sent. */
+    public void close(WebSocketSession session, CloseStatus status) {
+        enqueue(session, new Frame(null, null, status));
+    }
+
+    private void enqueue(WebSocketSession session, Frame frame) {
+        if (!session.isOpen()) return;
+        Outbound q = queues.computeIfAbsent(session.getId(), id -> {
+            limitBlockingSends(session);
+            return new Outbound(session);
+        });
+        boolean start;
+        synchronized (q) {
+            if (q.evicted) return;
+            if (q.sendStartedNanos != 0 && System.nanoTime() - q.sendStartedNanos > sendTimeLimitNanos) {
+                evict(q, evictedSlow, "send took longer than the limit");
+                return;
+            }
+            q.pending.add(frame);
+            q.bytes += frame.length();
+            queuedFrames.incrementAndGet();
+            if (q.bytes > bufferSizeLimit) {
+                conflate(q);
+                if (q.bytes > bufferSizeLimit) {
+                    evict(q, evictedOverflow, "outbound buffer full");
+                    return;
+                }
+            }
+            start = !q.draining;
+            q.draining = true;
+        }
+        if (start) {
+            senders.execute(() -> drain(q));
+        }
+    }
+
+    /** Tomcat's per-session timeout of a blocking send, read on every send. */
+    private void limitBlockingSends(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof jakarta.websocket.Session container) {
+            container.getUserProperties().put("org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT", sendTimeLimitMs);
+        }
+    }
+
+    /** Drops the session's queue once it is closed. */
+    public void closed(WebSocketSession session) {
+        Outbound q = queues.remove(session.getId());
+        if (q != null) {
+            synchronized (q) {
+                q.evicted = true;
+                clear(q);
+            }
+        }
+    }
+
+    public int queuedFrames() {
+        return queuedFrames.get();
+    }
+
+    private void drain(Outbound q) {
+        while (true) {
+            Frame next;
+            synchronized (q) {
+                next = q.evicted ? null : q.pending.poll();
+                if (next == null) {
+                    q.draining = false;
+                    return;
+                }
+                q.bytes -= next.length();
+                queuedFrames.decrementAndGet();
+                q.sendStartedNanos = System.nanoTime();
+            }
+            long started = System.nanoTime();
+            try {
+                if (next.close != null) {
+                    q.session.close(next.close);
+                } else if (q.session.isOpen()) {
+                    q.session.sendMessage(next.frame);
+                    sent.increment();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Error sending message to session {}: {}", q.session.getId(), e.getMessage());
+                if (next.close == null) {
+                    // e.g. the blocking send timed out; later frames would only wait for the same client
+                    synchronized (q) {
+                        if (!q.evicted) evict(q, evictedFailed, "send failed");
+                    }
+                }
+            } finally {
+                sendTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                synchronized (q) {
+                    q.sendStartedNanos = 0;
+                }
+            }
+        }
+    }
+
+    /** Keeps only the newest queued board update per game; called with the queue locked. */
+    private void conflate(Outbound q) {
+        Set<UUID> newest = new HashSet<>();
+        Iterator<Frame> it = q.pending.descendingIterator();
+        while (it.hasNext()) {
+            Frame f = it.next();
+            if (f.stateOf != null && !newest.add(f.stateOf)) {
+                it.remove();
+                q.bytes -= f.length();
+                queuedFrames.decrementAndGet();
+                conflated.increment();
+            }
+        }
+    }
+
+    /** Called with the queue locked; the close itself runs on a close thread, not a sender. */
+    private void evict(Outbound q, Counter reason, String why) {
+        q.evicted = true;
+        clear(q);
+        reason.increment();
+        log.info("Closing slow WebSocket session {}: {}", q.session.getId(), why);
+        closers.execute(() -> {
+            try {
+                q.session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("Slow consumer"));
+            } catch (IOException e) {
+                log.debug("Error closing session {}: {}", q.session.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private void clear(Outbound q) {
+        queuedFrames.addAndGet(-q.pending.size());
+        q.pending.clear();
+        q.bytes = 0;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (senders instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+        closers.shutdown();
+    }
+
+    /** A frame to send, or a close (frame null) to run after everything queued before it. */
+    private record Frame(WebSocketMessage<?> frame, UUID stateOf, CloseStatus close) {
+        int length() {
+            return frame != null ? frame.getPayloadLength() : 0;
+        }
+    }
+
+    private static final class Outbound {
+        final WebSocketSession session;
+        /** Guarded by this. */
+        final ArrayDeque<Frame> pending = new ArrayDeque<>();
+        int bytes;
+        boolean draining;
+        boolean evicted;
+        long sendStartedNanos;
+
+        Outbound(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.seabattle.server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Enables {@code @Scheduled} background jobs (partition archiving and other maintenance). */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
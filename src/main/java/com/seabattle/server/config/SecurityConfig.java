@@ -1,7 +1,7 @@
 package com.seabattle.server.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.seabattle.server.service.MyUserDetailsService;
+import com.seabattle.server.service.UserAccessRegistry;
 import com.seabattle.server.util.JwtAuthenticationFilter;
 import com.seabattle.server.util.JwtUtil;
 import jakarta.servlet.http.HttpServletResponse;
@@ -21,17 +21,17 @@ import java.util.Map;
 @Configuration
 public class SecurityConfig {
 
-    private final MyUserDetailsService userDetailsService;
+    private final UserAccessRegistry userAccess;
     private final JwtUtil jwtUtil;
 
-    public SecurityConfig(MyUserDetailsService uds, JwtUtil jwtUtil) {
-        this.userDetailsService = uds;
+    public SecurityConfig(UserAccessRegistry userAccess, JwtUtil jwtUtil) {
+        this.userAccess = userAccess;
         this.jwtUtil = jwtUtil;
     }
 
     @Bean
     public SecurityFilterChain filterChain(org.springframework.security.config.annotation.web.builders.HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtil, userAccess);
 
         http
                 .cors(Customizer.withDefaults())
@@ -57,7 +57,8 @@ public class SecurityConfig {
                                 "/api/users/profile",
                                 "/api/ws/**"
                         ).permitAll()
-                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/api/admin/**", "/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,130 @@
+package com.seabattle.server.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spectator groups of the game WebSocket: per game the sessions watching it read-only. Viewers
+ * get their own {@link OutboundQueues} with their own sender threads, so a popular game with
+ * thousands of viewers only adds queue appends on the event thread and never competes with the
+ * players' frames for a sender. Their buffer is smaller than the players' one: a slow viewer has
+ * its board updates conflated early and resyncs from the sequence gap.
+ * <p>
+ * Viewers per node are capped ({@code max-viewers}); each session watches at most one game.
+ */
+@Component
+public class SpectatorHub {
+
+    private final Map<UUID, Set<WebSocketSession>> byGame = new ConcurrentHashMap<>();
+    private final Map<String, UUID> bySession = new ConcurrentHashMap<>();
+    private final AtomicInteger viewers = new AtomicInteger();
+    private final OutboundQueues outbound;
+    private final int maxViewers;
+    private final Counter rejected;
+
+    @Autowired
+    public SpectatorHub(MeterRegistry meters,
+                        Environment environment,
+                        @Value("${app.ws.spectators.threads:2}") int threads,
+                        @Value("${app.ws.spectators.max-viewers:5000}") int maxViewers,
+                        @Value("${app.ws.spectators.send-time-limit-ms:5000}") long sendTimeLimitMs,
+                        @Value("${app.ws.spectators.buffer-size-limit:16384}") int bufferSizeLimit) {
+        this(meters, new OutboundQueues(meters, "ws.spectators.outbound",
+                Threading.VIRTUAL.isActive(environment)
+                        ? new VirtualThreadTaskExecutor("ws-spectate-")
+                        : OutboundQueues.platformSenders("ws-spectate-", threads),
+                sendTimeLimitMs, bufferSizeLimit), maxViewers);
+    }
+
+    public SpectatorHub(MeterRegistry meters, OutboundQueues outbound, int maxViewers) {
+        this.outbound = outbound;
+        this.maxViewers = maxViewers;
+        this.rejected = meters.counter("ws.spectators.rejected");
+        Gauge.builder("ws.spectators.viewers", viewers, AtomicInteger::get).register(meters);
+        Gauge.builder("ws.spectators.games", byGame, Map::size).register(meters);
+    }
+
+    /**
+     * Adds the session to the game's viewers, leaving the game it watched before.
+     *
+     * @return false when the node already has max-viewers spectators
+     */
+    public boolean watch(UUID gameId, WebSocketSession session) {
+        if (gameId.equals(bySession.get(session.getId()))) return true;
+        leave(session);
+        if (viewers.incrementAndGet() > maxViewers) {
+            viewers.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        bySession.put(session.getId(), gameId);
+        byGame.compute(gameId, (id, sessions) -> {
+            if (sessions == null) sessions = ConcurrentHashMap.newKeySet();
+            sessions.add(session);
+            return sessions;
+        });
+        return true;
+    }
+
+    public void leave(WebSocketSession session) {
+        UUID gameId = bySession.remove(session.getId());
+        if (gameId == null) return;
+        viewers.decrementAndGet();
+        byGame.computeIfPresent(gameId, (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /** Drops every viewer of the game, e.g. after it was deleted. */
+    public void removeGame(UUID gameId) {
+        Set<WebSocketSession> removed = byGame.remove(gameId);
+        if (removed == null) return;
+        for (WebSocketSession session : removed) {
+            if (bySession.remove(session.getId(), gameId)) {
+                viewers.decrementAndGet();
+            }
+        }
+    }
+
+    /** Viewers of the game (live view; empty when none). */
+    public Collection<WebSocketSession> viewers(UUID gameId) {
+        Set<WebSocketSession> sessions = byGame.get(gameId);
+        return sessions != null ? sessions : List.of();
+    }
+
+    public boolean hasViewers(UUID gameId) {
+        return byGame.containsKey(gameId);
+    }
+
+    public int viewerCount() {
+        return viewers.get();
+    }
+
+    /** Queues of spectator sessions; nothing else may write to them. */
+    public OutboundQueues outbound() {
+        return outbound;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        outbound.shutdown();
+    }
+}
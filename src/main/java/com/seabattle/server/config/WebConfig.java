@@ -1,14 +1,18 @@
 package com.seabattle.server.config;
 
+import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.util.CurrentUserArgumentResolver;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Paths;
+import java.util.List;
 
 @Configuration
 public class WebConfig {
@@ -42,4 +46,14 @@ public class WebConfig {
             }
         };
     }
-}
\ No newline at end of file
+
+    @Bean
+    public WebMvcConfigurer currentUserConfigurer(UserRepository userRepository) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+                resolvers.add(new CurrentUserArgumentResolver(userRepository));
+            }
+        };
+    }
+}
@@ -2,24 +2,18 @@ package com.seabattle.server.controller;
 
 import com.seabattle.server.dto.*;
 import com.seabattle.server.entity.Game;
-import com.seabattle.server.entity.Room;
 import com.seabattle.server.entity.User;
-import com.seabattle.server.repository.GameRepository;
-import com.seabattle.server.repository.RoomRepository;
-import com.seabattle.server.repository.UserRepository;
-import jakarta.persistence.EntityNotFoundException;
+import com.seabattle.server.service.AdminService;
+import com.seabattle.server.service.GameCommandDispatcher;
+import com.seabattle.server.service.MoveHistoryService;
+import com.seabattle.server.util.CurrentUser;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -28,20 +22,13 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AdminController {
 
-    private final UserRepository userRepository;
-    private final GameRepository gameRepository;
-    private final RoomRepository roomRepository;
+    private final AdminService adminService;
+    private final GameCommandDispatcher gameCommandDispatcher;
+    private final MoveHistoryService moveHistoryService;
 
     @GetMapping("/stats")
     public AdminStatsDto getStats() {
-        return new AdminStatsDto(
-                userRepository.count(),
-                userRepository.search(null, null, User.Status.ACTIVE, PageRequest.of(0, 1)).getTotalElements(),
-                userRepository.search(null, null, User.Status.BLOCKED, PageRequest.of(0, 1)).getTotalElements(),
-                gameRepository.countByStatus(Game.GameStatus.IN_PROGRESS),
-                gameRepository.countByStatus(Game.GameStatus.FINISHED),
-                roomRepository.countByStatus("WAITING")
-        );
+        return adminService.getStats();
     }
 
     @GetMapping("/users")
@@ -52,47 +39,20 @@ public class AdminController {
             @RequestParam(required = false) User.Role role,
             @RequestParam(required = false) User.Status status
     ) {
-        Page<User> users = userRepository.search(
-                query,
-                role,
-                status,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"))
-        );
-
-        return users.map(u -> new AdminUserDto(
-                u.getId(),
-                u.getUsername(),
-                u.getRating() != null ? u.getRating() : 0,
-                u.getWins() != null ? u.getWins() : 0,
-                u.getLosses() != null ? u.getLosses() : 0,
-                u.getRole().name(),
-                u.getStatus().name(),
-                u.getCreatedAt()
-        ));
+        return adminService.getUsers(page, size, query, role, status);
     }
 
     @PatchMapping("/users/{userId}/role")
     public ResponseEntity<?> updateUserRole(
             @PathVariable UUID userId,
             @RequestBody AdminUpdateRoleRequest request,
-            @AuthenticationPrincipal UserDetails currentUser
+            @CurrentUser UUID currentUserId
     ) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
-        User actor = userRepository.findByUsername(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
-
-        final User.Role newRole;
         try {
-            newRole = User.Role.valueOf(request.role().toUpperCase());
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("message", "Invalid role"));
+            adminService.updateUserRole(userId, request.role(), currentUserId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
-        if (user.getUsername().equals(actor.getUsername()) && newRole != User.Role.ADMIN) {
-            return ResponseEntity.badRequest().body(Map.of("message", "You cannot remove your own admin role"));
-        }
-
-        user.setRole(newRole);
-        userRepository.save(user);
         return ResponseEntity.ok(Map.of("message", "Role updated"));
     }
 
@@ -100,24 +60,13 @@ public class AdminController {
     public ResponseEntity<?> updateUserStatus(
             @PathVariable UUID userId,
             @RequestBody AdminUpdateStatusRequest request,
-            @AuthenticationPrincipal UserDetails currentUser
+            @CurrentUser UUID currentUserId
     ) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
-        User actor = userRepository.findByUsername(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
-
-        final User.Status newStatus;
         try {
-            newStatus = User.Status.valueOf(request.status().toUpperCase());
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("message", "Invalid status"));
-        }
-        if (user.getUsername().equals(actor.getUsername()) && newStatus == User.Status.BLOCKED) {
-            return ResponseEntity.badRequest().body(Map.of("message", "You cannot block yourself"));
+            adminService.updateUserStatus(userId, request.status(), currentUserId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
-
-        user.setStatus(newStatus);
-        userRepository.save(user);
         return ResponseEntity.ok(Map.of("message", "Status updated"));
     }
 
@@ -125,58 +74,26 @@ public class AdminController {
     public ResponseEntity<?> updateUser(
             @PathVariable UUID userId,
             @RequestBody AdminUpdateUserRequest request,
-            @AuthenticationPrincipal UserDetails currentUser
+            @CurrentUser UUID currentUserId
     ) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
-        User actor = userRepository.findByUsername(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
-
-        if (request.rating() != null) user.setRating(Math.max(0, request.rating()));
-        if (request.wins() != null) user.setWins(Math.max(0, request.wins()));
-        if (request.losses() != null) user.setLosses(Math.max(0, request.losses()));
-
-        if (request.role() != null && !request.role().isBlank()) {
-            final User.Role newRole;
-            try {
-                newRole = User.Role.valueOf(request.role().toUpperCase());
-            } catch (Exception e) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Invalid role"));
-            }
-            if (user.getUsername().equals(actor.getUsername()) && newRole != User.Role.ADMIN) {
-                return ResponseEntity.badRequest().body(Map.of("message", "You cannot remove your own admin role"));
-            }
-            user.setRole(newRole);
-        }
-
-        if (request.status() != null && !request.status().isBlank()) {
-            final User.Status newStatus;
-            try {
-                newStatus = User.Status.valueOf(request.status().toUpperCase());
-            } catch (Exception e) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Invalid status"));
-            }
-            if (user.getUsername().equals(actor.getUsername()) && newStatus == User.Status.BLOCKED) {
-                return ResponseEntity.badRequest().body(Map.of("message", "You cannot block yourself"));
-            }
-            user.setStatus(newStatus);
+        try {
+            adminService.updateUser(userId, request, currentUserId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
-
-        userRepository.save(user);
         return ResponseEntity.ok(Map.of("message", "User updated"));
     }
 
     @DeleteMapping("/users/{userId}")
     public ResponseEntity<?> deleteUser(
             @PathVariable UUID userId,
-            @AuthenticationPrincipal UserDetails currentUser
+            @CurrentUser UUID currentUserId
     ) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
-        if (user.getUsername().equals(currentUser.getUsername())) {
-            return ResponseEntity.badRequest().body(Map.of("message", "You cannot delete yourself"));
-        }
         try {
-            userRepository.delete(user);
+            adminService.deleteUser(userId, currentUserId);
             return ResponseEntity.ok(Map.of("message", "User deleted"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(409).body(Map.of(
                     "message", "Cannot delete user with related games or history"
@@ -190,75 +107,41 @@ public class AdminController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) Game.GameStatus status
     ) {
-        Page<Game> games = status == null
-                ? gameRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")))
-                : gameRepository.findByStatus(status, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+        return adminService.getGames(page, size, status);
+    }
+
+    @GetMapping("/games/{gameId}/moves")
+    public List<MoveDto> getGameMoves(@PathVariable UUID gameId) {
+        return moveHistoryService.getMoves(gameId);
+    }
 
-        return games.map(g -> new AdminGameDto(
-                g.getId(),
-                g.getType().name(),
-                g.getStatus().name(),
-                g.getHost() != null ? g.getHost().getUsername() : null,
-                g.getGuest() != null ? g.getGuest().getUsername() : null,
-                g.isBot(),
-                g.getCreatedAt(),
-                g.getStartedAt(),
-                g.getFinishedAt()
-        ));
+    @GetMapping("/games/{gameId}/replay")
+    public ResponseEntity<?> getGameReplay(@PathVariable UUID gameId) {
+        return adminService.getGameReplay(gameId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("message", "Game is not archived")));
     }
 
     @PostMapping("/games/{gameId}/terminate")
     public ResponseEntity<?> terminateGame(@PathVariable UUID gameId) {
-        Game game = gameRepository.findById(gameId).orElseThrow(() -> new EntityNotFoundException("Game not found"));
-        game.setStatus(Game.GameStatus.FINISHED);
-        if (game.getFinishedAt() == null) {
-            game.setFinishedAt(OffsetDateTime.now());
-        }
-        gameRepository.save(game);
+        gameCommandDispatcher.execute(gameId, () -> adminService.terminateGame(gameId));
         return ResponseEntity.ok(Map.of("message", "Game terminated"));
     }
 
     @PatchMapping("/games/{gameId}")
     public ResponseEntity<?> updateGame(@PathVariable UUID gameId, @RequestBody AdminUpdateGameRequest request) {
-        Game game = gameRepository.findById(gameId).orElseThrow(() -> new EntityNotFoundException("Game not found"));
-
-        if (request.status() != null && !request.status().isBlank()) {
-            try {
-                Game.GameStatus status = Game.GameStatus.valueOf(request.status().toUpperCase());
-                game.setStatus(status);
-                if (status == Game.GameStatus.FINISHED && game.getFinishedAt() == null) {
-                    game.setFinishedAt(OffsetDateTime.now());
-                }
-            } catch (Exception e) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Invalid status"));
-            }
-        }
-
-        if (request.result() != null && !request.result().isBlank()) {
-            try {
-                game.setResult(Game.GameResult.valueOf(request.result().toUpperCase()));
-            } catch (Exception e) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Invalid result"));
-            }
-        }
-
-        if (request.currentTurn() != null && !request.currentTurn().isBlank()) {
-            try {
-                game.setCurrentTurn(Game.Turn.valueOf(request.currentTurn().toUpperCase()));
-            } catch (Exception e) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Invalid currentTurn"));
-            }
+        try {
+            gameCommandDispatcher.execute(gameId, () -> adminService.updateGame(gameId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
-
-        gameRepository.save(game);
         return ResponseEntity.ok(Map.of("message", "Game updated"));
     }
 
     @DeleteMapping("/games/{gameId}")
     public ResponseEntity<?> deleteGame(@PathVariable UUID gameId) {
-        Game game = gameRepository.findById(gameId).orElseThrow(() -> new EntityNotFoundException("Game not found"));
         try {
-            gameRepository.delete(game);
+            gameCommandDispatcher.execute(gameId, () -> adminService.deleteGame(gameId));
             return ResponseEntity.ok(Map.of("message", "Game deleted"));
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(409).body(Map.of(
@@ -273,44 +156,22 @@ public class AdminController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String status
     ) {
-        Page<Room> rooms = (status == null || status.isBlank())
-                ? roomRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")))
-                : roomRepository.findByStatus(status, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
-
-        return rooms.map(r -> new AdminRoomDto(
-                r.getId(),
-                r.getToken(),
-                r.getStatus(),
-                r.getHost() != null ? r.getHost().getUsername() : null,
-                r.getGuest() != null ? r.getGuest().getUsername() : null,
-                r.getCreatedAt(),
-                r.getExpiresAt()
-        ));
+        return adminService.getRooms(page, size, status);
     }
 
     @PatchMapping("/rooms/{roomId}")
     public ResponseEntity<?> updateRoom(@PathVariable UUID roomId, @RequestBody AdminUpdateRoomRequest request) {
-        Room room = roomRepository.findById(roomId).orElseThrow(() -> new EntityNotFoundException("Room not found"));
-
-        if (request.status() != null && !request.status().isBlank()) {
-            room.setStatus(request.status().toUpperCase());
-        }
-        if (request.expiresAt() != null && !request.expiresAt().isBlank()) {
-            try {
-                room.setExpiresAt(OffsetDateTime.parse(request.expiresAt()));
-            } catch (DateTimeParseException e) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Invalid expiresAt format"));
-            }
+        try {
+            adminService.updateRoom(roomId, request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
-
-        roomRepository.save(room);
         return ResponseEntity.ok(Map.of("message", "Room updated"));
     }
 
     @DeleteMapping("/rooms/{roomId}")
     public ResponseEntity<?> deleteRoom(@PathVariable UUID roomId) {
-        Room room = roomRepository.findById(roomId).orElseThrow(() -> new EntityNotFoundException("Room not found"));
-        roomRepository.delete(room);
+        adminService.deleteRoom(roomId);
         return ResponseEntity.ok(Map.of("message", "Room deleted"));
     }
 }
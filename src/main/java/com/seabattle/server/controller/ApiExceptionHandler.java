@@ -0,0 +1,65 @@
+package com.seabattle.server.controller;
+
+import com.seabattle.server.service.DrainGate;
+import com.seabattle.server.service.LoginRateLimiter;
+import com.seabattle.server.service.PasswordHashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Errors shared by all controllers. Endpoint-specific errors are still handled in the controllers.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    /**
+     * Someone else changed the game (another shot, ready, admin edit) and retries did not help.
+     * The client should reload the game state and repeat the action if it still makes sense.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(OptimisticLockingFailureException e) {
+        log.info("Concurrent modification conflict: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "message", "Game state was changed concurrently, reload and try again",
+                "reason", "conflict"
+        ));
+    }
+
+    /**
+     * The node is draining for a restart. Retry-After is spread over a few seconds so that
+     * refused clients do not all come back at once.
+     */
+    @ExceptionHandler(DrainGate.DrainingException.class)
+    public ResponseEntity<Map<String, String>> handleDraining(DrainGate.DrainingException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(1 + ThreadLocalRandom.current().nextInt(5)))
+                .body(Map.of("message", e.getMessage(), "reason", "draining"));
+    }
+
+    /** Login or registration attempts over the per-IP or per-username budget. */
+    @ExceptionHandler(LoginRateLimiter.ThrottledException.class)
+    public ResponseEntity<Map<String, String>> handleThrottled(LoginRateLimiter.ThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage(), "reason", "throttled"));
+    }
+
+    /** The password hashing queue is full (login storm); spread the retries like for draining. */
+    @ExceptionHandler(PasswordHashing.SaturatedException.class)
+    public ResponseEntity<Map<String, String>> handleHashingSaturated(PasswordHashing.SaturatedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(1 + ThreadLocalRandom.current().nextInt(5)))
+                .body(Map.of("message", e.getMessage(), "reason", "busy"));
+    }
+}
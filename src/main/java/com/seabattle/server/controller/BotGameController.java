@@ -6,14 +6,11 @@ import com.seabattle.server.dto.CreateBotGameResponse;
 import com.seabattle.server.dto.ShotRequest;
 import com.seabattle.server.dto.ShotResultDto;
 import com.seabattle.server.entity.Game;
-import com.seabattle.server.entity.User;
-import com.seabattle.server.repository.GameRepository;
-import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.service.GameCommandDispatcher;
 import com.seabattle.server.service.GameService;
+import com.seabattle.server.util.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,13 +24,11 @@ import java.util.stream.Collectors;
 public class BotGameController {
 
     private final GameService gameService;
-    private final UserRepository userRepo;
-    private final GameRepository gameRepo;
+    private final GameCommandDispatcher gameCommandDispatcher;
 
     @PostMapping("/create")
-    public ResponseEntity<CreateBotGameResponse> create(@AuthenticationPrincipal UserDetails userDetails) throws Exception {
-        User user = userRepo.findByUsername(userDetails.getUsername()).orElseThrow();
-        Game g = gameService.createBotGame(user);
+    public ResponseEntity<CreateBotGameResponse> create(@CurrentUser UUID userId) throws Exception {
+        Game g = gameService.createBotGame(userId);
         return ResponseEntity.ok(new CreateBotGameResponse(g.getId(),
                 "Created bot game. Place ships with /place/auto or /place"));
     }
@@ -42,45 +37,38 @@ public class BotGameController {
     @PostMapping("/{gameId}/place/auto")
     public ResponseEntity<AutoPlaceResponse> autoPlace(
             @PathVariable UUID gameId,
-            @AuthenticationPrincipal UserDetails userDetails) throws Exception {
-
-        User user = userRepo.findByUsername(userDetails.getUsername()).orElseThrow();
-        AutoPlaceResponse response = gameService.placeShipsAuto(gameId, user.getId());
+            @CurrentUser UUID userId) throws Exception {
+        AutoPlaceResponse response = gameCommandDispatcher.execute(gameId, () -> gameService.placeShipsAuto(gameId, userId));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/{gameId}/place")
     public ResponseEntity<String> manualPlace(@PathVariable UUID gameId,
                                               @RequestBody ObjectNode body,
-                                              @AuthenticationPrincipal UserDetails userDetails) throws Exception {
-        User user = userRepo.findByUsername(userDetails.getUsername()).orElseThrow();
+                                              @CurrentUser UUID userId) throws Exception {
         if (!body.has("cellsJson")) return ResponseEntity.badRequest().body("cellsJson required");
         String cellsJson = body.get("cellsJson").asText();
-        gameService.placeShipsManual(gameId, user.getId(), cellsJson);
+        gameCommandDispatcher.execute(gameId, () -> gameService.placeShipsManual(gameId, userId, cellsJson));
         return ResponseEntity.ok("Ships placed and game started.");
     }
 
     @PostMapping("/{gameId}/shot")
     public ResponseEntity<ShotResultDto> shot(@PathVariable UUID gameId,
                                               @RequestBody ShotRequest req,
-                                              @AuthenticationPrincipal UserDetails userDetails) throws Exception {
-        User user = userRepo.findByUsername(userDetails.getUsername()).orElseThrow();
-        ShotResultDto res = gameService.playerShot(gameId, user.getId(), req.getX(), req.getY());
+                                              @CurrentUser UUID userId) throws Exception {
+        ShotResultDto res = gameCommandDispatcher.execute(gameId, () -> gameService.playerShot(gameId, userId, req.getX(), req.getY()));
         return ResponseEntity.ok(res);
     }
 
     @PostMapping("/{gameId}/surrender")
-    public ResponseEntity<String> surrender(@PathVariable UUID gameId, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepo.findByUsername(userDetails.getUsername()).orElseThrow();
-        gameService.surrender(gameId, user.getId());
+    public ResponseEntity<String> surrender(@PathVariable UUID gameId, @CurrentUser UUID userId) {
+        gameCommandDispatcher.execute(gameId, () -> gameService.surrender(gameId, userId));
         return ResponseEntity.ok("You surrendered.");
     }
 
     @GetMapping("/unfinished")
-    public ResponseEntity<List<Map<String, Object>>> getUnfinishedGames(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepo.findByUsername(userDetails.getUsername()).orElseThrow();
-
-        List<Game> unfinishedGames = gameRepo.findByHostIdAndTypeAndStatus(user.getId(), Game.GameType.BOT, Game.GameStatus.IN_PROGRESS);
+    public ResponseEntity<List<Map<String, Object>>> getUnfinishedGames(@CurrentUser UUID userId) {
+        List<Game> unfinishedGames = gameService.getUnfinishedBotGames(userId);
 
         List<Map<String, Object>> result = unfinishedGames.stream()
             .map(game -> Map.of(
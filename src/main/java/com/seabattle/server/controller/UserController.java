@@ -6,18 +6,17 @@ import com.seabattle.server.dto.UserRankDTO;
 import com.seabattle.server.dto.UserRatingDto;
 import com.seabattle.server.entity.User;
 import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.service.LoginRateLimiter;
+import com.seabattle.server.service.PasswordHashing;
+import com.seabattle.server.service.UserService;
+import com.seabattle.server.util.CurrentUser;
 import com.seabattle.server.util.JwtUtil;
-import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -37,20 +36,23 @@ import java.util.UUID;
 public class UserController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashing passwordHashing;
+    private final LoginRateLimiter loginRateLimiter;
     private final JwtUtil jwtUtil;
+    private final UserService userService;
 
     @Value("${app.upload-dir:uploads}")
     private String uploadDir;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody UserDto userDto) {
+    public ResponseEntity<?> register(@RequestBody UserDto userDto, HttpServletRequest request) {
+        loginRateLimiter.admit(request.getRemoteAddr(), userDto.getUsername() != null ? userDto.getUsername() : "");
         if (userRepository.existsByUsername(userDto.getUsername())) {
             return ResponseEntity.badRequest().body(Map.of("message", "Username already exists"));
         }
         User user = User.builder()
                 .username(userDto.getUsername())
-                .passwordHash(passwordEncoder.encode(userDto.getPassword()))
+                .passwordHash(passwordHashing.encode(userDto.getPassword()))
                 .avatar(userDto.getAvatar())
                 .rating(0)
                 .role(User.Role.USER)
@@ -61,14 +63,15 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody UserDto userDto) {
+    public ResponseEntity<?> login(@RequestBody UserDto userDto, HttpServletRequest request) {
         String username = userDto.getUsername() != null ? userDto.getUsername().trim() : "";
         String password = userDto.getPassword() != null ? userDto.getPassword().trim() : null;
         if (username.isBlank() || password == null || password.isBlank()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid credentials"));
         }
+        loginRateLimiter.admit(request.getRemoteAddr(), username);
         User user = userRepository.findByUsername(username).orElse(null);
-        if (user == null || !passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (user == null || !passwordHashing.matches(password, user.getPasswordHash())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid credentials"));
         }
 
@@ -76,7 +79,7 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "User is blocked"));
         }
 
-        String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name());
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole().name());
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -91,64 +94,25 @@ public class UserController {
 
     @GetMapping("/profile")
     public UserProfileDTO getProfile(@RequestParam String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new EntityNotFoundException("Cannot find user by username"));
-
-        List<User> sorted = userRepository.findAll(Sort.by("rating").descending());
-        int position = 1;
-        for (User u : sorted) {
-            if (u.getUsername().equals(username)) break;
-            position++;
-        }
-
-        int wins = user.getWins() != null ? user.getWins() : 0;
-        int losses = user.getLosses() != null ? user.getLosses() : 0;
-        int rating = user.getRating() != null ? user.getRating() : 0;
-        int totalGames = wins + losses;
-        double winrate = totalGames > 0 ? (double) wins / totalGames * 100 : 0;
-
-        return new UserProfileDTO(
-                user.getUsername(),
-                totalGames,
-                wins,
-                losses,
-                winrate,
-                rating,
-                position,
-                user.getAvatar()
-        );
+        return userService.getProfile(username);
     }
 
-
     @GetMapping("/top")
     public List<UserRatingDto> getTopPlayers(@RequestParam(defaultValue = "5") int limit) {
-        return userRepository.findAll(PageRequest.of(0, limit, Sort.by("rating").descending()))
-                .getContent()
-                .stream()
-                .map(u -> new UserRatingDto(u.getUsername(), u.getRating() != null ? u.getRating() : 0))
-                .toList();
+        return userService.getTopPlayers(limit);
     }
 
     @GetMapping("/rating/position")
     public UserRankDTO getUserRank(@RequestParam String username) {
-        List<User> sorted = userRepository.findAll(Sort.by("rating").descending());
-
-        int position = 1;
-        for (User u : sorted) {
-            if (u.getUsername().equals(username)) break;
-            position++;
-        }
-
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new EntityNotFoundException("Cannot find user by nickname"));
-        int userRating = user.getRating() != null ? user.getRating() : 0;
-        return new UserRankDTO(userRating, position);
+        return userService.getUserRank(username);
     }
 
     @PostMapping(value = "/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadAvatar(
             @RequestParam("file") MultipartFile file,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser UUID userId) {
 
-        if (userDetails == null) {
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
         }
 
@@ -176,10 +140,7 @@ public class UserController {
 
             String avatarUrl = "/api/avatars/" + filename;
 
-            User user = userRepository.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new EntityNotFoundException("User not found"));
-            user.setAvatar(avatarUrl);
-            userRepository.save(user);
+            userService.updateAvatar(userId, avatarUrl);
 
             return ResponseEntity.ok(Map.of("avatar", avatarUrl));
         } catch (IOException e) {
@@ -10,6 +10,7 @@ public record AdminGameDto(
         String hostUsername,
         String guestUsername,
         boolean botGame,
+        boolean featured,
         OffsetDateTime createdAt,
         OffsetDateTime startedAt,
         OffsetDateTime finishedAt
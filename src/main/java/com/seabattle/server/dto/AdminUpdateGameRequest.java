@@ -3,6 +3,7 @@ package com.seabattle.server.dto;
 public record AdminUpdateGameRequest(
         String status,
         String result,
-        String currentTurn
+        String currentTurn,
+        Boolean featured
 ) {
 }
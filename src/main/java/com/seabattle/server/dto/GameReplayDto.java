@@ -0,0 +1,11 @@
+package com.seabattle.server.dto;
+
+import java.util.List;
+
+/** Admin view of a compacted game: final boards with ships revealed and the shot sequence. */
+public record GameReplayDto(
+        int[][] hostBoard,
+        int[][] opponentBoard,
+        List<MoveDto> moves
+) {
+}
@@ -0,0 +1,136 @@
+package com.seabattle.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import java.util.UUID;
+
+/**
+ * Server-to-client messages of the game WebSocket ({@code /api/ws/game}). The JSON has a
+ * {@code type} property with the name from {@link JsonTypeName}, followed by the record
+ * components; this is the wire format the frontend reads.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+public sealed interface GameSocketMessage {
+
+    /**
+     * A shot was fired: only the cells that changed, from the recipient's perspective (own ships
+     * shown, opponent's hidden). Cells are flat {@code [x, y, value, x, y, value, ...]} triples with
+     * the values of {@link com.seabattle.server.engine.BoardModel#toIntArray}. The delta applies to
+     * state {@code baseSeq} and yields state {@code seq}; {@code checksum} is
+     * {@link com.seabattle.server.engine.BoardModel#checksum} of the recipient's boards after it.
+     * A client whose state is not at {@code baseSeq}, or whose checksum differs, sends
+     * {@code resync} and gets a {@link GameSnapshot}.
+     */
+    @JsonTypeName("gameStateDelta")
+    record GameStateDelta(
+            UUID gameId,
+            long seq,
+            long baseSeq,
+            String currentTurn,
+            boolean gameFinished,
+            String winner,
+            boolean hit,
+            boolean sunk,
+            boolean already,
+            int[] playerCells,
+            int[] enemyCells,
+            int checksum
+    ) implements GameSocketMessage { }
+
+    /** Full state of both boards for one player, sent in reply to {@code resync}. */
+    @JsonTypeName("gameSnapshot")
+    record GameSnapshot(
+            UUID gameId,
+            long seq,
+            String currentTurn,
+            boolean gameFinished,
+            String winner,
+            int[][] playerBoard,
+            int[][] enemyBoard,
+            int checksum
+    ) implements GameSocketMessage { }
+
+    @JsonTypeName("gameFinished")
+    record GameFinished(UUID gameId, String winner, boolean gameFinished) implements GameSocketMessage {
+        public GameFinished(UUID gameId, String winner) {
+            this(gameId, winner, true);
+        }
+    }
+
+    /** currentTurn is only sent once the game has started. */
+    @JsonTypeName("playerReady")
+    record PlayerReady(
+            UUID gameId,
+            boolean isHost,
+            boolean hostReady,
+            boolean guestReady,
+            boolean bothReady,
+            boolean gameStarted,
+            @JsonInclude(JsonInclude.Include.NON_NULL) String currentTurn
+    ) implements GameSocketMessage { }
+
+    /** The player on turn ({@code HOST}/{@code GUEST}) ran out of turn or game time and forfeits. */
+    @JsonTypeName("timeout")
+    record Timeout(UUID gameId, String reason, String player) implements GameSocketMessage { }
+
+    @JsonTypeName("subscribed")
+    record Subscribed(UUID gameId) implements GameSocketMessage { }
+
+    /**
+     * Reply to {@code spectate}. Spectators then get the same gameStateDelta / gameSnapshot
+     * messages as players, with the host's board as playerBoard and the guest's as enemyBoard,
+     * both without unhit ships.
+     */
+    @JsonTypeName("spectating")
+    record Spectating(UUID gameId) implements GameSocketMessage { }
+
+    @JsonTypeName("rematchRequested")
+    record RematchRequested(UUID gameId, String requestedByUsername) implements GameSocketMessage { }
+
+    @JsonTypeName("rematchRequestSent")
+    record RematchRequestSent(UUID gameId) implements GameSocketMessage { }
+
+    @JsonTypeName("rematchAccepted")
+    record RematchAccepted(UUID gameId, UUID newGameId) implements GameSocketMessage { }
+
+    @JsonTypeName("rematchDeclined")
+    record RematchDeclined(UUID gameId) implements GameSocketMessage { }
+
+    /** The node is restarting; reconnect after the given delay. */
+    @JsonTypeName("serverRestart")
+    record ServerRestart(long reconnectAfterMs) implements GameSocketMessage { }
+
+    @JsonTypeName("error")
+    record ErrorMessage(String message) implements GameSocketMessage { }
+
+    /**
+     * Reply to a client command ({@code attack}, {@code ready}, {@code placeShips},
+     * {@code surrender}) carrying its {@code requestId}. On failure {@code status} is the HTTP
+     * status the REST endpoint would have answered with.
+     */
+    @JsonTypeName("ack")
+    record Ack(
+            String requestId,
+            boolean ok,
+            @JsonInclude(JsonInclude.Include.NON_NULL) Integer status,
+            @JsonInclude(JsonInclude.Include.NON_NULL) String message,
+            @JsonInclude(JsonInclude.Include.NON_NULL) Object result
+    ) implements GameSocketMessage {
+        public static Ack ok(String requestId, Object result) {
+            return new Ack(requestId, true, null, null, result);
+        }
+
+        public static Ack failed(String requestId, int status, String message) {
+            return new Ack(requestId, false, status, message, null);
+        }
+    }
+
+    /** Ack result of {@code attack}; boards follow in the gameStateDelta sent to both players. */
+    record ShotResult(boolean hit, boolean sunk, boolean already, boolean gameFinished,
+                      String winner, String currentTurn) { }
+
+    /** Ack result of {@code ready}. */
+    record ReadyResult(boolean bothReady, boolean gameStarted) { }
+}
@@ -0,0 +1,15 @@
+package com.seabattle.server.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** One shot of a game; playerId is null for the bot. */
+public record MoveDto(
+        long id,
+        UUID playerId,
+        int x,
+        int y,
+        boolean hit,
+        OffsetDateTime createdAt
+) {
+}
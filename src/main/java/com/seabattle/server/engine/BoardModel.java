@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -78,6 +79,27 @@ public class BoardModel {
         }
     }
 
+    /** Глубокая копия: кэшированную доску можно обстреливать, не меняя опубликованный экземпляр. */
+    public BoardModel copy() {
+        BoardModel copy = new BoardModel();
+        copy.size = size;
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                copy.cells[i][j].state = cells[i][j].state;
+                copy.cells[i][j].shipId = cells[i][j].shipId;
+            }
+        }
+        for (Ship s : ships) {
+            Ship c = new Ship();
+            c.id = s.id;
+            c.length = s.length;
+            c.sunk = s.sunk;
+            for (Coord coord : s.cells) c.cells.add(new Coord(coord.x, coord.y));
+            copy.ships.add(c);
+        }
+        return copy;
+    }
+
     /** Расставляет корабль без проверки соседства. Возвращает true при успехе. */
     public boolean placeShip(int shipId, int x, int y, boolean horizontal, int length) {
         if (horizontal) {
@@ -219,6 +241,41 @@ public class BoardModel {
         return grid;
     }
 
+    /**
+     * Cells that differ between two views as flat {@code [x, y, value, ...]} triples, value from
+     * {@code after}. A shot changes one cell, or a sunk ship plus its halo.
+     */
+    public static int[] changedCells(int[][] before, int[][] after) {
+        int[] changed = new int[3 * SIZE * SIZE];
+        int n = 0;
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                if (before[i][j] != after[i][j]) {
+                    changed[n++] = i;
+                    changed[n++] = j;
+                    changed[n++] = after[i][j];
+                }
+            }
+        }
+        return Arrays.copyOf(changed, n);
+    }
+
+    /**
+     * 32-bit FNV-1a over the player's view and then the enemy view, row by row, one step per
+     * cell value. The client computes the same over its boards to detect a missed update.
+     */
+    public static int checksum(int[][] playerView, int[][] enemyView) {
+        int hash = 0x811c9dc5;
+        for (int[][] grid : new int[][][]{playerView, enemyView}) {
+            for (int[] row : grid) {
+                for (int value : row) {
+                    hash = (hash ^ value) * 0x01000193;
+                }
+            }
+        }
+        return hash;
+    }
+
     /**
      * Отмечает соседние клетки вокруг потопленного корабля (отдельно от промаха по выстрелу — для UI).
      */
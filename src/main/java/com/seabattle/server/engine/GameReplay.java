@@ -0,0 +1,93 @@
+package com.seabattle.server.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoded content of a compacted finished game: both fleets as placed and the full shot sequence.
+ * "Host" is the host's board, "opponent" is the guest's (or the bot's) board.
+ */
+public class GameReplay {
+
+    /** One shot. hostShot = true when the host fired (at the opponent board). */
+    public record Shot(boolean hostShot, int x, int y, boolean hit, long epochMillis) { }
+
+    private final List<BoardModel.Ship> hostFleet;
+    private final List<BoardModel.Ship> opponentFleet;
+    private final List<Shot> shots;
+    /** Final cell states when they cannot be reproduced from the shots (legacy games without a full move log). */
+    private final BoardModel.CellState[][] hostCells;
+    private final BoardModel.CellState[][] opponentCells;
+
+    public GameReplay(List<BoardModel.Ship> hostFleet, List<BoardModel.Ship> opponentFleet, List<Shot> shots,
+                      BoardModel.CellState[][] hostCells, BoardModel.CellState[][] opponentCells) {
+        this.hostFleet = hostFleet;
+        this.opponentFleet = opponentFleet;
+        this.shots = shots;
+        this.hostCells = hostCells;
+        this.opponentCells = opponentCells;
+    }
+
+    public List<BoardModel.Ship> getHostFleet() { return hostFleet; }
+    public List<BoardModel.Ship> getOpponentFleet() { return opponentFleet; }
+    public List<Shot> getShots() { return shots; }
+    public boolean hasStoredCells() { return hostCells != null; }
+
+    /** Final state of the host board. */
+    public BoardModel hostBoard() {
+        return hostCells != null ? fromCells(hostFleet, hostCells) : replay(hostFleet, false);
+    }
+
+    /** Final state of the guest/bot board. */
+    public BoardModel opponentBoard() {
+        return opponentCells != null ? fromCells(opponentFleet, opponentCells) : replay(opponentFleet, true);
+    }
+
+    /** Places the fleet on an empty board and applies the shots fired at it. */
+    private BoardModel replay(List<BoardModel.Ship> fleet, boolean shotsByHost) {
+        BoardModel board = placeFleet(fleet);
+        for (Shot shot : shots) {
+            if (shot.hostShot() == shotsByHost) {
+                board.shoot(shot.x(), shot.y());
+            }
+        }
+        return board;
+    }
+
+    private static BoardModel fromCells(List<BoardModel.Ship> fleet, BoardModel.CellState[][] states) {
+        BoardModel board = placeFleet(fleet);
+        for (int i = 0; i < BoardModel.SIZE; i++) {
+            for (int j = 0; j < BoardModel.SIZE; j++) {
+                board.getCells()[i][j].setState(states[i][j]);
+            }
+        }
+        for (BoardModel.Ship ship : board.getShips()) {
+            boolean sunk = !ship.getCells().isEmpty();
+            for (BoardModel.Coord c : ship.getCells()) {
+                if (board.getCells()[c.getX()][c.getY()].getState() != BoardModel.CellState.HIT) {
+                    sunk = false;
+                    break;
+                }
+            }
+            ship.setSunk(sunk);
+        }
+        return board;
+    }
+
+    private static BoardModel placeFleet(List<BoardModel.Ship> fleet) {
+        BoardModel board = new BoardModel();
+        for (BoardModel.Ship source : fleet) {
+            BoardModel.Ship ship = new BoardModel.Ship();
+            ship.setId(source.getId());
+            ship.setLength(source.getLength());
+            ship.setCells(new ArrayList<>(source.getCells()));
+            board.getShips().add(ship);
+            for (BoardModel.Coord c : ship.getCells()) {
+                BoardModel.Cell cell = board.getCells()[c.getX()][c.getY()];
+                cell.setState(BoardModel.CellState.SHIP);
+                cell.setShipId(ship.getId());
+            }
+        }
+        return board;
+    }
+}
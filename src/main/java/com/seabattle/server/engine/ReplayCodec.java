@@ -0,0 +1,225 @@
+package com.seabattle.server.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of {@code game_archive.data}.
+ * <pre>
+ * byte    version (1)
+ * byte    flags: bit0 = final cell states are stored
+ * fleet   host, fleet opponent:  varint ships, per ship: zigzag id, varint cells, cells x varint (x*10+y)
+ * varint  shots
+ * varlong epoch millis of the first shot, then per shot: varint (x*10+y), varlong millis since previous shot
+ * bits    shooter per shot (1 = host), then hit flag per shot, each padded to a byte
+ * [cells] if flag bit0: 3 bits per cell (CellState ordinal), host board then opponent board
+ * </pre>
+ */
+public final class ReplayCodec {
+
+    private static final byte VERSION = 1;
+    private static final int FLAG_CELLS = 1;
+    private static final int CELLS = BoardModel.SIZE * BoardModel.SIZE;
+
+    private ReplayCodec() {}
+
+    /**
+     * Encodes fleets and shots. When replaying the shots does not reproduce the given final boards
+     * (e.g. the move log is incomplete), the final cell states are stored as well.
+     */
+    public static byte[] encode(BoardModel hostBoard, BoardModel opponentBoard, List<GameReplay.Shot> shots) {
+        GameReplay replay = new GameReplay(hostBoard.getShips(), opponentBoard.getShips(), shots, null, null);
+        boolean storeCells = !sameCells(replay.hostBoard(), hostBoard) || !sameCells(replay.opponentBoard(), opponentBoard);
+
+        Writer out = new Writer();
+        out.bytes.write(VERSION);
+        out.bytes.write(storeCells ? FLAG_CELLS : 0);
+        writeFleet(out, hostBoard.getShips());
+        writeFleet(out, opponentBoard.getShips());
+
+        out.varint(shots.size());
+        long previous = shots.isEmpty() ? 0 : shots.get(0).epochMillis();
+        out.varlong(previous);
+        for (GameReplay.Shot shot : shots) {
+            out.varint(coord(shot.x(), shot.y()));
+            out.varlong(Math.max(0, shot.epochMillis() - previous));
+            previous = Math.max(previous, shot.epochMillis());
+        }
+        out.bits(shots.size(), i -> shots.get(i).hostShot());
+        out.bits(shots.size(), i -> shots.get(i).hit());
+
+        if (storeCells) {
+            writeCells(out, hostBoard);
+            writeCells(out, opponentBoard);
+        }
+        return out.bytes.toByteArray();
+    }
+
+    public static GameReplay decode(byte[] data) {
+        Reader in = new Reader(data);
+        int version = in.u8();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported replay version " + version);
+        int flags = in.u8();
+        List<BoardModel.Ship> hostFleet = readFleet(in);
+        List<BoardModel.Ship> opponentFleet = readFleet(in);
+
+        int count = in.varint();
+        int[] coords = new int[count];
+        long[] times = new long[count];
+        long time = in.varlong();
+        for (int i = 0; i < count; i++) {
+            coords[i] = in.varint();
+            time += in.varlong();
+            times[i] = time;
+        }
+        boolean[] hostShot = in.bits(count);
+        boolean[] hit = in.bits(count);
+        List<GameReplay.Shot> shots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shots.add(new GameReplay.Shot(hostShot[i], coords[i] / BoardModel.SIZE, coords[i] % BoardModel.SIZE, hit[i], times[i]));
+        }
+
+        BoardModel.CellState[][] hostCells = null;
+        BoardModel.CellState[][] opponentCells = null;
+        if ((flags & FLAG_CELLS) != 0) {
+            hostCells = readCells(in);
+            opponentCells = readCells(in);
+        }
+        return new GameReplay(hostFleet, opponentFleet, shots, hostCells, opponentCells);
+    }
+
+    private static int coord(int x, int y) {
+        return x * BoardModel.SIZE + y;
+    }
+
+    private static boolean sameCells(BoardModel a, BoardModel b) {
+        return java.util.Arrays.deepEquals(a.toIntArray(true), b.toIntArray(true));
+    }
+
+    private static void writeFleet(Writer out, List<BoardModel.Ship> fleet) {
+        out.varint(fleet.size());
+        for (BoardModel.Ship ship : fleet) {
+            out.varint((ship.getId() << 1) ^ (ship.getId() >> 31));
+            out.varint(ship.getCells().size());
+            for (BoardModel.Coord c : ship.getCells()) {
+                out.varint(coord(c.getX(), c.getY()));
+            }
+        }
+    }
+
+    private static List<BoardModel.Ship> readFleet(Reader in) {
+        int ships = in.varint();
+        List<BoardModel.Ship> fleet = new ArrayList<>(ships);
+        for (int s = 0; s < ships; s++) {
+            int zigzag = in.varint();
+            BoardModel.Ship ship = new BoardModel.Ship();
+            ship.setId((zigzag >>> 1) ^ -(zigzag & 1));
+            int cells = in.varint();
+            for (int i = 0; i < cells; i++) {
+                int c = in.varint();
+                ship.getCells().add(new BoardModel.Coord(c / BoardModel.SIZE, c % BoardModel.SIZE));
+            }
+            ship.setLength(cells);
+            fleet.add(ship);
+        }
+        return fleet;
+    }
+
+    private static void writeCells(Writer out, BoardModel board) {
+        long acc = 0;
+        int bits = 0;
+        for (int i = 0; i < CELLS; i++) {
+            acc |= (long) board.getCells()[i / BoardModel.SIZE][i % BoardModel.SIZE].getState().ordinal() << bits;
+            bits += 3;
+            while (bits >= 8) {
+                out.bytes.write((int) (acc & 0xFF));
+                acc >>>= 8;
+                bits -= 8;
+            }
+        }
+        if (bits > 0) out.bytes.write((int) (acc & 0xFF));
+    }
+
+    private static BoardModel.CellState[][] readCells(Reader in) {
+        BoardModel.CellState[] values = BoardModel.CellState.values();
+        BoardModel.CellState[][] cells = new BoardModel.CellState[BoardModel.SIZE][BoardModel.SIZE];
+        long acc = 0;
+        int bits = 0;
+        for (int i = 0; i < CELLS; i++) {
+            while (bits < 3) {
+                acc |= (long) in.u8() << bits;
+                bits += 8;
+            }
+            cells[i / BoardModel.SIZE][i % BoardModel.SIZE] = values[(int) (acc & 0b111)];
+            acc >>>= 3;
+            bits -= 3;
+        }
+        return cells;
+    }
+
+    private static final class Writer {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+
+        void varint(int value) {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                bytes.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            bytes.write((int) value);
+        }
+
+        void bits(int count, java.util.function.IntPredicate bit) {
+            for (int i = 0; i < count; i += 8) {
+                int b = 0;
+                for (int j = 0; j < 8 && i + j < count; j++) {
+                    if (bit.test(i + j)) b |= 1 << j;
+                }
+                bytes.write(b);
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int u8() {
+            if (pos >= data.length) throw new IllegalArgumentException("Truncated replay data");
+            return data[pos++] & 0xFF;
+        }
+
+        int varint() {
+            return (int) varlong();
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = u8();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Malformed varint in replay data");
+        }
+
+        boolean[] bits(int count) {
+            boolean[] result = new boolean[count];
+            for (int i = 0; i < count; i += 8) {
+                int b = u8();
+                for (int j = 0; j < 8 && i + j < count; j++) {
+                    result[i + j] = (b & (1 << j)) != 0;
+                }
+            }
+            return result;
+        }
+    }
+}
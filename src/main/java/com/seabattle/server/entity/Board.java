@@ -18,7 +18,7 @@ public class Board {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "game_id", nullable = false)
     private Game game;
 
@@ -32,6 +32,9 @@ public class Board {
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
 
+    @Version
+    private Long version;
+
     @PrePersist
     void prePersist() { if (createdAt == null) createdAt = OffsetDateTime.now(); }
 }
@@ -11,7 +11,7 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Game {
     public enum GameType { BOT, ONLINE }
     public enum GameStatus { WAITING, IN_PROGRESS, FINISHED }
@@ -52,6 +52,11 @@ public class Game {
     @Builder.Default
     private boolean isBot = false;
 
+    /** Open to spectators; only an admin sets it, e.g. for tournament finals or streamed games. */
+    @Column(name = "featured", nullable = false)
+    @Builder.Default
+    private boolean featured = false;
+
     @Column(name = "room_token")
     private UUID roomToken;
 
@@ -75,6 +80,10 @@ public class Game {
     @Enumerated(EnumType.STRING)
     private Turn currentTurn;
 
+    /** Optimistic lock: concurrent attack/ready/admin edits of the same game fail instead of overwriting each other. */
+    @Version
+    private Long version;
+
     @PrePersist
     void prePersist() { if (createdAt == null) createdAt = OffsetDateTime.now(); }
 }
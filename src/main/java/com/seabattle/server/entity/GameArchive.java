@@ -0,0 +1,33 @@
+package com.seabattle.server.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Compacted finished game: both fleets and the whole move log encoded by
+ * {@link com.seabattle.server.engine.ReplayCodec}. Replaces the game's boards and moves rows.
+ */
+@Entity
+@Table(name = "game_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GameArchive {
+
+    @Id
+    @Column(name = "game_id", nullable = false, updatable = false)
+    private UUID gameId;
+
+    @Column(nullable = false, length = 65536)
+    private byte[] data;
+
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+
+    @PrePersist
+    void prePersist() { if (createdAt == null) createdAt = OffsetDateTime.now(); }
+}
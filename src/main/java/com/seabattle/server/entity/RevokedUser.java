@@ -0,0 +1,30 @@
+package com.seabattle.server.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A deleted user. Kept for as long as a token issued before the delete can be valid, so every
+ * node refuses those tokens, including after a restart.
+ */
+@Entity
+@Table(name = "revoked_users")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedUser {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private OffsetDateTime revokedAt;
+
+    @PrePersist
+    void prePersist() { if (revokedAt == null) revokedAt = OffsetDateTime.now(); }
+}
@@ -2,8 +2,13 @@ package com.seabattle.server.repository;
 
 import com.seabattle.server.entity.Board;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,4 +24,30 @@ public interface BoardRepository extends JpaRepository<Board, UUID> {
     Optional<Board> findByGameIdAndPlayerIdNot(UUID gameId, UUID playerId);
 
     Optional<Board> findByGameIdAndPlayerIdIsNotNull(UUID gameId);
+
+    List<Board> findByGameIdOrderByIdAsc(UUID gameId);
+
+    interface RowVersions {
+        UUID getGameId();
+        Long getGameVersion();
+        UUID getBoardId();
+        Long getBoardVersion();
+    }
+
+    /** Game and board row versions of these games, one row per board. */
+    @Query("""
+           select g.id as gameId, g.version as gameVersion, b.id as boardId, b.version as boardVersion
+           from Board b join b.game g
+           where g.id in :gameIds
+           """)
+    List<RowVersions> findRowVersions(@Param("gameIds") Collection<UUID> gameIds);
+
+    /** Versioned write of the cells without loading the row; 0 = the board was changed concurrently. */
+    @Modifying
+    @Query("update Board b set b.cells = :cells, b.version = b.version + 1 where b.id = :id and b.version = :version")
+    int updateCells(@Param("id") UUID id, @Param("cells") String cells, @Param("version") long version);
+
+    @Modifying
+    @Query("delete from Board b where b.game.id = :gameId")
+    int deleteByGameId(@Param("gameId") UUID gameId);
 }
@@ -0,0 +1,10 @@
+package com.seabattle.server.repository;
+
+import com.seabattle.server.entity.GameArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface GameArchiveRepository extends JpaRepository<GameArchive, UUID> { }
@@ -4,8 +4,12 @@ import com.seabattle.server.entity.Game;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Repository
@@ -14,4 +18,48 @@ public interface GameRepository extends JpaRepository<Game, UUID> {
     java.util.List<Game> findByRoomToken(UUID roomToken);
     long countByStatus(Game.GameStatus status);
     Page<Game> findByStatus(Game.GameStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    /** Versioned write of the in-game state without loading the row; 0 = the game was changed concurrently. */
+    @Modifying
+    @Query("""
+           update Game g
+           set g.status = :status, g.result = :result, g.currentTurn = :currentTurn,
+               g.finishedAt = :finishedAt, g.version = g.version + 1
+           where g.id = :id and g.version = :version
+           """)
+    int updateState(@Param("id") UUID id,
+                    @Param("version") long version,
+                    @Param("status") Game.GameStatus status,
+                    @Param("result") Game.GameResult result,
+                    @Param("currentTurn") Game.Turn currentTurn,
+                    @Param("finishedAt") OffsetDateTime finishedAt);
+
+    /** Finished games that still have live boards rows, i.e. are not compacted yet. */
+    @Query("""
+           select g.id from Game g
+           where g.status = com.seabattle.server.entity.Game.GameStatus.FINISHED
+             and g.finishedAt < :finishedBefore
+             and exists (select b.id from Board b where b.game = g)
+           order by g.finishedAt
+           """)
+    java.util.List<UUID> findCompactionCandidates(@Param("finishedBefore") OffsetDateTime finishedBefore, Pageable pageable);
+
+    /** Participation check by foreign keys only; neither user row is loaded. */
+    @Query("""
+           select count(g) > 0 from Game g
+           where g.id = :id and (g.host.id = :userId or g.guest.id = :userId)
+           """)
+    boolean isParticipant(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /** Whether the game may be spectated; empty when there is no such game. */
+    @Query("select g.featured from Game g where g.id = :id")
+    java.util.Optional<Boolean> findFeaturedById(@Param("id") UUID id);
+
+    interface StartedGame {
+        UUID getId();
+        OffsetDateTime getStartedAt();
+    }
+
+    @Query("select g.id as id, g.startedAt as startedAt from Game g where g.type = :type and g.status = :status")
+    java.util.List<StartedGame> findStartedGames(@Param("type") Game.GameType type, @Param("status") Game.GameStatus status);
+}
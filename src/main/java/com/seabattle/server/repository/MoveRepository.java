@@ -2,7 +2,19 @@ package com.seabattle.server.repository;
 
 import com.seabattle.server.entity.Move;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.UUID;
+
 @Repository
-public interface MoveRepository extends JpaRepository<Move, Long> { }
+public interface MoveRepository extends JpaRepository<Move, Long> {
+    List<Move> findByGameIdOrderByIdAsc(UUID gameId);
+
+    @Modifying
+    @Query("delete from Move m where m.game.id = :gameId")
+    int deleteByGameId(@Param("gameId") UUID gameId);
+}
@@ -0,0 +1,18 @@
+package com.seabattle.server.repository;
+
+import com.seabattle.server.entity.RevokedUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevokedUserRepository extends JpaRepository<RevokedUser, UUID> {
+
+    @Query("select r.userId from RevokedUser r where r.revokedAt > :since")
+    List<UUID> findIdsRevokedSince(@Param("since") OffsetDateTime since);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,6 +20,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Page<User> findByUsernameContainingIgnoreCase(String username, Pageable pageable);
 
+    @Query("select u.id from User u where u.status = :status")
+    List<UUID> findIdsByStatus(@Param("status") User.Status status);
+
+    @Query("select u.id from User u where u.role = :role")
+    List<UUID> findIdsByRole(@Param("role") User.Role role);
+
     @Query("""
            select u from User u
            where (:q is null or :q = '' or lower(u.username) like lower(concat('%', :q, '%')))
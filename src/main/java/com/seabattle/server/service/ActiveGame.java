@@ -0,0 +1,55 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.User;
+
+import java.util.UUID;
+
+/**
+ * In-memory state of a live game: a detached copy of the {@link Game} row and both decoded boards
+ * with their row versions. A published instance is never mutated; commands copy the game and the
+ * board they shoot at and publish a new instance after commit.
+ * "Opponent" is the guest's board, or the bot's board in a bot game.
+ */
+public final class ActiveGame {
+
+    public record BoardState(UUID boardId, long version, BoardModel model) { }
+
+    private final Game game;
+    private final BoardState hostBoard;
+    private final BoardState opponentBoard;
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    public ActiveGame(Game game, BoardState hostBoard, BoardState opponentBoard) {
+        this.game = game;
+        this.hostBoard = hostBoard;
+        this.opponentBoard = opponentBoard;
+    }
+
+    public UUID id() { return game.getId(); }
+    public Game game() { return game; }
+    public BoardState hostBoard() { return hostBoard; }
+    public BoardState opponentBoard() { return opponentBoard; }
+
+    /**
+     * Sequence number of the board state: the sum of both board row versions. Every board write
+     * bumps it by one, so it is monotonic per game, survives restarts and is the same on every node.
+     */
+    public long stateSeq() { return hostBoard.version() + opponentBoard.version(); }
+
+    /** Host or guest with this user id, or null for anyone else. */
+    public User participant(UUID userId) {
+        if (game.getHost().getId().equals(userId)) return game.getHost();
+        if (game.getGuest() != null && game.getGuest().getId().equals(userId)) return game.getGuest();
+        return null;
+    }
+
+    public boolean isHost(User user) {
+        return game.getHost().getId().equals(user.getId());
+    }
+
+    long lastAccessNanos() { return lastAccessNanos; }
+
+    void touch() { lastAccessNanos = System.nanoTime(); }
+}
@@ -0,0 +1,159 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.entity.Game;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hot games kept in memory so live-game commands and board reads do not reload and re-parse
+ * game and boards rows on every request.
+ * <p>
+ * Only game commands, which run on the game's lane ({@link GameCommandDispatcher}), load and
+ * publish entries, so an entry is always the state the last committed command left behind.
+ * Readers outside the lane only {@link #peek} and fall back to the database on a miss.
+ * Finished games are never cached; idle games and, above max-size, least recently used games
+ * are evicted by a periodic sweep.
+ */
+@Component
+public class ActiveGameRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveGameRegistry.class);
+
+    private final Map<UUID, ActiveGame> games = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter idleEvictions;
+    private final Counter sizeEvictions;
+    private final Counter invalidations;
+
+    @Value("${app.game.registry.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.game.registry.idle-minutes:15}")
+    private long idleMinutes;
+
+    public ActiveGameRegistry(MeterRegistry meters) {
+        this.hits = meters.counter("game.registry.hits");
+        this.misses = meters.counter("game.registry.misses");
+        this.idleEvictions = meters.counter("game.registry.evictions", "cause", "idle");
+        this.sizeEvictions = meters.counter("game.registry.evictions", "cause", "size");
+        this.invalidations = meters.counter("game.registry.evictions", "cause", "invalidated");
+        Gauge.builder("game.registry.size", games, Map::size).register(meters);
+    }
+
+    /** Cached state for a read outside the game's lane; empty on a miss (caller reads the database). */
+    public Optional<ActiveGame> peek(UUID gameId) {
+        ActiveGame game = games.get(gameId);
+        if (game == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        game.touch();
+        return Optional.of(game);
+    }
+
+    /**
+     * Cached state for a command on the game's lane, rehydrated by the loader on a miss. The loaded
+     * state becomes an entry only through {@link #publish}, so a rolled back command leaves the
+     * registry as it was.
+     */
+    public ActiveGame load(UUID gameId, Supplier<ActiveGame> loader) {
+        ActiveGame game = games.get(gameId);
+        if (game != null) {
+            hits.increment();
+            game.touch();
+            return game;
+        }
+        misses.increment();
+        return loader.get();
+    }
+
+    /** Makes the new state visible once the current transaction commits (immediately without one). */
+    public void publish(ActiveGame game) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(game);
+                }
+            });
+        } else {
+            put(game);
+        }
+    }
+
+    /** Drops the entry; used by commands that change the game through JPA entities. */
+    public void evict(UUID gameId) {
+        if (games.remove(gameId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    /** Current entries, for the shutdown snapshot. */
+    public List<ActiveGame> snapshot() {
+        return List.copyOf(games.values());
+    }
+
+    /** Re-adds an entry from the shutdown snapshot; runs at startup before any command. */
+    public void restore(ActiveGame game) {
+        if (game.game().getStatus() != Game.GameStatus.FINISHED) {
+            games.putIfAbsent(game.id(), game);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.game.registry.sweep-ms:30000}")
+    public void sweep() {
+        long idleBefore = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleMinutes);
+        games.values().removeIf(g -> {
+            if (g.lastAccessNanos() - idleBefore < 0) {
+                idleEvictions.increment();
+                return true;
+            }
+            return false;
+        });
+
+        int excess = games.size() - maxSize;
+        if (excess > 0) {
+            games.values().stream()
+                    .sorted(Comparator.comparingLong(ActiveGame::lastAccessNanos))
+                    .limit(excess)
+                    .map(ActiveGame::id)
+                    .toList()
+                    .forEach(id -> {
+                        if (games.remove(id) != null) sizeEvictions.increment();
+                    });
+            log.debug("Active game registry over capacity, evicted {} games", excess);
+        }
+    }
+
+    private void put(ActiveGame game) {
+        if (game.game().getStatus() == Game.GameStatus.FINISHED) {
+            evict(game.id());
+        } else {
+            games.put(game.id(), game);
+        }
+    }
+}
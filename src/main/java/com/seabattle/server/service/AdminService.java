@@ -0,0 +1,277 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.dto.*;
+import com.seabattle.server.engine.GameReplay;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.RevokedUser;
+import com.seabattle.server.entity.Room;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.repository.RevokedUserRepository;
+import com.seabattle.server.repository.RoomRepository;
+import com.seabattle.server.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Admin panel operations. Invalid input is reported as IllegalArgumentException with a
+ * user-facing message; deletes of referenced rows surface as DataIntegrityViolationException on commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminService {
+
+    private final UserRepository userRepository;
+    private final GameRepository gameRepository;
+    private final RoomRepository roomRepository;
+    private final RevokedUserRepository revokedUserRepository;
+    private final GameArchiveService gameArchiveService;
+    private final ActiveGameRegistry activeGames;
+    private final GameTimeoutService gameTimeouts;
+    private final ApplicationEventPublisher events;
+
+    @Transactional(readOnly = true)
+    public AdminStatsDto getStats() {
+        return new AdminStatsDto(
+                userRepository.count(),
+                userRepository.search(null, null, User.Status.ACTIVE, PageRequest.of(0, 1)).getTotalElements(),
+                userRepository.search(null, null, User.Status.BLOCKED, PageRequest.of(0, 1)).getTotalElements(),
+                gameRepository.countByStatus(Game.GameStatus.IN_PROGRESS),
+                gameRepository.countByStatus(Game.GameStatus.FINISHED),
+                roomRepository.countByStatus("WAITING")
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AdminUserDto> getUsers(int page, int size, String query, User.Role role, User.Status status) {
+        Page<User> users = userRepository.search(
+                query,
+                role,
+                status,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"))
+        );
+
+        return users.map(u -> new AdminUserDto(
+                u.getId(),
+                u.getUsername(),
+                u.getRating() != null ? u.getRating() : 0,
+                u.getWins() != null ? u.getWins() : 0,
+                u.getLosses() != null ? u.getLosses() : 0,
+                u.getRole().name(),
+                u.getStatus().name(),
+                u.getCreatedAt()
+        ));
+    }
+
+    @Transactional
+    public void updateUserRole(UUID userId, String role, UUID actorId) {
+        User user = getUser(userId);
+        User.Role newRole = parseRole(role);
+        if (userId.equals(actorId) && newRole != User.Role.ADMIN) {
+            throw new IllegalArgumentException("You cannot remove your own admin role");
+        }
+        user.setRole(newRole);
+        events.publishEvent(UserAccessChanged.of(user));
+    }
+
+    @Transactional
+    public void updateUserStatus(UUID userId, String status, UUID actorId) {
+        User user = getUser(userId);
+        User.Status newStatus = parseStatus(status);
+        if (userId.equals(actorId) && newStatus == User.Status.BLOCKED) {
+            throw new IllegalArgumentException("You cannot block yourself");
+        }
+        user.setStatus(newStatus);
+        events.publishEvent(UserAccessChanged.of(user));
+    }
+
+    @Transactional
+    public void updateUser(UUID userId, AdminUpdateUserRequest request, UUID actorId) {
+        User user = getUser(userId);
+
+        if (request.rating() != null) user.setRating(Math.max(0, request.rating()));
+        if (request.wins() != null) user.setWins(Math.max(0, request.wins()));
+        if (request.losses() != null) user.setLosses(Math.max(0, request.losses()));
+
+        if (request.role() != null && !request.role().isBlank()) {
+            User.Role newRole = parseRole(request.role());
+            if (userId.equals(actorId) && newRole != User.Role.ADMIN) {
+                throw new IllegalArgumentException("You cannot remove your own admin role");
+            }
+            user.setRole(newRole);
+        }
+
+        if (request.status() != null && !request.status().isBlank()) {
+            User.Status newStatus = parseStatus(request.status());
+            if (userId.equals(actorId) && newStatus == User.Status.BLOCKED) {
+                throw new IllegalArgumentException("You cannot block yourself");
+            }
+            user.setStatus(newStatus);
+        }
+        events.publishEvent(UserAccessChanged.of(user));
+    }
+
+    @Transactional
+    public void deleteUser(UUID userId, UUID actorId) {
+        User user = getUser(userId);
+        if (userId.equals(actorId)) {
+            throw new IllegalArgumentException("You cannot delete yourself");
+        }
+        userRepository.delete(user);
+        revokedUserRepository.save(RevokedUser.builder().userId(userId).build());
+        events.publishEvent(UserAccessChanged.deleted(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AdminGameDto> getGames(int page, int size, Game.GameStatus status) {
+        Page<Game> games = status == null
+                ? gameRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")))
+                : gameRepository.findByStatus(status, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        return games.map(g -> new AdminGameDto(
+                g.getId(),
+                g.getType().name(),
+                g.getStatus().name(),
+                g.getHost() != null ? g.getHost().getUsername() : null,
+                g.getGuest() != null ? g.getGuest().getUsername() : null,
+                g.isBot(),
+                g.isFeatured(),
+                g.getCreatedAt(),
+                g.getStartedAt(),
+                g.getFinishedAt()
+        ));
+    }
+
+    /** Final boards and move log of a compacted game, decoded from its archive blob. */
+    @Transactional(readOnly = true)
+    public Optional<GameReplayDto> getGameReplay(UUID gameId) {
+        Game game = getGame(gameId);
+        return gameArchiveService.findReplay(gameId).map(replay -> new GameReplayDto(
+                replay.hostBoard().toIntArray(true),
+                replay.opponentBoard().toIntArray(true),
+                gameArchiveService.toMoves(game, replay)
+        ));
+    }
+
+    @Transactional
+    public void terminateGame(UUID gameId) {
+        activeGames.evict(gameId);
+        Game game = getGame(gameId);
+        game.setStatus(Game.GameStatus.FINISHED);
+        if (game.getFinishedAt() == null) {
+            game.setFinishedAt(OffsetDateTime.now());
+        }
+        gameTimeouts.gameFinished(gameId);
+    }
+
+    @Transactional
+    public void updateGame(UUID gameId, AdminUpdateGameRequest request) {
+        activeGames.evict(gameId);
+        Game game = getGame(gameId);
+
+        if (request.status() != null && !request.status().isBlank()) {
+            Game.GameStatus status = parse(Game.GameStatus.class, request.status(), "Invalid status");
+            if (status != Game.GameStatus.FINISHED && gameArchiveService.isArchived(gameId)) {
+                throw new IllegalArgumentException("Archived game cannot be reopened");
+            }
+            game.setStatus(status);
+            if (status == Game.GameStatus.FINISHED && game.getFinishedAt() == null) {
+                game.setFinishedAt(OffsetDateTime.now());
+            }
+        }
+
+        if (request.result() != null && !request.result().isBlank()) {
+            game.setResult(parse(Game.GameResult.class, request.result(), "Invalid result"));
+        }
+
+        if (request.currentTurn() != null && !request.currentTurn().isBlank()) {
+            game.setCurrentTurn(parse(Game.Turn.class, request.currentTurn(), "Invalid currentTurn"));
+        }
+
+        if (request.featured() != null) {
+            game.setFeatured(request.featured());
+        }
+    }
+
+    @Transactional
+    public void deleteGame(UUID gameId) {
+        activeGames.evict(gameId);
+        gameTimeouts.gameFinished(gameId);
+        gameRepository.delete(getGame(gameId));
+        events.publishEvent(new GameEvent.Removed(gameId));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AdminRoomDto> getRooms(int page, int size, String status) {
+        Page<Room> rooms = (status == null || status.isBlank())
+                ? roomRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")))
+                : roomRepository.findByStatus(status, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        return rooms.map(r -> new AdminRoomDto(
+                r.getId(),
+                r.getToken(),
+                r.getStatus(),
+                r.getHost() != null ? r.getHost().getUsername() : null,
+                r.getGuest() != null ? r.getGuest().getUsername() : null,
+                r.getCreatedAt(),
+                r.getExpiresAt()
+        ));
+    }
+
+    @Transactional
+    public void updateRoom(UUID roomId, AdminUpdateRoomRequest request) {
+        Room room = roomRepository.findById(roomId).orElseThrow(() -> new EntityNotFoundException("Room not found"));
+
+        if (request.status() != null && !request.status().isBlank()) {
+            room.setStatus(request.status().toUpperCase());
+        }
+        if (request.expiresAt() != null && !request.expiresAt().isBlank()) {
+            try {
+                room.setExpiresAt(OffsetDateTime.parse(request.expiresAt()));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid expiresAt format");
+            }
+        }
+    }
+
+    @Transactional
+    public void deleteRoom(UUID roomId) {
+        Room room = roomRepository.findById(roomId).orElseThrow(() -> new EntityNotFoundException("Room not found"));
+        roomRepository.delete(room);
+    }
+
+    private User getUser(UUID userId) {
+        return userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
+    }
+
+    private Game getGame(UUID gameId) {
+        return gameRepository.findById(gameId).orElseThrow(() -> new EntityNotFoundException("Game not found"));
+    }
+
+    private static User.Role parseRole(String role) {
+        return parse(User.Role.class, role, "Invalid role");
+    }
+
+    private static User.Status parseStatus(String status) {
+        return parse(User.Status.class, status, "Invalid status");
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String message) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (Exception e) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
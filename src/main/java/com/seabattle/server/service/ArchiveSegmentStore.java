@@ -0,0 +1,273 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.dto.MoveDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.*;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed segment files with rows of archived (dropped) partitions.
+ * <p>
+ * Layout: {@code <dir>/<table>/<partition>.seg.gz} holds the rows (gzip, typed columns, sorted by game_id),
+ * {@code <partition>.idx} holds the sorted set of game ids contained in the segment, so a lookup
+ * only decompresses segments that actually have rows of the requested game.
+ */
+@Component
+public class ArchiveSegmentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveSegmentStore.class);
+
+    private static final int MAGIC = 0x53425347; // "SBSG"
+    private static final byte FORMAT_VERSION = 1;
+    private static final String SEGMENT_SUFFIX = ".seg.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private static final byte T_LONG = 1, T_INT = 2, T_SHORT = 3, T_BOOL = 4, T_UUID = 5, T_STRING = 6, T_TIMESTAMP = 7;
+
+    private final Path root;
+    private final Map<Path, Set<UUID>> indexCache = new ConcurrentHashMap<>();
+
+    public ArchiveSegmentStore(@Value("${app.archive.dir:archive}") String dir) {
+        this.root = Paths.get(dir).toAbsolutePath();
+    }
+
+    public boolean exists(String table, String partition) {
+        return Files.exists(segmentPath(table, partition)) && Files.exists(indexPath(table, partition));
+    }
+
+    /**
+     * Streams all rows of the result set into a new segment. Rows must be ordered by game_id.
+     * Files are written under a temporary name and moved into place only when complete.
+     *
+     * @return number of rows written
+     */
+    public long write(String table, String partition, ResultSet rs) throws SQLException, IOException {
+        Path dir = root.resolve(table);
+        Files.createDirectories(dir);
+        Path segment = segmentPath(table, partition);
+        Path index = indexPath(table, partition);
+        Path segmentTmp = segment.resolveSibling(segment.getFileName() + ".tmp");
+        Path indexTmp = index.resolveSibling(index.getFileName() + ".tmp");
+
+        ResultSetMetaData md = rs.getMetaData();
+        int columns = md.getColumnCount();
+        byte[] types = new byte[columns];
+        int gameIdColumn = -1;
+        for (int i = 0; i < columns; i++) {
+            types[i] = typeOf(md, i + 1);
+            if ("game_id".equalsIgnoreCase(md.getColumnLabel(i + 1))) gameIdColumn = i;
+        }
+        if (gameIdColumn < 0) throw new IllegalArgumentException("Segment rows must have a game_id column");
+
+        long rows = 0;
+        SortedSet<UUID> gameIds = new TreeSet<>();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(segmentTmp), 64 * 1024)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(table);
+            out.writeInt(columns);
+            for (int i = 0; i < columns; i++) {
+                out.writeUTF(md.getColumnLabel(i + 1).toLowerCase(Locale.ROOT));
+                out.writeByte(types[i]);
+            }
+            while (rs.next()) {
+                out.writeByte(1);
+                for (int i = 0; i < columns; i++) {
+                    writeValue(out, types[i], rs, i + 1);
+                }
+                gameIds.add(rs.getObject(gameIdColumn + 1, UUID.class));
+                rows++;
+            }
+            out.writeByte(0);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexTmp)))) {
+            out.writeInt(gameIds.size());
+            for (UUID id : gameIds) {
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+            }
+        }
+
+        Files.move(segmentTmp, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexCache.remove(index);
+        return rows;
+    }
+
+    /** Archived moves of one game, ordered by id. Empty if nothing was archived for the game. */
+    public List<MoveDto> findMoves(UUID gameId) {
+        List<MoveDto> result = new ArrayList<>();
+        for (Path segment : segmentsContaining("moves", gameId)) {
+            try {
+                readRows(segment, gameId, row -> result.add(new MoveDto(
+                        (Long) row.get("id"),
+                        (UUID) row.get("player_id"),
+                        (Short) row.get("x"),
+                        (Short) row.get("y"),
+                        (Boolean) row.get("hit"),
+                        (OffsetDateTime) row.get("created_at"))));
+            } catch (IOException e) {
+                log.error("Cannot read archive segment {}", segment, e);
+            }
+        }
+        result.sort(Comparator.comparingLong(MoveDto::id));
+        return result;
+    }
+
+    private List<Path> segmentsContaining(String table, UUID gameId) {
+        Path dir = root.resolve(table);
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(p -> p.getFileName().toString().endsWith(INDEX_SUFFIX))
+                    .filter(p -> loadIndex(p).contains(gameId))
+                    .map(p -> {
+                        String name = p.getFileName().toString();
+                        return p.resolveSibling(name.substring(0, name.length() - INDEX_SUFFIX.length()) + SEGMENT_SUFFIX);
+                    })
+                    .filter(Files::exists)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.error("Cannot list archive directory {}", dir, e);
+            return List.of();
+        }
+    }
+
+    private Set<UUID> loadIndex(Path index) {
+        return indexCache.computeIfAbsent(index, p -> {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p)))) {
+                int count = in.readInt();
+                Set<UUID> ids = new HashSet<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    ids.add(new UUID(in.readLong(), in.readLong()));
+                }
+                return ids;
+            } catch (IOException e) {
+                log.error("Cannot read archive index {}", p, e);
+                return Set.of();
+            }
+        });
+    }
+
+    private void readRows(Path segment, UUID gameId, java.util.function.Consumer<Map<String, Object>> sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(segment), 64 * 1024)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not an archive segment: " + segment);
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) throw new IOException("Unsupported segment version " + version);
+            in.readUTF(); // table
+            int columns = in.readInt();
+            String[] names = new String[columns];
+            byte[] types = new byte[columns];
+            for (int i = 0; i < columns; i++) {
+                names[i] = in.readUTF();
+                types[i] = in.readByte();
+            }
+            boolean seen = false;
+            while (in.readByte() == 1) {
+                Map<String, Object> row = new HashMap<>(columns * 2);
+                for (int i = 0; i < columns; i++) {
+                    row.put(names[i], readValue(in, types[i]));
+                }
+                if (gameId.equals(row.get("game_id"))) {
+                    seen = true;
+                    sink.accept(row);
+                } else if (seen) {
+                    break; // rows are grouped by game_id
+                }
+            }
+        }
+    }
+
+    private static byte typeOf(ResultSetMetaData md, int column) throws SQLException {
+        int type = md.getColumnType(column);
+        switch (type) {
+            case Types.BIGINT: return T_LONG;
+            case Types.INTEGER: return T_INT;
+            case Types.SMALLINT: return T_SHORT;
+            case Types.BOOLEAN:
+            case Types.BIT: return T_BOOL;
+            case Types.VARCHAR:
+            case Types.CHAR:
+            case Types.LONGVARCHAR: return T_STRING;
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE: return T_TIMESTAMP;
+            default:
+                if ("uuid".equalsIgnoreCase(md.getColumnTypeName(column))) return T_UUID;
+                throw new IllegalArgumentException("Unsupported column type " + md.getColumnTypeName(column)
+                        + " for " + md.getColumnLabel(column));
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, byte type, ResultSet rs, int column) throws SQLException, IOException {
+        Object value = switch (type) {
+            case T_UUID -> rs.getObject(column, UUID.class);
+            case T_TIMESTAMP -> rs.getObject(column, OffsetDateTime.class);
+            default -> rs.getObject(column);
+        };
+        if (value == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        switch (type) {
+            case T_LONG -> out.writeLong(((Number) value).longValue());
+            case T_INT -> out.writeInt(((Number) value).intValue());
+            case T_SHORT -> out.writeShort(((Number) value).shortValue());
+            case T_BOOL -> out.writeBoolean((Boolean) value);
+            case T_STRING -> out.writeUTF(value.toString());
+            case T_UUID -> {
+                UUID id = (UUID) value;
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+            }
+            case T_TIMESTAMP -> {
+                Instant instant = ((OffsetDateTime) value).toInstant();
+                out.writeLong(instant.getEpochSecond());
+                out.writeInt(instant.getNano());
+            }
+            default -> throw new IllegalStateException("Unknown column type " + type);
+        }
+    }
+
+    private static Object readValue(DataInputStream in, byte type) throws IOException {
+        if (!in.readBoolean()) return null;
+        return switch (type) {
+            case T_LONG -> in.readLong();
+            case T_INT -> in.readInt();
+            case T_SHORT -> in.readShort();
+            case T_BOOL -> in.readBoolean();
+            case T_STRING -> in.readUTF();
+            case T_UUID -> new UUID(in.readLong(), in.readLong());
+            case T_TIMESTAMP -> OffsetDateTime.ofInstant(Instant.ofEpochSecond(in.readLong(), in.readInt()), ZoneOffset.UTC);
+            default -> throw new IOException("Unknown column type " + type);
+        };
+    }
+
+    private Path segmentPath(String table, String partition) {
+        return root.resolve(table).resolve(partition + SEGMENT_SUFFIX);
+    }
+
+    private Path indexPath(String table, String partition) {
+        return root.resolve(table).resolve(partition + INDEX_SUFFIX);
+    }
+}
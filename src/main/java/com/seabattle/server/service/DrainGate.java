@@ -0,0 +1,32 @@
+package com.seabattle.server.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Closed while the node drains for shutdown: rooms, bot games and rematches are refused so that
+ * players start new games on a node that stays up. Running games keep accepting commands.
+ */
+@Component
+public class DrainGate {
+
+    private volatile boolean closed;
+
+    /** Thrown for new-game requests on a draining node; reported as 503 with Retry-After. */
+    public static class DrainingException extends RuntimeException {
+        public DrainingException() {
+            super("Server is restarting, try again in a few seconds");
+        }
+    }
+
+    public void checkOpen() {
+        if (closed) throw new DrainingException();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,152 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.dto.MoveDto;
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.engine.GameReplay;
+import com.seabattle.server.engine.ReplayCodec;
+import com.seabattle.server.entity.*;
+import com.seabattle.server.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Post-finish compaction: a finished game's boards and moves rows are replaced by one
+ * {@link GameArchive} blob some minutes after the game ends. Replays, final boards and admin
+ * views of compacted games are decoded from the blob.
+ */
+@Service
+public class GameArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchiveService.class);
+
+    private final GameRepository gameRepo;
+    private final BoardRepository boardRepo;
+    private final MoveRepository moveRepo;
+    private final GameArchiveRepository archiveRepo;
+    private final TransactionTemplate tx;
+
+    @Value("${app.compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.compaction.grace-minutes:10}")
+    private long graceMinutes;
+
+    @Value("${app.compaction.batch-size:100}")
+    private int batchSize;
+
+    public GameArchiveService(GameRepository gameRepo, BoardRepository boardRepo, MoveRepository moveRepo,
+                              GameArchiveRepository archiveRepo, PlatformTransactionManager transactionManager) {
+        this.gameRepo = gameRepo;
+        this.boardRepo = boardRepo;
+        this.moveRepo = moveRepo;
+        this.archiveRepo = archiveRepo;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Compacts games that finished more than grace-minutes ago. The grace period keeps the
+     * final screen and rematch flow on live rows; afterwards they are served from the blob.
+     */
+    @Scheduled(fixedDelayString = "${app.compaction.interval-ms:60000}", initialDelayString = "${app.compaction.interval-ms:60000}")
+    public void compactFinishedGames() {
+        if (!enabled) return;
+        OffsetDateTime finishedBefore = OffsetDateTime.now().minusMinutes(graceMinutes);
+        List<UUID> candidates = gameRepo.findCompactionCandidates(finishedBefore, PageRequest.of(0, batchSize));
+        int compacted = 0;
+        for (UUID gameId : candidates) {
+            try {
+                if (compact(gameId)) compacted++;
+            } catch (Exception e) {
+                log.error("Failed to compact game {}", gameId, e);
+            }
+        }
+        if (compacted > 0) {
+            log.info("Compacted {} finished games", compacted);
+        }
+    }
+
+    /** Encodes the finished game into game_archive and deletes its boards and moves. */
+    public boolean compact(UUID gameId) {
+        return Boolean.TRUE.equals(tx.execute(status -> {
+            Game game = gameRepo.findById(gameId).orElse(null);
+            if (game == null || game.getStatus() != Game.GameStatus.FINISHED || archiveRepo.existsById(gameId)) {
+                return false;
+            }
+            List<Board> boards = boardRepo.findByGameIdOrderByIdAsc(gameId);
+            if (boards.isEmpty()) return false;
+
+            UUID hostId = game.getHost().getId();
+            UUID guestId = game.getGuest() != null ? game.getGuest().getId() : null;
+            BoardModel hostBoard = boardOf(boards, hostId);
+            BoardModel opponentBoard = game.isBot() ? boardOf(boards, null) : boardOf(boards, guestId);
+
+            List<GameReplay.Shot> shots = moveRepo.findByGameIdOrderByIdAsc(gameId).stream()
+                    .map(m -> new GameReplay.Shot(
+                            m.getPlayer() != null && hostId.equals(m.getPlayer().getId()),
+                            m.getX(),
+                            m.getY(),
+                            m.isHit(),
+                            m.getCreatedAt() != null ? m.getCreatedAt().toInstant().toEpochMilli() : 0))
+                    .toList();
+
+            byte[] data = ReplayCodec.encode(hostBoard, opponentBoard, shots);
+            archiveRepo.save(GameArchive.builder().gameId(gameId).data(data).build());
+            int moves = moveRepo.deleteByGameId(gameId);
+            boardRepo.deleteByGameId(gameId);
+            log.debug("Compacted game {}: {} boards, {} moves -> {} bytes", gameId, boards.size(), moves, data.length);
+            return true;
+        }));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isArchived(UUID gameId) {
+        return archiveRepo.existsById(gameId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<GameReplay> findReplay(UUID gameId) {
+        return archiveRepo.findById(gameId).map(a -> ReplayCodec.decode(a.getData()));
+    }
+
+    /** Shots of a compacted game as move records; ids are the shot sequence numbers. */
+    public List<MoveDto> toMoves(Game game, GameReplay replay) {
+        UUID hostId = game.getHost().getId();
+        UUID opponentId = game.getGuest() != null ? game.getGuest().getId() : null;
+        List<MoveDto> moves = new ArrayList<>(replay.getShots().size());
+        long seq = 1;
+        for (GameReplay.Shot shot : replay.getShots()) {
+            moves.add(new MoveDto(
+                    seq++,
+                    shot.hostShot() ? hostId : opponentId,
+                    shot.x(),
+                    shot.y(),
+                    shot.hit(),
+                    OffsetDateTime.ofInstant(Instant.ofEpochMilli(shot.epochMillis()), ZoneOffset.UTC)));
+        }
+        return moves;
+    }
+
+    private static BoardModel boardOf(List<Board> boards, UUID playerId) {
+        return boards.stream()
+                .filter(b -> Objects.equals(b.getPlayer() != null ? b.getPlayer().getId() : null, playerId))
+                .findFirst()
+                .map(b -> BoardModel.fromJson(b.getCells()))
+                .orElseGet(BoardModel::new);
+    }
+}
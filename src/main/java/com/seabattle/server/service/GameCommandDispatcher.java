@@ -0,0 +1,182 @@
+package com.seabattle.server.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer lanes: every mutation of a game runs on that game's mailbox, one command at a
+ * time and in arrival order, so two players (or a player and an admin) never race on the same
+ * game rows. Different games drain in parallel on a shared worker pool. Callers block until
+ * their command has run and get its result or exception back. Each command still goes through
+ * {@link GameCommandRetry} for conflicts with writers outside this node.
+ * <p>
+ * A lane exists only while it has queued commands; mailbox bookkeeping happens inside
+ * {@link ConcurrentHashMap#compute}, which is atomic per game id.
+ * <p>
+ * In virtual-thread mode ({@code spring.threads.virtual.enabled} on Java 21+) each draining lane
+ * runs on its own virtual thread, so lanes blocked on JDBC no longer hold one of a fixed number
+ * of workers; the connection pool becomes the only limit.
+ */
+@Component
+public class GameCommandDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(GameCommandDispatcher.class);
+
+    /** Game whose lane the current worker thread is draining; nested commands for it run inline. */
+    private static final ThreadLocal<UUID> CURRENT_LANE = new ThreadLocal<>();
+
+    private final Map<UUID, Lane> lanes = new ConcurrentHashMap<>();
+    private final Executor workers;
+    private final GameCommandRetry retry;
+
+    @Autowired
+    public GameCommandDispatcher(GameCommandRetry retry,
+                                 @Value("${app.game.lanes.workers:16}") int workerThreads,
+                                 Environment environment) {
+        this(retry, Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("game-lane-")
+                : platformWorkers(workerThreads));
+    }
+
+    public GameCommandDispatcher(GameCommandRetry retry, int workerThreads) {
+        this(retry, platformWorkers(workerThreads));
+    }
+
+    private GameCommandDispatcher(GameCommandRetry retry, Executor workers) {
+        this.retry = retry;
+        this.workers = workers;
+    }
+
+    private static ExecutorService platformWorkers(int workerThreads) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "game-lane-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public <T> T execute(UUID gameId, Supplier<T> command) {
+        if (gameId.equals(CURRENT_LANE.get())) {
+            return retry.execute(command);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                result.complete(retry.execute(command));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+        enqueue(gameId, task);
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    public void execute(UUID gameId, Runnable command) {
+        execute(gameId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues a command without waiting for it (timers and other background triggers); a failure
+     * is only logged.
+     */
+    public void submit(UUID gameId, Runnable command) {
+        enqueue(gameId, () -> {
+            try {
+                retry.execute(command);
+            } catch (RuntimeException e) {
+                log.warn("Background command for game {} failed: {}", gameId, e.getMessage(), e);
+            }
+        });
+    }
+
+    /** Number of games with queued or running commands. */
+    public int activeLanes() {
+        return lanes.size();
+    }
+
+    private void enqueue(UUID gameId, Runnable task) {
+        boolean[] start = new boolean[1];
+        lanes.compute(gameId, (id, lane) -> {
+            if (lane == null) lane = new Lane();
+            lane.mailbox.add(task);
+            start[0] = !lane.draining;
+            lane.draining = true;
+            return lane;
+        });
+        if (start[0]) {
+            workers.execute(() -> drain(gameId));
+        }
+    }
+
+    private void drain(UUID gameId) {
+        CURRENT_LANE.set(gameId);
+        try {
+            Runnable next = poll(gameId);
+            while (next != null) {
+                try {
+                    next.run();
+                } catch (Throwable e) {
+                    log.error("Game lane {} command failed outside its future", gameId, e);
+                }
+                next = poll(gameId);
+            }
+        } finally {
+            CURRENT_LANE.remove();
+        }
+    }
+
+    /** Takes the next command, or removes the lane when its mailbox is empty. */
+    private Runnable poll(UUID gameId) {
+        Runnable[] next = new Runnable[1];
+        lanes.compute(gameId, (id, lane) -> {
+            if (lane == null) return null;
+            next[0] = lane.mailbox.poll();
+            return next[0] == null ? null : lane;
+        });
+        return next[0];
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (workers instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+    }
+
+    private static final class Lane {
+        /** Guarded by the map's per-key compute. */
+        final Queue<Runnable> mailbox = new ArrayDeque<>();
+        boolean draining;
+    }
+}
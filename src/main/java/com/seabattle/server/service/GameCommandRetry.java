@@ -0,0 +1,61 @@
+package com.seabattle.server.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry for game commands that lost an optimistic-lock race on {@code games}/{@code boards}.
+ * Each attempt must call a {@code @Transactional} service method, so it re-reads fresh state
+ * in a new transaction. When attempts are exhausted the last
+ * {@link OptimisticLockingFailureException} is rethrown and reported to the client as 409.
+ */
+@Component
+public class GameCommandRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(GameCommandRetry.class);
+
+    @Value("${app.game.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.game.retry.backoff-ms:15}")
+    private long backoffMs;
+
+    public <T> T execute(Supplier<T> command) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return command.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Game command conflict not resolved after {} attempts: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict, retrying (attempt {}/{})", attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void execute(Runnable command) {
+        execute(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        if (backoffMs <= 0) return;
+        long delay = backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying game command", e);
+        }
+    }
+}
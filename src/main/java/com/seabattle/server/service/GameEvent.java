@@ -0,0 +1,35 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.entity.Game;
+
+import java.util.UUID;
+
+/**
+ * Something that happened to an online game and that its players should see. Services publish
+ * these through Spring's event publisher; {@link GameEventDispatcher} turns them into WebSocket
+ * messages once the publishing transaction has committed.
+ */
+public sealed interface GameEvent {
+
+    UUID gameId();
+
+    /**
+     * Boards and/or turn changed. {@code before} and {@code after} are published registry states
+     * (never mutated), equal when only the turn or the result changed.
+     */
+    record StateChanged(Game game, ActiveGame before, ActiveGame after,
+                        boolean hit, boolean sunk, boolean already) implements GameEvent {
+        public UUID gameId() { return game.getId(); }
+    }
+
+    record Finished(UUID gameId, String winner) implements GameEvent { }
+
+    record PlayerReady(UUID gameId, boolean isHost, boolean hostReady, boolean guestReady,
+                       boolean gameStarted, String currentTurn) implements GameEvent { }
+
+    /** The player on turn ({@code HOST}/{@code GUEST}) forfeits on a turn or game timeout. */
+    record TimedOut(UUID gameId, GameTimeoutService.Reason reason, String player) implements GameEvent { }
+
+    /** The game was deleted; who played it no longer grants access to it. */
+    record Removed(UUID gameId) implements GameEvent { }
+}
@@ -0,0 +1,154 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Game;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Delivers {@link GameEvent}s to the game's WebSocket subscribers after the publishing
+ * transaction commits, so players never see state that rolls back and the transaction does not
+ * wait on message building. Events published outside a transaction are delivered right away.
+ * <p>
+ * Delivery runs on a few single-threaded stripes chosen by game id: events of one game keep
+ * their order (a surrender's final state before its gameFinished), different games go in
+ * parallel.
+ */
+@Component
+public class GameEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(GameEventDispatcher.class);
+
+    private final GameWebSocketHandler gameWebSocketHandler;
+    private final RecentGameEvents recentEvents;
+    private final ExecutorService[] stripes;
+
+    @Autowired
+    public GameEventDispatcher(GameWebSocketHandler gameWebSocketHandler, RecentGameEvents recentEvents,
+                               @Value("${app.game.events.threads:2}") int threads) {
+        this.gameWebSocketHandler = gameWebSocketHandler;
+        this.recentEvents = recentEvents;
+        this.stripes = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = "game-events-" + (i + 1);
+            stripes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(GameEvent event) {
+        stripes[Math.floorMod(event.gameId().hashCode(), stripes.length)].execute(() -> {
+            try {
+                deliver(event);
+            } catch (RuntimeException e) {
+                log.error("Error delivering {} for game {}", event.getClass().getSimpleName(), event.gameId(), e);
+            }
+        });
+    }
+
+    void deliver(GameEvent event) {
+        if (event instanceof GameEvent.StateChanged e) {
+            deliverState(e);
+        } else if (event instanceof GameEvent.Finished e) {
+            broadcast(new GameSocketMessage.GameFinished(e.gameId(), e.winner()), e.gameId());
+        } else if (event instanceof GameEvent.PlayerReady e) {
+            broadcast(new GameSocketMessage.PlayerReady(
+                    e.gameId(), e.isHost(), e.hostReady(), e.guestReady(),
+                    e.hostReady() && e.guestReady(), e.gameStarted(), e.currentTurn()), e.gameId());
+        } else if (event instanceof GameEvent.TimedOut e) {
+            broadcast(new GameSocketMessage.Timeout(e.gameId(), e.reason().name(), e.player()), e.gameId());
+        } else if (event instanceof GameEvent.Removed e) {
+            recentEvents.forget(e.gameId());
+            gameWebSocketHandler.forgetGame(e.gameId());
+        }
+    }
+
+    /** Players first, so a crowd of spectators never delays them. */
+    private void broadcast(GameSocketMessage message, UUID gameId) {
+        recentEvents.recordBroadcast(gameId, message);
+        gameWebSocketHandler.broadcastToGame(gameId, message);
+        gameWebSocketHandler.broadcastToSpectators(gameId, message);
+    }
+
+    /**
+     * Sends each player the cells that changed, from their own perspective: own board with ships,
+     * the opponent's without. Spectators get one shared delta with neither board's ships. The
+     * deltas are recorded for resuming clients before anything is sent.
+     */
+    private void deliverState(GameEvent.StateChanged e) {
+        Game game = e.game();
+        BoardModel hostBefore = e.before().hostBoard().model();
+        BoardModel guestBefore = e.before().opponentBoard().model();
+        BoardModel hostAfter = e.after().hostBoard().model();
+        BoardModel guestAfter = e.after().opponentBoard().model();
+
+        Map<String, GameSocketMessage> deltas = new HashMap<>();
+        String host = game.getHost().getUsername();
+        String guest = game.getGuest() != null ? game.getGuest().getUsername() : null;
+        deltas.put(host, stateDelta(e, hostBefore, hostAfter, guestBefore, guestAfter));
+        if (guest != null) {
+            deltas.put(guest, stateDelta(e, guestBefore, guestAfter, hostBefore, hostAfter));
+        }
+        boolean spectated = gameWebSocketHandler.hasSpectators(game.getId());
+        if (spectated) {
+            deltas.put(RecentGameEvents.SPECTATORS, stateDelta(e, hostBefore, hostAfter, guestBefore, guestAfter, false));
+        }
+        recentEvents.recordDelta(game.getId(), e.before().stateSeq(), e.after().stateSeq(), deltas);
+
+        gameWebSocketHandler.sendToUser(game.getId(), host, deltas.get(host));
+        if (guest != null) {
+            gameWebSocketHandler.sendToUser(game.getId(), guest, deltas.get(guest));
+        }
+        if (spectated) {
+            gameWebSocketHandler.broadcastToSpectators(game.getId(), deltas.get(RecentGameEvents.SPECTATORS));
+        }
+    }
+
+    private static GameSocketMessage stateDelta(GameEvent.StateChanged e,
+                                                BoardModel ownBefore, BoardModel ownAfter,
+                                                BoardModel enemyBefore, BoardModel enemyAfter) {
+        return stateDelta(e, ownBefore, ownAfter, enemyBefore, enemyAfter, true);
+    }
+
+    private static GameSocketMessage stateDelta(GameEvent.StateChanged e,
+                                                BoardModel ownBefore, BoardModel ownAfter,
+                                                BoardModel enemyBefore, BoardModel enemyAfter,
+                                                boolean showOwnShips) {
+        Game game = e.game();
+        int[][] ownView = ownAfter.toIntArray(showOwnShips);
+        int[][] enemyView = enemyAfter.toIntArray(false);
+        return new GameSocketMessage.GameStateDelta(
+                game.getId(), e.after().stateSeq(), e.before().stateSeq(),
+                game.getCurrentTurn() != null ? game.getCurrentTurn().name() : null,
+                game.getStatus() == Game.GameStatus.FINISHED,
+                game.getResult() != null ? game.getResult().name() : null,
+                e.hit(), e.sunk(), e.already(),
+                BoardModel.changedCells(ownBefore.toIntArray(showOwnShips), ownView),
+                BoardModel.changedCells(enemyBefore.toIntArray(false), enemyView),
+                BoardModel.checksum(ownView, enemyView));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.seabattle.server.service;
 
-import com.seabattle.server.config.GameWebSocketHandler;
 import com.seabattle.server.dto.AttackResult;
 import com.seabattle.server.dto.AutoPlaceResponse;
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.dto.PlaceShipsRequest;
 import com.seabattle.server.dto.ShipDTO;
 import com.seabattle.server.dto.ShotResultDto;
 import com.seabattle.server.engine.BoardModel;
 import com.seabattle.server.engine.BotAiService;
+import com.seabattle.server.engine.GameReplay;
 import com.seabattle.server.entity.*;
 import com.seabattle.server.repository.*;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +25,8 @@ import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -35,10 +41,16 @@ public class GameService {
     private final GameHistoryRepository historyRepo;
     private final UserRepository userRepo;
     private final BotAiService botAi;
-    private final GameWebSocketHandler gameWebSocketHandler;
+    private final ApplicationEventPublisher events;
+    private final GameArchiveService gameArchiveService;
+    private final ActiveGameRegistry activeGames;
+    private final GameTimeoutService gameTimeouts;
+    private final DrainGate drainGate;
 
     @Transactional
-    public Game createBotGame(User host) throws Exception {
+    public Game createBotGame(UUID hostId) {
+        drainGate.checkOpen();
+        User host = userRepo.getReferenceById(hostId);
         Game g = Game.builder()
                 .type(Game.GameType.BOT)
                 .host(host)
@@ -66,7 +78,8 @@ public class GameService {
     }
 
     @Transactional
-    public AutoPlaceResponse placeShipsAuto(UUID gameId, UUID playerId) throws Exception {
+    public AutoPlaceResponse placeShipsAuto(UUID gameId, UUID playerId) {
+        activeGames.evict(gameId);
         Game g = gameRepo.findById(gameId).orElseThrow();
         Board board = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, playerId)
                 .orElseGet(() -> {
@@ -100,7 +113,8 @@ public class GameService {
 
 
     @Transactional
-    public void placeShipsManual(UUID gameId, UUID playerId, String cellsJson) throws Exception {
+    public void placeShipsManual(UUID gameId, UUID playerId, String cellsJson) {
+        activeGames.evict(gameId);
         Board board = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, playerId).orElseThrow();
         BoardModel bm = BoardModel.fromJson(cellsJson);
         board.setCells(bm.toJson());
@@ -119,7 +133,8 @@ public class GameService {
      * Returns ShotResultDto with details.
      */
     @Transactional
-    public ShotResultDto playerShot(UUID gameId, UUID playerId, int x, int y) throws Exception {
+    public ShotResultDto playerShot(UUID gameId, UUID playerId, int x, int y) {
+        activeGames.evict(gameId);
         Game game = gameRepo.findById(gameId).orElseThrow();
         if (game.getType() != Game.GameType.BOT || !game.isBot()) {
             throw new IllegalStateException("Not a bot game");
@@ -231,6 +246,7 @@ public class GameService {
 
     @Transactional
     public void surrender(UUID gameId, UUID playerId) {
+        activeGames.evict(gameId);
         Game game = gameRepo.findById(gameId).orElseThrow();
         if (game.getType() != Game.GameType.BOT) throw new IllegalStateException("Not a bot game");
         var player = userRepo.findById(playerId).orElseThrow();
@@ -243,9 +259,12 @@ public class GameService {
         persistHistoryAndStats(game, player, null, "LOSS", -5);
     }
 
-    public void surrenderOnline(UUID gameId, User player) {
+    @Transactional
+    public void surrenderOnline(UUID gameId, UUID userId) {
+        activeGames.evict(gameId);
         Game game = gameRepo.findById(gameId).orElseThrow();
         if (game.getType() != Game.GameType.ONLINE) throw new IllegalStateException("Not an online game");
+        User player = getParticipant(game, userId);
 
         game.setStatus(Game.GameStatus.FINISHED);
 
@@ -253,6 +272,7 @@ public class GameService {
         game.setResult(isHostSurrendering ? Game.GameResult.GUEST_WIN : Game.GameResult.HOST_WIN);
         game.setFinishedAt(OffsetDateTime.now());
         gameRepo.save(game);
+        gameTimeouts.gameFinished(gameId);
 
         User winner = isHostSurrendering ? game.getGuest() : game.getHost();
         persistHistoryAndStats(game, winner, player, "WIN", +5);
@@ -261,23 +281,14 @@ public class GameService {
         try {
             Board hostBoard = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, game.getHost().getId())
                     .orElseThrow(() -> new EntityNotFoundException("Host board not found"));
-            BoardModel hostModel = BoardModel.fromJson(hostBoard.getCells());
-
-            Board guestBoard = null;
-            BoardModel guestModel = null;
-            if (game.getGuest() != null) {
-                guestBoard = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, game.getGuest().getId())
-                        .orElse(null);
-                if (guestBoard != null) {
-                    guestModel = BoardModel.fromJson(guestBoard.getCells());
-                }
+            Board guestBoard = game.getGuest() != null
+                    ? boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, game.getGuest().getId()).orElse(null)
+                    : null;
+            if (guestBoard != null) {
+                // Boards are unchanged: an empty delta that carries the final result
+                ActiveGame state = new ActiveGame(game, boardState(hostBoard), boardState(guestBoard));
+                events.publishEvent(new GameEvent.StateChanged(game, state, state, false, false, false));
             }
-
-            AttackResult finalResult = new AttackResult();
-            finalResult.setGameFinished(true);
-            finalResult.setWinner(game.getResult() != null ? game.getResult().name() : null);
-            finalResult.setCurrentTurn(game.getCurrentTurn() != null ? game.getCurrentTurn().name() : null);
-            broadcastGameStateUpdate(gameId, finalResult, winner != null ? winner : player);
         } catch (Exception e) {
             log.error("Error sending final game state", e);
         }
@@ -285,11 +296,35 @@ public class GameService {
         broadcastGameFinished(gameId, game);
     }
 
-    private void persistHistoryAndStats(Game game, User player, User opponent, String result, int delta) {
+    /**
+     * The player on turn forfeits because the turn or game clock ran out. Both players are told
+     * why, then the game ends through {@link #surrenderOnline}.
+     *
+     * @return false when the game is no longer running
+     */
+    @Transactional
+    public boolean forfeitOnTimeout(UUID gameId, GameTimeoutService.Reason reason) {
+        Game game = gameRepo.findById(gameId).orElse(null);
+        if (game == null || game.getType() != Game.GameType.ONLINE || game.isBot()
+                || game.getStatus() != Game.GameStatus.IN_PROGRESS
+                || game.getGuest() == null || game.getCurrentTurn() == null) {
+            return false;
+        }
+        User loser = game.getCurrentTurn() == Game.Turn.HOST ? game.getHost() : game.getGuest();
+
+        events.publishEvent(new GameEvent.TimedOut(gameId, reason, game.getCurrentTurn().name()));
+
+        surrenderOnline(gameId, loser.getId());
+        return true;
+    }
+
+    /** Users are re-read in the current transaction: callers may pass detached copies from the registry. */
+    private void persistHistoryAndStats(Game game, User participant, User opponent, String result, int delta) {
+        User player = userRepo.findById(participant.getId()).orElseThrow();
         GameHistory gh = GameHistory.builder()
-                .game(game)
+                .game(gameRepo.getReferenceById(game.getId()))
                 .player(player)
-                .opponent(opponent)
+                .opponent(opponent != null ? userRepo.getReferenceById(opponent.getId()) : null)
                 .result(result)
                 .deltaRating(delta)
                 .build();
@@ -309,71 +344,253 @@ public class GameService {
         userRepo.save(player);
     }
 
+    /** Player's own board (ships revealed); an empty board row is created on first access. */
+    @Transactional
+    public List<List<Integer>> getBoard(UUID gameId, UUID userId) {
+        Game game = getGame(gameId);
+        User player = getParticipant(game, userId);
+
+        Optional<Board> existing = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, player.getId());
+        BoardModel model;
+        GameReplay replay = existing.isEmpty() && game.getStatus() == Game.GameStatus.FINISHED
+                ? gameArchiveService.findReplay(gameId).orElse(null)
+                : null;
+        if (replay != null) {
+            model = game.getHost().equals(player) ? replay.hostBoard() : replay.opponentBoard();
+        } else {
+            Board board = existing.orElse(Board.builder()
+                    .game(game)
+                    .player(player)
+                    .cells(new BoardModel().toJson())
+                    .build());
+
+            boardRepo.save(board);
+            model = BoardModel.fromJson(board.getCells());
+        }
+        return convertToLists(model.toIntArray(true));
+    }
+
+    /** Both boards from the player's perspective plus turn/result info for the game screen. */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBoards(UUID gameId, UUID userId) {
+        ActiveGame cached = activeGames.peek(gameId).orElse(null);
+        User participant = cached != null ? cached.participant(userId) : null;
+        if (participant != null) {
+            boolean isHost = cached.isHost(participant);
+            return boardsView(cached.game(), isHost,
+                    isHost ? cached.hostBoard().model() : cached.opponentBoard().model(),
+                    isHost ? cached.opponentBoard().model() : cached.hostBoard().model(),
+                    cached.stateSeq());
+        }
+
+        Game game = getGame(gameId);
+        User player = getParticipant(game, userId);
+
+        boolean isBotGame = game.isBot();
+        boolean isHost = game.getHost().equals(player);
+
+        BoardModel playerModel;
+        BoardModel enemyModel;
+        Long seq = null;
+        GameReplay replay = game.getStatus() == Game.GameStatus.FINISHED
+                ? gameArchiveService.findReplay(gameId).orElse(null)
+                : null;
+        if (replay != null) {
+            playerModel = isHost ? replay.hostBoard() : replay.opponentBoard();
+            enemyModel = isHost ? replay.opponentBoard() : replay.hostBoard();
+        } else {
+            Board playerBoard = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, player.getId()).orElse(null);
+            playerModel = playerBoard != null ? BoardModel.fromJson(playerBoard.getCells()) : new BoardModel();
+
+            Board enemyBoard;
+            if (isBotGame) {
+                enemyBoard = boardRepo.findByGameIdAndPlayerIsNull(gameId)
+                        .orElseThrow(() -> new EntityNotFoundException("Бот ещё не создан"));
+            } else {
+                enemyBoard = boardRepo.findByGameIdAndPlayerIdNot(gameId, player.getId())
+                        .orElseThrow(() -> new EntityNotFoundException("Противник ещё не подключился"));
+            }
+            enemyModel = BoardModel.fromJson(enemyBoard.getCells());
+            if (playerBoard != null) {
+                seq = version(playerBoard) + version(enemyBoard);
+            }
+        }
+        return boardsView(game, isHost, playerModel, enemyModel, seq);
+    }
+
+    private Map<String, Object> boardsView(Game game, boolean isHost, BoardModel playerModel, BoardModel enemyModel,
+                                           Long seq) {
+        boolean isBotGame = game.isBot();
+        String opponentName;
+        String opponentAvatar;
+        if (isBotGame) {
+            opponentName = "Bot";
+            opponentAvatar = null; // frontend falls back to bundled assets/default_avatar.png
+        } else {
+            User opponent = isHost ? game.getGuest() : game.getHost();
+            opponentName = opponent != null ? opponent.getUsername() : "Waiting for opponent...";
+            opponentAvatar = (opponent != null) ? opponent.getAvatar() : null;
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("playerBoard", convertToLists(playerModel.toIntArray(true)));
+        response.put("enemyBoard", convertToLists(enemyModel.toIntArray(false)));
+        response.put("gameFinished", game.getStatus() == Game.GameStatus.FINISHED);
+        response.put("winner", game.getResult() != null ? game.getResult().name() : "NONE");
+        response.put("currentTurn", game.getStatus() == Game.GameStatus.IN_PROGRESS && game.getCurrentTurn() != null ? game.getCurrentTurn().name() : "NONE");
+        response.put("opponentName", opponentName);
+        response.put("opponentAvatar", opponentAvatar);
+        response.put("isBotGame", isBotGame);
+        response.put("isHost", isHost);
+        if (seq != null) {
+            // Base for WebSocket deltas; absent for archived games, which get no more updates
+            response.put("seq", seq);
+        }
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Game> getUnfinishedBotGames(UUID userId) {
+        return gameRepo.findByHostIdAndTypeAndStatus(userId, Game.GameType.BOT, Game.GameStatus.IN_PROGRESS);
+    }
+
+    @Transactional(readOnly = true)
     public Game getGameById(UUID id){
-        return gameRepo.getReferenceById(id);
+        return getGame(id);
     }
 
 
+    /**
+     * Marks the player as ready. The game starts when both players are ready
+     * (for a bot game the host is enough).
+     */
     @Transactional
-    public AttackResult attack(UUID gameId, String username, int x, int y) {
-        User player = getPlayer(username);
+    public Game markReady(UUID gameId, UUID userId) {
+        activeGames.evict(gameId);
         Game game = getGame(gameId);
+        boolean isHost = getParticipant(game, userId) == game.getHost();
+
+        if (isHost) {
+            game.setHostReady(true);
+        } else {
+            game.setGuestReady(true);
+        }
+
+        // В игре с ботом достаточно готовности хоста
+        boolean bothReady = game.isHostReady() && game.isGuestReady();
+        boolean botGameReady = game.isBot() && isHost && game.isHostReady();
+        if (bothReady || botGameReady) {
+            game.setStatus(Game.GameStatus.IN_PROGRESS);
+            game.setStartedAt(OffsetDateTime.now());
+            game.setCurrentTurn(Game.Turn.HOST);
+        }
+
+        gameRepo.save(game);
+        if (game.getStatus() == Game.GameStatus.IN_PROGRESS && game.getType() == Game.GameType.ONLINE && !game.isBot()) {
+            gameTimeouts.turnStarted(gameId);
+        }
+
+        if (game.getType() == Game.GameType.ONLINE && !game.isBot()) {
+            boolean started = game.getStatus() == Game.GameStatus.IN_PROGRESS;
+            events.publishEvent(new GameEvent.PlayerReady(
+                    gameId,
+                    isHost,
+                    game.isHostReady(),
+                    game.isGuestReady(),
+                    started,
+                    started && game.getCurrentTurn() != null ? game.getCurrentTurn().name() : null));
+        }
+        return game;
+    }
+
+    /** Saves a manual placement from the setup screen (online and bot games). */
+    @Transactional
+    public void placeShipsOnline(UUID gameId, UUID userId, PlaceShipsRequest request) {
+        activeGames.evict(gameId);
+        Game game = getGame(gameId);
+        User player = getParticipant(game, userId);
+
+        BoardModel boardModel = new BoardModel();
+
+        int[][] cells = request.getCells();
+        if (cells != null) {
+            for (int i = 0; i < cells.length; i++) {
+                for (int j = 0; j < cells[i].length; j++) {
+                    if (cells[i][j] == 1) {
+                        boardModel.getCells()[i][j].setState(BoardModel.CellState.SHIP);
+                    }
+                }
+            }
+        }
+
+        if (request.getShips() != null) {
+            for (ShipDTO ship : request.getShips()) {
+                BoardModel.Ship s = new BoardModel.Ship();
+                s.setId(ship.getId());
+                s.setLength(ship.getLength());
+                s.setSunk(ship.isSunk());
+                s.setCells(ship.getCells());
+                boardModel.getShips().add(s);
+
+                for (BoardModel.Coord c : ship.getCells()) {
+                    BoardModel.Cell cell = boardModel.getCells()[c.getX()][c.getY()];
+                    cell.setState(BoardModel.CellState.SHIP);
+                    cell.setShipId(ship.getId());
+                }
+            }
+        }
+
+        Board board = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(game.getId(), player.getId())
+                .orElse(Board.builder().game(game).player(player).build());
+
+        board.setCells(boardModel.toJson());
+        boardRepo.save(board);
+    }
+
+    @Transactional
+    public AttackResult attack(UUID gameId, UUID userId, int x, int y) {
+        ActiveGame active = activeGame(gameId);
+        Game game = active.game().toBuilder().build();
+        User player = active.participant(userId);
+        if (player == null) {
+            throw new IllegalStateException("Вы не участвуете в этой игре");
+        }
         validateTurn(game, player);
 
-        Board enemyBoard = getEnemyBoard(game, player);
-        BoardModel enemyModel = BoardModel.fromJson(enemyBoard.getCells());
+        boolean isHost = active.isHost(player);
+        ActiveGame.BoardState ownState = isHost ? active.hostBoard() : active.opponentBoard();
+        ActiveGame.BoardState enemyState = isHost ? active.opponentBoard() : active.hostBoard();
 
+        BoardModel enemyModel = enemyState.model().copy();
         BoardModel.ShotOutcome playerOutcome = enemyModel.shoot(x, y);
-        enemyBoard.setCells(enemyModel.toJson());
-        boardRepo.save(enemyBoard);
 
         if (playerOutcome.already) {
-            AttackResult result = buildAttackResult(
-                    BoardModel.fromJson(boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, player.getId()).get().getCells()),
-                    enemyModel,
-                    playerOutcome,
-                    null, game
-            );
-            
+            AttackResult result = buildAttackResult(ownState.model(), enemyModel, playerOutcome, null, game);
+            activeGames.publish(active);
             if (game.getType() == Game.GameType.ONLINE && !game.isBot()) {
-                broadcastGameStateUpdate(gameId, result, player);
+                events.publishEvent(new GameEvent.StateChanged(game, active, active, false, false, true));
             }
             return result;
         }
 
+        enemyState = saveBoard(gameId, enemyState, enemyModel);
+        recordMove(gameId, player.getId(), x, y, playerOutcome.hit);
+
+        BotMove lastBotMove = null;
+
         if (enemyModel.allShipsSunk()) {
             game.setStatus(Game.GameStatus.FINISHED);
             game.setFinishedAt(OffsetDateTime.now());
+            game.setResult(isHost ? Game.GameResult.HOST_WIN : Game.GameResult.GUEST_WIN);
 
-            boolean isHostWinner = game.getHost().equals(player);
-            game.setResult(isHostWinner ? Game.GameResult.HOST_WIN : Game.GameResult.GUEST_WIN);
-            gameRepo.save(game);
-
-            User opponent = isHostWinner ? game.getGuest() : game.getHost();
+            User opponent = isHost ? game.getGuest() : game.getHost();
             persistHistoryAndStats(game, player, opponent, "WIN", +10);
             // У бота нет User, поэтому статистику проигравшего пишем только для онлайн-игры
             if (opponent != null) {
                 persistHistoryAndStats(game, opponent, player, "LOSS", -10);
             }
-
-            AttackResult result = buildAttackResult(
-                    BoardModel.fromJson(boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, player.getId()).get().getCells()),
-                    enemyModel,
-                    playerOutcome,
-                    null, game
-            );
-            if (game.getType() == Game.GameType.ONLINE && !game.isBot()) {
-                broadcastGameStateUpdate(gameId, result, player);
-            }
-            return result;
-        }
-
-        BotMove lastBotMove = null;
-
-        if (game.isBot() && (!playerOutcome.hit)) {
-            Board playerBoard = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(game.getId(), player.getId())
-                    .orElseThrow(() -> new EntityNotFoundException("Доска игрока не найдена"));
-            BoardModel playerModel = BoardModel.fromJson(playerBoard.getCells());
+        } else if (game.isBot() && (!playerOutcome.hit)) {
+            BoardModel playerModel = ownState.model().copy();
 
             BotAiService.BotMove botMove = botAi.nextMove(playerModel);
             BoardModel.ShotOutcome botOutcome = playerModel.shoot(botMove.x(), botMove.y());
@@ -381,6 +598,10 @@ public class GameService {
             log.debug("Bot shoots at ({}, {}), hit: {}, sunk: {}", botMove.x(), botMove.y(), botOutcome.hit, botOutcome.sunk);
 
             lastBotMove = new BotMove(botMove.x(), botMove.y(), botOutcome.hit, botOutcome.sunk);
+            if (!botOutcome.already) {
+                recordMove(gameId, null, botMove.x(), botMove.y(), botOutcome.hit);
+                ownState = saveBoard(gameId, ownState, playerModel);
+            }
 
             if (playerModel.allShipsSunk()) {
                 game.setStatus(Game.GameStatus.FINISHED);
@@ -393,31 +614,125 @@ public class GameService {
                 // Бот сохраняет ход при попадании (даже при потоплении)
                 game.setCurrentTurn(Game.Turn.GUEST);
             }
-
-            playerBoard.setCells(playerModel.toJson());
-            boardRepo.save(playerBoard);
         } else if (!playerOutcome.hit) {
             switchTurn(game);
         }
 
-        gameRepo.save(game);
+        saveGame(active.game(), game);
 
-        Board playerBoardEntity = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, player.getId())
-                .orElseThrow(() -> new EntityNotFoundException("Доска игрока не найдена"));
-        BoardModel playerModel = BoardModel.fromJson(playerBoardEntity.getCells());
+        ActiveGame.BoardState hostState = isHost ? ownState : enemyState;
+        ActiveGame.BoardState opponentState = isHost ? enemyState : ownState;
+        ActiveGame updated = new ActiveGame(game, hostState, opponentState);
+        activeGames.publish(updated);
+        if (game.getType() == Game.GameType.ONLINE && !game.isBot()) {
+            if (game.getStatus() == Game.GameStatus.FINISHED) {
+                gameTimeouts.gameFinished(gameId);
+            } else {
+                gameTimeouts.turnStarted(gameId);
+            }
+        }
 
-        AttackResult result = buildAttackResult(playerModel, enemyModel, playerOutcome, lastBotMove, game);
+        AttackResult result = buildAttackResult(ownState.model(), enemyModel, playerOutcome, lastBotMove, game);
 
         if (game.getType() == Game.GameType.ONLINE && !game.isBot()) {
-            broadcastGameStateUpdate(gameId, result, player);
+            events.publishEvent(new GameEvent.StateChanged(game, active, updated,
+                    playerOutcome.hit, playerOutcome.sunk, false));
         }
 
         return result;
     }
 
-    private User getPlayer(String username) {
-        return userRepo.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+    /** Appends a shot to the move log (player null = bot); the log is what finished-game replays are built from. */
+    private void recordMove(UUID gameId, UUID playerId, int x, int y, boolean hit) {
+        moveRepo.save(Move.builder()
+                .game(gameRepo.getReferenceById(gameId))
+                .player(playerId != null ? userRepo.getReferenceById(playerId) : null)
+                .x((short) x)
+                .y((short) y)
+                .hit(hit)
+                .build());
+    }
+
+    /** State of a game command's game: from the registry, or rehydrated from games/boards rows. */
+    private ActiveGame activeGame(UUID gameId) {
+        return activeGames.load(gameId, () -> loadActiveGame(gameId, true));
+    }
+
+    /**
+     * State of a game for a reader outside its lane: the cached entry, or the games/boards rows
+     * read without being cached and without creating a missing bot board.
+     */
+    private ActiveGame readActiveGame(UUID gameId) {
+        return activeGames.peek(gameId).orElseGet(() -> loadActiveGame(gameId, false));
+    }
+
+    private ActiveGame loadActiveGame(UUID gameId, boolean createBotBoard) {
+        Game game = getGame(gameId);
+        List<Board> boards = boardRepo.findByGameIdOrderByIdAsc(gameId);
+        UUID hostId = game.getHost().getId();
+        UUID guestId = game.getGuest() != null ? game.getGuest().getId() : null;
+
+        Board hostBoard = boards.stream()
+                .filter(b -> b.getPlayer() != null && b.getPlayer().getId().equals(hostId))
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Доска игрока не найдена"));
+        Board opponentBoard = game.isBot()
+                ? boards.stream().filter(b -> b.getPlayer() == null).findFirst()
+                        .orElseGet(() -> {
+                            if (!createBotBoard) throw new EntityNotFoundException("Бот ещё не создан");
+                            return getEnemyBoard(game, game.getHost());
+                        })
+                : boards.stream().filter(b -> b.getPlayer() != null && b.getPlayer().getId().equals(guestId)).findFirst()
+                        .orElseThrow(() -> new EntityNotFoundException("Противник ещё не подключился"));
+
+        return new ActiveGame(game.toBuilder().build(), boardState(hostBoard), boardState(opponentBoard));
+    }
+
+    private static ActiveGame.BoardState boardState(Board board) {
+        return new ActiveGame.BoardState(
+                board.getId(),
+                version(board),
+                BoardModel.fromJson(board.getCells()));
+    }
+
+    private static long version(Board board) {
+        return board.getVersion() != null ? board.getVersion() : 0;
+    }
+
+    /**
+     * Writes the board without reading it back; a version mismatch means someone else changed it.
+     * The cached entry is dropped so that the retry rehydrates from the database.
+     */
+    private ActiveGame.BoardState saveBoard(UUID gameId, ActiveGame.BoardState state, BoardModel model) {
+        if (boardRepo.updateCells(state.boardId(), model.toJson(), state.version()) == 0) {
+            activeGames.evict(gameId);
+            throw new ObjectOptimisticLockingFailureException(Board.class, state.boardId());
+        }
+        return new ActiveGame.BoardState(state.boardId(), state.version() + 1, model);
+    }
+
+    /** Writes status/turn/result of the command's game copy when they differ from the cached state. */
+    private void saveGame(Game before, Game game) {
+        if (before.getStatus() == game.getStatus()
+                && before.getCurrentTurn() == game.getCurrentTurn()
+                && before.getResult() == game.getResult()
+                && Objects.equals(before.getFinishedAt(), game.getFinishedAt())) {
+            return;
+        }
+        long version = game.getVersion() != null ? game.getVersion() : 0;
+        if (gameRepo.updateState(game.getId(), version, game.getStatus(), game.getResult(),
+                game.getCurrentTurn(), game.getFinishedAt()) == 0) {
+            activeGames.evict(game.getId());
+            throw new ObjectOptimisticLockingFailureException(Game.class, game.getId());
+        }
+        game.setVersion(version + 1);
+    }
+
+    /** Host or guest of the game with this id; the user row itself is never loaded for it. */
+    private User getParticipant(Game game, UUID userId) {
+        if (game.getHost().getId().equals(userId)) return game.getHost();
+        if (game.getGuest() != null && game.getGuest().getId().equals(userId)) return game.getGuest();
+        throw new IllegalStateException("Вы не участвуете в этой игре");
     }
 
     private Game getGame(UUID gameId) {
@@ -454,26 +769,31 @@ public class GameService {
         game.setCurrentTurn(game.getCurrentTurn() == Game.Turn.HOST ? Game.Turn.GUEST : Game.Turn.HOST);
     }
 
+    @Transactional
     public AttackResult botMove(UUID gameId) {
-        Game game = getGame(gameId);
+        ActiveGame active = activeGame(gameId);
+        Game game = active.game().toBuilder().build();
         if (!game.isBot() || game.getCurrentTurn() != Game.Turn.GUEST) {
             throw new IllegalStateException("Not bot's turn");
         }
 
-        Board playerBoard = boardRepo.findByGameIdAndPlayerIdIsNotNull(gameId)
-                .orElseThrow(() -> new RuntimeException("Несколько досок с одинаковым id игры и без игрока"));
-        BoardModel playerModel = BoardModel.fromJson(playerBoard.getCells());
+        ActiveGame.BoardState playerState = active.hostBoard();
+        BoardModel playerModel = playerState.model().copy();
 
         BotAiService.BotMove botMove = botAi.nextMove(playerModel);
         BoardModel.ShotOutcome botOutcome = playerModel.shoot(botMove.x(), botMove.y());
 
         log.debug("Bot shoots at ({}, {}), hit: {}, sunk: {}", botMove.x(), botMove.y(), botOutcome.hit, botOutcome.sunk);
+        if (!botOutcome.already) {
+            recordMove(gameId, null, botMove.x(), botMove.y(), botOutcome.hit);
+            playerState = saveBoard(gameId, playerState, playerModel);
+        }
 
         if (playerModel.allShipsSunk()) {
             game.setStatus(Game.GameStatus.FINISHED);
             game.setResult(Game.GameResult.GUEST_WIN);
             game.setFinishedAt(OffsetDateTime.now());
-            persistHistoryAndStats(game, playerBoard.getPlayer(), null, "LOSS", -10);
+            persistHistoryAndStats(game, game.getHost(), null, "LOSS", -10);
         } else if (!botOutcome.hit) {
             game.setCurrentTurn(Game.Turn.HOST);
         } else {
@@ -481,16 +801,12 @@ public class GameService {
             game.setCurrentTurn(Game.Turn.GUEST);
         }
 
-        playerBoard.setCells(playerModel.toJson());
-        boardRepo.save(playerBoard);
-        gameRepo.save(game);
-
-        Board enemyBoard = boardRepo.findByGameIdAndPlayerIsNull(gameId).orElseThrow();
-        BoardModel enemyModel = BoardModel.fromJson(enemyBoard.getCells());
+        saveGame(active.game(), game);
+        activeGames.publish(new ActiveGame(game, playerState, active.opponentBoard()));
 
         BotMove gameServiceBotMove = new BotMove(botMove.x(), botMove.y(), botOutcome.hit, botOutcome.sunk);
 
-        return buildAttackResult(playerModel, enemyModel, null, gameServiceBotMove, game);
+        return buildAttackResult(playerModel, active.opponentBoard().model(), null, gameServiceBotMove, game);
     }
 
 
@@ -547,77 +863,52 @@ public class GameService {
         public boolean isSunk() { return sunk; }
     }
 
-    /**
-     * Broadcast game state update to all players in an online game via WebSocket
-     * AttackResult contains boards from attacker's perspective:
-     * - playerBoard: attacker's own board (no hit mark)
-     * - enemyBoard: defender's board (with hit mark if hit occurred)
-     * @param attacker The player who made the attack
-     */
-    private void broadcastGameStateUpdate(UUID gameId, AttackResult result, User attacker) {
-        try {
-            Game game = gameRepo.findById(gameId).orElse(null);
-            if (game == null || game.getType() != Game.GameType.ONLINE) {
-                return;
-            }
-
-            Map<String, Object> baseMessage = new HashMap<>();
-            baseMessage.put("type", "gameStateUpdate");
-            baseMessage.put("gameId", gameId.toString());
-            baseMessage.put("currentTurn", game.getCurrentTurn() != null ? game.getCurrentTurn().name() : null);
-            baseMessage.put("gameFinished", game.getStatus() == Game.GameStatus.FINISHED);
-            baseMessage.put("winner", game.getResult() != null ? game.getResult().name() : null);
-            baseMessage.put("hit", result.isHit());
-            baseMessage.put("sunk", result.isSunk());
-            baseMessage.put("already", result.isAlready());
-
-            Board hostBoard = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, game.getHost().getId())
-                    .orElseThrow(() -> new EntityNotFoundException("Host board not found"));
-            BoardModel hostModel = BoardModel.fromJson(hostBoard.getCells());
-
-            Board guestBoard = null;
-            BoardModel guestModel = null;
-            if (game.getGuest() != null) {
-                guestBoard = boardRepo.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, game.getGuest().getId())
-                        .orElse(null);
-                if (guestBoard != null) {
-                    guestModel = BoardModel.fromJson(guestBoard.getCells());
-                }
-            }
-
-            Map<String, Object> hostMessage = new HashMap<>(baseMessage);
-            hostMessage.put("playerBoard", convertToLists(hostModel.toIntArray(true)));
-            if (guestModel != null) {
-                hostMessage.put("enemyBoard", convertToLists(guestModel.toIntArray(false)));
-            }
+    /** Full state for a client that missed a delta or has none yet (WebSocket {@code resync}). */
+    @Transactional(readOnly = true)
+    public GameSocketMessage.GameSnapshot stateSnapshot(UUID gameId, UUID userId) {
+        ActiveGame active = readActiveGame(gameId);
+        User player = active.participant(userId);
+        if (player == null) {
+            throw new IllegalStateException("Вы не участвуете в этой игре");
+        }
+        boolean isHost = active.isHost(player);
+        Game game = active.game();
+        int[][] ownView = (isHost ? active.hostBoard() : active.opponentBoard()).model().toIntArray(true);
+        int[][] enemyView = (isHost ? active.opponentBoard() : active.hostBoard()).model().toIntArray(false);
+        return new GameSocketMessage.GameSnapshot(
+                gameId, active.stateSeq(),
+                game.getCurrentTurn() != null ? game.getCurrentTurn().name() : null,
+                game.getStatus() == Game.GameStatus.FINISHED,
+                game.getResult() != null ? game.getResult().name() : null,
+                ownView, enemyView, BoardModel.checksum(ownView, enemyView));
+    }
 
-            Map<String, Object> guestMessage = new HashMap<>(baseMessage);
-            if (guestModel != null) {
-                guestMessage.put("playerBoard", convertToLists(guestModel.toIntArray(true)));
-            }
-            guestMessage.put("enemyBoard", convertToLists(hostModel.toIntArray(false)));
+    /** Whether spectators may watch the game: only featured games are open to them. */
+    @Transactional(readOnly = true)
+    public boolean isSpectatable(UUID gameId) {
+        return gameRepo.findFeaturedById(gameId).orElse(false);
+    }
 
-            gameWebSocketHandler.sendToUser(gameId, game.getHost().getUsername(), hostMessage);
-            if (game.getGuest() != null) {
-                gameWebSocketHandler.sendToUser(gameId, game.getGuest().getUsername(), guestMessage);
-            }
-        } catch (Exception e) {
-            log.error("Error broadcasting game state update", e);
+    /** Fog-of-war state for spectators: the host's board, then the guest's, neither showing ships. */
+    @Transactional(readOnly = true)
+    public GameSocketMessage.GameSnapshot spectatorSnapshot(UUID gameId) {
+        ActiveGame active = readActiveGame(gameId);
+        Game game = active.game();
+        if (!game.isFeatured()) {
+            throw new IllegalStateException("Game is not open to spectators");
         }
+        int[][] hostView = active.hostBoard().model().toIntArray(false);
+        int[][] guestView = active.opponentBoard().model().toIntArray(false);
+        return new GameSocketMessage.GameSnapshot(
+                gameId, active.stateSeq(),
+                game.getCurrentTurn() != null ? game.getCurrentTurn().name() : null,
+                game.getStatus() == Game.GameStatus.FINISHED,
+                game.getResult() != null ? game.getResult().name() : null,
+                hostView, guestView, BoardModel.checksum(hostView, guestView));
     }
 
     private void broadcastGameFinished(UUID gameId, Game game) {
-        try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "gameFinished");
-            message.put("gameId", gameId.toString());
-            message.put("winner", game.getResult() != null ? game.getResult().name() : null);
-            message.put("gameFinished", true);
-
-            gameWebSocketHandler.broadcastToGame(gameId, message);
-        } catch (Exception e) {
-            log.error("Error broadcasting game finished", e);
-        }
+        events.publishEvent(new GameEvent.Finished(gameId, game.getResult() != null ? game.getResult().name() : null));
     }
 
     private List<List<Integer>> convertToLists(int[][] array) {
@@ -0,0 +1,164 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.util.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turn and game clocks of online games. Every running game has two timeouts on one shared
+ * {@link TimingWheel}: the turn timeout, re-armed after every shot, and the game timeout, armed
+ * when the first turn starts. When either runs out the player on turn forfeits through
+ * {@link GameService#forfeitOnTimeout}, queued on the game's lane like any other command.
+ * <p>
+ * Timers are (re-)armed and cancelled only after the command's transaction commits. An expiry
+ * that was overtaken by a shot on the lane sees a newer turn sequence and does nothing.
+ */
+@Service
+public class GameTimeoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameTimeoutService.class);
+
+    public enum Reason { TURN, GAME }
+
+    private final Map<UUID, Timers> timers = new ConcurrentHashMap<>();
+    private final TimingWheel wheel;
+    private final GameCommandDispatcher dispatcher;
+    private final ObjectProvider<GameService> gameService;
+    private final GameRepository gameRepo;
+    private final Counter turnExpired;
+    private final Counter gameExpired;
+
+    @Value("${app.game.timeouts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.game.timeouts.turn-seconds:60}")
+    private long turnSeconds;
+
+    @Value("${app.game.timeouts.game-minutes:45}")
+    private long gameMinutes;
+
+    public GameTimeoutService(GameCommandDispatcher dispatcher,
+                              ObjectProvider<GameService> gameService,
+                              GameRepository gameRepo,
+                              MeterRegistry meters,
+                              @Value("${app.game.timeouts.tick-ms:100}") long tickMs,
+                              @Value("${app.game.timeouts.wheel-size:1024}") int wheelSize) {
+        this.dispatcher = dispatcher;
+        this.gameService = gameService;
+        this.gameRepo = gameRepo;
+        this.wheel = new TimingWheel("game-timeouts", tickMs, TimeUnit.MILLISECONDS, wheelSize);
+        this.turnExpired = meters.counter("game.timeouts.expired", "reason", "turn");
+        this.gameExpired = meters.counter("game.timeouts.expired", "reason", "game");
+        Gauge.builder("game.timeouts.pending", wheel, TimingWheel::pending).register(meters);
+    }
+
+    /** Restarts the turn clock once the current transaction commits; the first call also starts the game clock. */
+    public void turnStarted(UUID gameId) {
+        if (!enabled) return;
+        afterCommit(() -> arm(gameId, OffsetDateTime.now()));
+    }
+
+    /** Drops both clocks once the current transaction commits. */
+    public void gameFinished(UUID gameId) {
+        afterCommit(() -> cancel(gameId));
+    }
+
+    /** Clocks do not survive a restart: running online games get a fresh turn and the rest of their game time. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void armRunningGames() {
+        if (!enabled) return;
+        var running = gameRepo.findStartedGames(Game.GameType.ONLINE, Game.GameStatus.IN_PROGRESS);
+        running.forEach(g -> arm(g.getId(), g.getStartedAt() != null ? g.getStartedAt() : OffsetDateTime.now()));
+        if (!running.isEmpty()) {
+            log.info("Armed turn timers for {} running games", running.size());
+        }
+    }
+
+    public int trackedGames() {
+        return timers.size();
+    }
+
+    private void arm(UUID gameId, OffsetDateTime startedAt) {
+        timers.compute(gameId, (id, t) -> {
+            if (t == null) {
+                Timers created = new Timers();
+                long left = Duration.between(OffsetDateTime.now(), startedAt.plusMinutes(gameMinutes)).toMillis();
+                created.game = wheel.schedule(() -> expired(id, created, Reason.GAME, 0),
+                        Math.max(0, left), TimeUnit.MILLISECONDS);
+                t = created;
+            }
+            Timers current = t;
+            long seq = ++current.turnSeq;
+            if (current.turn != null) current.turn.cancel();
+            current.turn = wheel.schedule(() -> expired(id, current, Reason.TURN, seq), turnSeconds, TimeUnit.SECONDS);
+            return current;
+        });
+    }
+
+    private void cancel(UUID gameId) {
+        Timers t = timers.remove(gameId);
+        if (t != null) {
+            if (t.turn != null) t.turn.cancel();
+            if (t.game != null) t.game.cancel();
+        }
+    }
+
+    /** Runs on the wheel thread: only hands the forfeit over to the game's lane. */
+    private void expired(UUID gameId, Timers owner, Reason reason, long turnSeq) {
+        dispatcher.submit(gameId, () -> {
+            if (timers.get(gameId) != owner || (reason == Reason.TURN && owner.turnSeq != turnSeq)) {
+                return;
+            }
+            if (gameService.getObject().forfeitOnTimeout(gameId, reason)) {
+                (reason == Reason.TURN ? turnExpired : gameExpired).increment();
+                log.info("Game {} forfeited on {} timeout", gameId, reason);
+            }
+            cancel(gameId);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wheel.close();
+    }
+
+    private static final class Timers {
+        volatile TimingWheel.Timeout turn;
+        volatile TimingWheel.Timeout game;
+        /** Incremented on every re-arm, guarded by the map's per-key compute. */
+        volatile long turnSeq;
+    }
+}
@@ -0,0 +1,172 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.repository.BoardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drain on shutdown, warm start on startup.
+ * <p>
+ * Stop runs before the web server's graceful shutdown: the {@link DrainGate} is closed, queued
+ * game commands are given time to commit (the registry is write-through, so committed means
+ * flushed), live games from {@link ActiveGameRegistry} and pending rematch offers are written to
+ * a snapshot file, and WebSocket clients are told to reconnect after a random delay.
+ * <p>
+ * At startup, before the web server starts and readiness is reported, a recent snapshot is
+ * memory-mapped and loaded back into the registry and {@link RematchService}, so that the first
+ * requests after a rolling restart are served from memory instead of all reloading from
+ * Postgres. Entries whose game or board rows changed since the snapshot, e.g. because another
+ * node served the game during a rolling restart, are dropped, so that readers peeking the
+ * registry never see stale boards. The file is deleted once read.
+ */
+@Component
+public class GracefulDrain implements SmartLifecycle, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(GracefulDrain.class);
+
+    private final DrainGate drainGate;
+    private final GameCommandDispatcher dispatcher;
+    private final ActiveGameRegistry activeGames;
+    private final RematchService rematchService;
+    private final GameWebSocketHandler gameWebSocketHandler;
+    private final BoardRepository boardRepository;
+
+    @Value("${app.drain.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${app.drain.snapshot.file:data/live-snapshot.bin}")
+    private Path snapshotFile;
+
+    @Value("${app.drain.snapshot.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @Value("${app.drain.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    @Value("${app.drain.reconnect-spread-ms:15000}")
+    private long reconnectSpreadMs;
+
+    private volatile boolean running;
+
+    public GracefulDrain(DrainGate drainGate, GameCommandDispatcher dispatcher, ActiveGameRegistry activeGames,
+                         RematchService rematchService, GameWebSocketHandler gameWebSocketHandler,
+                         BoardRepository boardRepository) {
+        this.drainGate = drainGate;
+        this.dispatcher = dispatcher;
+        this.activeGames = activeGames;
+        this.rematchService = rematchService;
+        this.gameWebSocketHandler = gameWebSocketHandler;
+        this.boardRepository = boardRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!snapshotEnabled || !Files.exists(snapshotFile)) return;
+        try {
+            LiveSnapshotCodec.Snapshot snapshot = LiveSnapshotCodec.read(snapshotFile);
+            Duration age = Duration.between(snapshot.createdAt(), Instant.now());
+            if (age.getSeconds() > maxAgeSeconds) {
+                log.info("Ignoring live-game snapshot from {} ({} s old)", snapshot.createdAt(), age.getSeconds());
+                return;
+            }
+            List<ActiveGame> current = unchangedSince(snapshot.games());
+            current.forEach(activeGames::restore);
+            rematchService.restore(snapshot.rematches());
+            log.info("Restored {} of {} live games and {} rematch offers from snapshot ({} s old)",
+                    current.size(), snapshot.games().size(), snapshot.rematches().size(), age.getSeconds());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable live-game snapshot {}: {}", snapshotFile, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(snapshotFile);
+            } catch (IOException e) {
+                log.warn("Could not delete live-game snapshot {}: {}", snapshotFile, e.getMessage());
+            }
+        }
+    }
+
+    /** Snapshot entries whose game and both board rows still have the versions they were saved with. */
+    private List<ActiveGame> unchangedSince(List<ActiveGame> games) {
+        if (games.isEmpty()) return games;
+        Map<UUID, Long> gameVersions = new HashMap<>();
+        Map<UUID, Long> boardVersions = new HashMap<>();
+        for (BoardRepository.RowVersions row : boardRepository.findRowVersions(games.stream().map(ActiveGame::id).toList())) {
+            gameVersions.put(row.getGameId(), versionOf(row.getGameVersion()));
+            boardVersions.put(row.getBoardId(), versionOf(row.getBoardVersion()));
+        }
+        return games.stream()
+                .filter(g -> Objects.equals(gameVersions.get(g.id()), versionOf(g.game().getVersion()))
+                        && Objects.equals(boardVersions.get(g.hostBoard().boardId()), g.hostBoard().version())
+                        && Objects.equals(boardVersions.get(g.opponentBoard().boardId()), g.opponentBoard().version()))
+                .toList();
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : 0;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        drainGate.close();
+        awaitLanes();
+        if (snapshotEnabled) {
+            writeSnapshot();
+        }
+        gameWebSocketHandler.announceRestart(reconnectSpreadMs);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void awaitLanes() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        while (dispatcher.activeLanes() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (dispatcher.activeLanes() > 0) {
+            log.warn("Drain timed out with {} games still running commands", dispatcher.activeLanes());
+        }
+    }
+
+    private void writeSnapshot() {
+        LiveSnapshotCodec.Snapshot snapshot = new LiveSnapshotCodec.Snapshot(
+                Instant.now(), activeGames.snapshot(), rematchService.pendingRequests());
+        try {
+            LiveSnapshotCodec.write(snapshotFile, snapshot);
+            log.info("Wrote snapshot of {} live games and {} rematch offers to {}",
+                    snapshot.games().size(), snapshot.rematches().size(), snapshotFile);
+        } catch (IOException e) {
+            log.error("Failed to write live-game snapshot {}", snapshotFile, e);
+        }
+    }
+}
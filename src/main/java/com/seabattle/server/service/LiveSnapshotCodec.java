@@ -0,0 +1,197 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.engine.GameReplay;
+import com.seabattle.server.engine.ReplayCodec;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.User;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * File format of the shutdown snapshot of live games and pending rematch offers.
+ * <pre>
+ * int     magic "SBLS", byte version (3), long created epoch millis
+ * int     games, per game:
+ *         game row: id, type, status, result, host, guest, bot, featured, room token, ready flags,
+ *                   turn, started/finished/created millis, version
+ *         board id + version for host and opponent, int length + both boards as a
+ *         {@link ReplayCodec} blob without shots
+ * int     rematches, per offer: game id, requester username
+ * </pre>
+ * Nullable values are preceded by a presence byte; users are stored as id, username and avatar,
+ * the fields the game views show.
+ * The file is written to a temporary name and moved into place, and read back memory-mapped.
+ */
+public final class LiveSnapshotCodec {
+
+    private static final int MAGIC = 0x53424C53;
+    private static final byte VERSION = 3;
+
+    public record Snapshot(Instant createdAt, List<ActiveGame> games, Map<UUID, String> rematches) { }
+
+    private LiveSnapshotCodec() {}
+
+    public static void write(Path file, Snapshot snapshot) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(snapshot.createdAt().toEpochMilli());
+            out.writeInt(snapshot.games().size());
+            for (ActiveGame game : snapshot.games()) {
+                writeGame(out, game);
+            }
+            out.writeInt(snapshot.rematches().size());
+            for (Map.Entry<UUID, String> e : snapshot.rematches().entrySet()) {
+                writeUuid(out, e.getKey());
+                writeString(out, e.getValue());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Snapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC) throw new IOException("Not a live-game snapshot: " + file);
+            int version = in.get();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+            Instant createdAt = Instant.ofEpochMilli(in.getLong());
+            int count = in.getInt();
+            List<ActiveGame> games = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                games.add(readGame(in));
+            }
+            int rematchCount = in.getInt();
+            Map<UUID, String> rematches = new LinkedHashMap<>();
+            for (int i = 0; i < rematchCount; i++) {
+                rematches.put(readUuid(in), readString(in));
+            }
+            return new Snapshot(createdAt, games, rematches);
+        }
+    }
+
+    private static void writeGame(DataOutputStream out, ActiveGame active) throws IOException {
+        Game g = active.game();
+        writeUuid(out, g.getId());
+        out.writeByte(g.getType().ordinal());
+        out.writeByte(g.getStatus().ordinal());
+        out.writeByte(g.getResult() != null ? g.getResult().ordinal() : -1);
+        writeUser(out, g.getHost());
+        out.writeBoolean(g.getGuest() != null);
+        if (g.getGuest() != null) writeUser(out, g.getGuest());
+        out.writeBoolean(g.isBot());
+        out.writeBoolean(g.isFeatured());
+        out.writeBoolean(g.getRoomToken() != null);
+        if (g.getRoomToken() != null) writeUuid(out, g.getRoomToken());
+        out.writeBoolean(g.isHostReady());
+        out.writeBoolean(g.isGuestReady());
+        out.writeByte(g.getCurrentTurn() != null ? g.getCurrentTurn().ordinal() : -1);
+        writeTime(out, g.getStartedAt());
+        writeTime(out, g.getFinishedAt());
+        writeTime(out, g.getCreatedAt());
+        out.writeLong(g.getVersion() != null ? g.getVersion() : 0);
+
+        writeUuid(out, active.hostBoard().boardId());
+        out.writeLong(active.hostBoard().version());
+        writeUuid(out, active.opponentBoard().boardId());
+        out.writeLong(active.opponentBoard().version());
+        byte[] boards = ReplayCodec.encode(active.hostBoard().model(), active.opponentBoard().model(), List.of());
+        out.writeInt(boards.length);
+        out.write(boards);
+    }
+
+    private static ActiveGame readGame(ByteBuffer in) {
+        Game.GameBuilder b = Game.builder().id(readUuid(in));
+        b.type(Game.GameType.values()[in.get()]);
+        b.status(Game.GameStatus.values()[in.get()]);
+        int result = in.get();
+        b.result(result >= 0 ? Game.GameResult.values()[result] : null);
+        b.host(readUser(in));
+        b.guest(in.get() != 0 ? readUser(in) : null);
+        b.isBot(in.get() != 0);
+        b.featured(in.get() != 0);
+        b.roomToken(in.get() != 0 ? readUuid(in) : null);
+        b.hostReady(in.get() != 0);
+        b.guestReady(in.get() != 0);
+        int turn = in.get();
+        b.currentTurn(turn >= 0 ? Game.Turn.values()[turn] : null);
+        b.startedAt(readTime(in));
+        b.finishedAt(readTime(in));
+        b.createdAt(readTime(in));
+        b.version(in.getLong());
+
+        UUID hostBoardId = readUuid(in);
+        long hostBoardVersion = in.getLong();
+        UUID opponentBoardId = readUuid(in);
+        long opponentBoardVersion = in.getLong();
+        byte[] boards = new byte[in.getInt()];
+        in.get(boards);
+        GameReplay replay = ReplayCodec.decode(boards);
+        return new ActiveGame(b.build(),
+                new ActiveGame.BoardState(hostBoardId, hostBoardVersion, replay.hostBoard()),
+                new ActiveGame.BoardState(opponentBoardId, opponentBoardVersion, replay.opponentBoard()));
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        writeUuid(out, user.getId());
+        writeString(out, user.getUsername());
+        out.writeBoolean(user.getAvatar() != null);
+        if (user.getAvatar() != null) writeString(out, user.getAvatar());
+    }
+
+    private static User readUser(ByteBuffer in) {
+        User.UserBuilder b = User.builder().id(readUuid(in)).username(readString(in));
+        return b.avatar(in.get() != 0 ? readString(in) : null).build();
+    }
+
+    private static void writeTime(DataOutputStream out, OffsetDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) out.writeLong(time.toInstant().toEpochMilli());
+    }
+
+    private static OffsetDateTime readTime(ByteBuffer in) {
+        return in.get() != 0 ? OffsetDateTime.ofInstant(Instant.ofEpochMilli(in.getLong()), ZoneOffset.UTC) : null;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,141 @@
+package com.seabattle.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets for login and registration attempts, one per client IP and one per username.
+ * An attempt takes a token from both (IP first), so one client cannot hammer many accounts and
+ * many clients cannot hammer one account. Refused attempts are answered with 429 before any
+ * password is hashed.
+ * <p>
+ * A bucket that has refilled to capacity is the same as no bucket; {@link #sweep} drops those,
+ * so memory follows the clients active in the last few minutes.
+ */
+@Component
+public class LoginRateLimiter {
+
+    /** No token left for this IP or username; reported as 429 with Retry-After. */
+    public static class ThrottledException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public ThrottledException(long retryAfterSeconds) {
+            super("Too many attempts, try again later");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private record Limit(int capacity, double tokensPerMilli) {
+        static Limit of(int capacity, double perMinute) {
+            return new Limit(capacity, perMinute / 60_000);
+        }
+    }
+
+    private final Map<String, Bucket> byIp = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> byUsername = new ConcurrentHashMap<>();
+    private final Limit ipLimit;
+    private final Limit usernameLimit;
+    private final Clock clock;
+    private final Counter ipThrottled;
+    private final Counter usernameThrottled;
+
+    @Autowired
+    public LoginRateLimiter(MeterRegistry meters,
+                            @Value("${app.auth.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${app.auth.rate-limit.ip.per-minute:10}") double ipPerMinute,
+                            @Value("${app.auth.rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${app.auth.rate-limit.username.per-minute:2}") double usernamePerMinute) {
+        this(meters, Clock.systemUTC(), ipCapacity, ipPerMinute, usernameCapacity, usernamePerMinute);
+    }
+
+    public LoginRateLimiter(MeterRegistry meters, Clock clock, int ipCapacity, double ipPerMinute,
+                            int usernameCapacity, double usernamePerMinute) {
+        this.clock = clock;
+        this.ipLimit = Limit.of(ipCapacity, ipPerMinute);
+        this.usernameLimit = Limit.of(usernameCapacity, usernamePerMinute);
+        this.ipThrottled = meters.counter("auth.login.throttled", "key", "ip");
+        this.usernameThrottled = meters.counter("auth.login.throttled", "key", "username");
+        Gauge.builder("auth.login.buckets", this, l -> l.byIp.size() + l.byUsername.size()).register(meters);
+    }
+
+    /** Takes a token for the attempt or throws {@link ThrottledException}. */
+    public void admit(String ip, String username) {
+        long now = clock.millis();
+        long waitMillis = take(byIp, ip, ipLimit, now);
+        if (waitMillis > 0) {
+            ipThrottled.increment();
+            throw new ThrottledException(toSeconds(waitMillis));
+        }
+        waitMillis = take(byUsername, username.toLowerCase(Locale.ROOT), usernameLimit, now);
+        if (waitMillis > 0) {
+            usernameThrottled.increment();
+            throw new ThrottledException(toSeconds(waitMillis));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.rate-limit.sweep-ms:60000}")
+    public void sweep() {
+        long now = clock.millis();
+        byIp.values().removeIf(b -> b.isFull(now, ipLimit));
+        byUsername.values().removeIf(b -> b.isFull(now, usernameLimit));
+    }
+
+    public int trackedKeys() {
+        return byIp.size() + byUsername.size();
+    }
+
+    private static long take(Map<String, Bucket> buckets, String key, Limit limit, long now) {
+        return buckets.computeIfAbsent(key, k -> new Bucket(limit.capacity(), now)).take(now, limit);
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static final class Bucket {
+        /** Guarded by this. */
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(int tokens, long now) {
+            this.tokens = tokens;
+            this.updatedAt = now;
+        }
+
+        /** Takes a token; returns 0 when one was taken, otherwise milliseconds until there is one. */
+        synchronized long take(long now, Limit limit) {
+            refill(now, limit);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / limit.tokensPerMilli());
+        }
+
+        synchronized boolean isFull(long now, Limit limit) {
+            refill(now, limit);
+            return tokens >= limit.capacity();
+        }
+
+        private void refill(long now, Limit limit) {
+            if (now > updatedAt) {
+                tokens = Math.min(limit.capacity(), tokens + (now - updatedAt) * limit.tokensPerMilli());
+                updatedAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.dto.MoveDto;
+import com.seabattle.server.engine.GameReplay;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.repository.MoveRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Move log of a game. Compacted games are decoded from their {@code game_archive} blob; otherwise
+ * live partitions are read, and for finished games rows that were already moved to archive
+ * segments by {@link PartitionArchiver} are merged in transparently.
+ */
+@Service
+@RequiredArgsConstructor
+public class MoveHistoryService {
+
+    private final GameRepository gameRepo;
+    private final MoveRepository moveRepo;
+    private final ArchiveSegmentStore archiveStore;
+    private final GameArchiveService gameArchiveService;
+
+    @Transactional(readOnly = true)
+    public List<MoveDto> getMoves(UUID gameId) {
+        Game game = gameRepo.findById(gameId)
+                .orElseThrow(() -> new EntityNotFoundException("Game not found"));
+
+        if (game.getStatus() == Game.GameStatus.FINISHED) {
+            Optional<GameReplay> replay = gameArchiveService.findReplay(gameId);
+            if (replay.isPresent()) {
+                return gameArchiveService.toMoves(game, replay.get());
+            }
+        }
+
+        List<MoveDto> live = moveRepo.findByGameIdOrderByIdAsc(gameId).stream()
+                .map(m -> new MoveDto(
+                        m.getId(),
+                        m.getPlayer() != null ? m.getPlayer().getId() : null,
+                        m.getX(),
+                        m.getY(),
+                        m.isHit(),
+                        m.getCreatedAt()))
+                .toList();
+        if (game.getStatus() != Game.GameStatus.FINISHED) {
+            return live;
+        }
+
+        List<MoveDto> archived = archiveStore.findMoves(gameId);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Map<Long, MoveDto> merged = new TreeMap<>();
+        archived.forEach(m -> merged.put(m.id(), m));
+        live.forEach(m -> merged.put(m.id(), m));
+        return new ArrayList<>(merged.values());
+    }
+}
@@ -0,0 +1,124 @@
+package com.seabattle.server.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintenance of the monthly partitions of {@code moves} and {@code game_history} (see V6 migration):
+ * creates partitions ahead of time and moves partitions older than the retention period
+ * into {@link ArchiveSegmentStore} files, then detaches and drops them.
+ * PostgreSQL only; disabled with {@code app.archive.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionArchiver.class);
+
+    private static final List<String> TABLES = List.of("moves", "game_history");
+    private static final Pattern PARTITION_NAME = Pattern.compile("^([a-z_]+)_p(\\d{6})$");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int PARTITIONS_AHEAD = 2;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ArchiveSegmentStore store;
+
+    @Value("${app.archive.retention-months:3}")
+    private int retentionMonths;
+
+    @Value("${app.archive.fetch-size:5000}")
+    private int fetchSize;
+
+    public PartitionArchiver(JdbcTemplate jdbc, PlatformTransactionManager transactionManager, ArchiveSegmentStore store) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.store = store;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void runMaintenance() {
+        ensureFuturePartitions();
+        archiveExpiredPartitions();
+    }
+
+    public void ensureFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        for (String table : TABLES) {
+            for (int i = 0; i <= PARTITIONS_AHEAD; i++) {
+                LocalDate monthStart = current.plusMonths(i).atDay(1);
+                jdbc.queryForObject("SELECT public.ensure_monthly_partition(?, ?)", String.class,
+                        table, Date.valueOf(monthStart));
+            }
+        }
+    }
+
+    public void archiveExpiredPartitions() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        for (String table : TABLES) {
+            for (String partition : listPartitions(table)) {
+                Matcher m = PARTITION_NAME.matcher(partition);
+                if (!m.matches() || !m.group(1).equals(table)) continue; // default partition and foreign names
+                YearMonth month = YearMonth.parse(m.group(2), PARTITION_MONTH);
+                if (!month.isBefore(oldestKept)) continue;
+                try {
+                    archivePartition(table, partition);
+                } catch (Exception e) {
+                    log.error("Failed to archive partition {}", partition, e);
+                }
+            }
+        }
+    }
+
+    private List<String> listPartitions(String table) {
+        return jdbc.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?
+                ORDER BY c.relname
+                """, String.class, table);
+    }
+
+    private void archivePartition(String table, String partition) {
+        // The name was matched against PARTITION_NAME, so it is safe to inline into SQL.
+        if (!store.exists(table, partition)) {
+            Long rows = tx.execute(status -> jdbc.query(con -> {
+                var ps = con.prepareStatement("SELECT * FROM public." + partition + " ORDER BY game_id, id");
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                try {
+                    return store.write(table, partition, rs);
+                } catch (java.io.IOException e) {
+                    throw new IllegalStateException("Cannot write archive segment for " + partition, e);
+                }
+            }));
+            log.info("Archived {} rows of partition {}", rows, partition);
+        } else {
+            log.info("Segment for partition {} already exists, dropping partition", partition);
+        }
+
+        tx.executeWithoutResult(status -> {
+            jdbc.execute("ALTER TABLE public." + table + " DETACH PARTITION public." + partition);
+            jdbc.execute("DROP TABLE public." + partition);
+        });
+        log.info("Dropped archived partition {}", partition);
+    }
+}
@@ -0,0 +1,104 @@
+package com.seabattle.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt on its own small pool instead of the request threads. A login burst (after an outage,
+ * or a credential-stuffing wave) then costs at most {@code threads} cores and holds at most
+ * threads + queue-size request threads waiting; further logins and registrations are refused
+ * right away with {@link SaturatedException} (429) and never reach the CPU. Game requests keep
+ * their threads and cores.
+ * <p>
+ * The pool stays on platform threads in virtual-thread mode too: hashing is pure CPU work, so
+ * more threads would only add contention.
+ */
+@Component
+public class PasswordHashing {
+
+    /** The hashing queue is full; reported as 429 with Retry-After. */
+    public static class SaturatedException extends RuntimeException {
+        public SaturatedException() {
+            super("Too many logins right now, try again in a few seconds");
+        }
+    }
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHashing(PasswordEncoder encoder,
+                           MeterRegistry meters,
+                           @Value("${app.auth.hashing.threads:2}") int threads,
+                           @Value("${app.auth.hashing.queue-size:32}") int queueSize) {
+        this.encoder = encoder;
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = meters.timer("auth.hashing.duration", "op", "encode");
+        this.matchTimer = meters.timer("auth.hashing.duration", "op", "matches");
+        this.queueWait = meters.timer("auth.hashing.queue.wait");
+        this.rejected = meters.counter("auth.hashing.rejected");
+        Gauge.builder("auth.hashing.queue.size", pool, p -> p.getQueue().size()).register(meters);
+        Gauge.builder("auth.hashing.active", pool, ThreadPoolExecutor::getActiveCount).register(meters);
+    }
+
+    public String encode(String rawPassword) {
+        return run(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return run(matchTimer, () -> encoder.matches(rawPassword, passwordHash));
+    }
+
+    private <T> T run(Timer timer, Supplier<T> hashing) {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hashing);
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SaturatedException();
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,138 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.dto.GameSocketMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The last WebSocket messages of each game, so that a client reconnecting with the sequence
+ * number it had ({@code lastSeq}) is sent only what it missed instead of a full snapshot.
+ * <p>
+ * {@link GameEventDispatcher} records every message on the game's event stripe <em>before</em>
+ * sending it, so anything a reconnecting session did not get live is already here; a message it
+ * gets both ways is a delta at or below its sequence, which the client ignores. Deltas are kept
+ * per recipient (each player's view, the spectators' view), other messages once for everyone.
+ * <p>
+ * A game's ring holds {@code size} messages and covers a contiguous range of sequence numbers.
+ * A request from before that range, or for a recipient whose delta was not recorded, is answered
+ * with {@link Optional#empty()} and the caller falls back to a snapshot.
+ */
+@Component
+public class RecentGameEvents {
+
+    /** Recipient key of the spectators' view. */
+    public static final String SPECTATORS = "";
+
+    private static final String EVERYONE = "*";
+
+    private final Map<UUID, Ring> rings = new ConcurrentHashMap<>();
+    private final Counter replayed;
+    private final Counter missed;
+
+    @Value("${app.game.replay.size:64}")
+    private int size = 64;
+
+    @Value("${app.game.replay.idle-minutes:15}")
+    private long idleMinutes = 15;
+
+    public RecentGameEvents(MeterRegistry meters) {
+        this.replayed = meters.counter("game.replay.requests", "result", "replayed");
+        this.missed = meters.counter("game.replay.requests", "result", "snapshot");
+        Gauge.builder("game.replay.games", rings, Map::size).register(meters);
+    }
+
+    /** A board update taking the game from baseSeq to seq; messages are keyed by recipient. */
+    public void recordDelta(UUID gameId, long baseSeq, long seq, Map<String, GameSocketMessage> messages) {
+        rings.computeIfAbsent(gameId, id -> new Ring()).addDelta(baseSeq, seq, messages, size);
+    }
+
+    /** A message every subscriber gets, at the game's current sequence. */
+    public void recordBroadcast(UUID gameId, GameSocketMessage message) {
+        Ring ring = rings.get(gameId);
+        if (ring != null) {
+            ring.addBroadcast(message, size);
+        }
+    }
+
+    /**
+     * Messages the recipient missed since it was at lastSeq, oldest first; empty when they are
+     * no longer (or were never) all here.
+     */
+    public Optional<List<GameSocketMessage>> since(UUID gameId, String recipient, long lastSeq) {
+        Ring ring = rings.get(gameId);
+        List<GameSocketMessage> messages = ring != null ? ring.since(recipient, lastSeq) : null;
+        (messages != null ? replayed : missed).increment();
+        return Optional.ofNullable(messages);
+    }
+
+    public void forget(UUID gameId) {
+        rings.remove(gameId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.game.replay.sweep-ms:60000}")
+    public void sweep() {
+        long idleBefore = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleMinutes);
+        rings.values().removeIf(r -> r.lastWriteNanos - idleBefore < 0);
+    }
+
+    private record Entry(long baseSeq, long seq, boolean delta, Map<String, GameSocketMessage> messages) { }
+
+    private static final class Ring {
+        /** Guarded by this. */
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        /** Lowest lastSeq that can be served; guarded by this. */
+        private long coveredFrom;
+        private long latestSeq;
+        volatile long lastWriteNanos = System.nanoTime();
+
+        synchronized void addDelta(long baseSeq, long seq, Map<String, GameSocketMessage> messages, int size) {
+            if (entries.isEmpty() || baseSeq != latestSeq) {
+                // Первая дельта или разрыв (состояние менялось без дельты) — начинаем заново
+                entries.clear();
+                coveredFrom = baseSeq;
+            }
+            add(new Entry(baseSeq, seq, true, messages), size);
+            latestSeq = seq;
+        }
+
+        synchronized void addBroadcast(GameSocketMessage message, int size) {
+            if (entries.isEmpty()) return;
+            add(new Entry(latestSeq, latestSeq, false, Map.of(EVERYONE, message)), size);
+        }
+
+        private void add(Entry entry, int size) {
+            entries.add(entry);
+            while (entries.size() > size) {
+                Entry dropped = entries.poll();
+                // Клиент на dropped.seq мог не получить широковещательное сообщение с тем же seq
+                coveredFrom = Math.max(coveredFrom, dropped.delta() ? dropped.seq() : dropped.seq() + 1);
+            }
+            lastWriteNanos = System.nanoTime();
+        }
+
+        synchronized List<GameSocketMessage> since(String recipient, long lastSeq) {
+            if (entries.isEmpty() || lastSeq < coveredFrom || lastSeq > latestSeq) return null;
+            List<GameSocketMessage> missed = new ArrayList<>();
+            for (Entry e : entries) {
+                if (e.delta() ? e.baseSeq() < lastSeq : e.seq() < lastSeq) continue;
+                GameSocketMessage m = e.messages().getOrDefault(recipient, e.messages().get(EVERYONE));
+                if (m == null) return null;
+                missed.add(m);
+            }
+            return missed;
+        }
+    }
+}
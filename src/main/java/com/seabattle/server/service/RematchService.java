@@ -15,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,6 +33,7 @@ public class RematchService {
     private final GameRepository gameRepository;
     private final BoardRepository boardRepository;
     private final UserRepository userRepository;
+    private final DrainGate drainGate;
 
     private final Map<UUID, RematchRequest> pendingByGameId = new ConcurrentHashMap<>();
 
@@ -83,6 +85,7 @@ public class RematchService {
      */
     @Transactional
     public UUID acceptRematch(UUID finishedGameId, String accepterUsername) {
+        drainGate.checkOpen();
         RematchRequest request = pendingByGameId.remove(finishedGameId);
         if (request == null) {
             log.warn("No rematch request for game {}", finishedGameId);
@@ -142,4 +145,16 @@ public class RematchService {
         return request != null ? request.getRequestedByUsername() : null;
     }
 
+    /** Pending offers as finished game id -> requester username, for the shutdown snapshot. */
+    public Map<UUID, String> pendingRequests() {
+        Map<UUID, String> pending = new HashMap<>();
+        pendingByGameId.forEach((gameId, request) -> pending.put(gameId, request.getRequestedByUsername()));
+        return pending;
+    }
+
+    /** Re-adds offers from the shutdown snapshot; newer offers made since startup win. */
+    public void restore(Map<UUID, String> pending) {
+        pending.forEach((gameId, username) -> pendingByGameId.putIfAbsent(gameId, new RematchRequest(username)));
+    }
+
 }
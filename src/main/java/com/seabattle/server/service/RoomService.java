@@ -0,0 +1,197 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.dto.RoomResponseDTO;
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Board;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.Room;
+import com.seabattle.server.repository.BoardRepository;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.repository.RoomRepository;
+import com.seabattle.server.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Lobby rooms: create, join, start and status polling. Validation failures are
+ * IllegalArgumentException (bad request), permission failures IllegalStateException.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoomService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomService.class);
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+    private final GameRepository gameRepository;
+    private final BoardRepository boardRepository;
+    private final DrainGate drainGate;
+
+    /** Result of joining a room; gameId is set when the host has already started the game. */
+    public record JoinResult(String hostUsername, UUID roomToken, UUID gameId) { }
+
+    /** Result of starting a room game; alreadyStarted when a game existed before the call. */
+    public record StartResult(UUID gameId, boolean alreadyStarted) { }
+
+    @Transactional
+    public Room createRoom(UUID userId) {
+        drainGate.checkOpen();
+        log.debug("createRoom called by user: {}", userId);
+
+        Room room = new Room();
+        room.setHost(userRepository.getReferenceById(userId));
+        room.setToken(UUID.randomUUID());
+        room.setStatus("WAITING");
+        room.setCreatedAt(OffsetDateTime.now());
+        room.setExpiresAt(OffsetDateTime.now().plusDays(1));
+
+        roomRepository.save(room);
+
+        log.info("Room created: token={}, host={}", room.getToken(), userId);
+        return room;
+    }
+
+    @Transactional
+    public JoinResult joinRoom(UUID token, UUID userId) {
+        Room room = roomRepository.findByToken(token);
+        if (room == null) {
+            throw new IllegalArgumentException("Room not found");
+        }
+
+        if ("EXPIRED".equals(room.getStatus()) || room.getExpiresAt().isBefore(OffsetDateTime.now())) {
+            throw new IllegalArgumentException("Room has expired");
+        }
+
+        if (room.getHost().getId().equals(userId)) {
+            throw new IllegalArgumentException("You cannot join your own room");
+        }
+
+        Game existingGame = gameRepository.findByRoomToken(token).stream().findFirst().orElse(null);
+        if (existingGame != null) {
+            return new JoinResult(room.getHost().getUsername(), room.getToken(), existingGame.getId());
+        }
+
+        room.setGuest(userRepository.getReferenceById(userId));
+        roomRepository.save(room);
+
+        // Player joined successfully (no WebSocket notification needed)
+        log.info("Player {} joined room {}", userId, room.getToken());
+
+        return new JoinResult(room.getHost().getUsername(), room.getToken(), null);
+    }
+
+    @Transactional
+    public StartResult startGame(UUID token, UUID userId) {
+        Room room = roomRepository.findByToken(token);
+        if (room == null) {
+            throw new IllegalArgumentException("Room not found");
+        }
+
+        if (!room.getHost().getId().equals(userId)) {
+            throw new IllegalStateException("Only room host can start the game");
+        }
+
+        if (room.getGuest() == null) {
+            throw new IllegalArgumentException("Cannot start game without opponent");
+        }
+
+        Game existingGame = gameRepository.findByRoomToken(token).stream().findFirst().orElse(null);
+        if (existingGame != null) {
+            return new StartResult(existingGame.getId(), true);
+        }
+        drainGate.checkOpen();
+
+        Game game = Game.builder()
+                .type(Game.GameType.ONLINE)
+                .host(room.getHost())
+                .guest(room.getGuest())
+                .status(Game.GameStatus.IN_PROGRESS)
+                .roomToken(token)
+                .startedAt(OffsetDateTime.now())
+                .build();
+
+        gameRepository.save(game);
+
+        Board hostBoard = Board.builder()
+                .game(game)
+                .player(room.getHost())
+                .cells(new BoardModel().toJson())
+                .build();
+
+        Board guestBoard = Board.builder()
+                .game(game)
+                .player(room.getGuest())
+                .cells(new BoardModel().toJson())
+                .build();
+
+        boardRepository.save(hostBoard);
+        boardRepository.save(guestBoard);
+
+        room.setStatus("IN_GAME");
+        roomRepository.save(room);
+
+        return new StartResult(game.getId(), false);
+    }
+
+    /** Room status for a participant; null when the room does not exist. */
+    @Transactional(readOnly = true)
+    public RoomResponseDTO getRoomStatus(UUID token, UUID userId) {
+        log.debug("getRoomStatus called by user {} for room token {}", userId, token);
+
+        Room room = roomRepository.findByToken(token);
+        if (room == null) {
+            log.debug("Room not found for token: {}", token);
+            return null;
+        }
+
+        log.debug("Room found: host={}, guest={}", room.getHost().getUsername(),
+                room.getGuest() != null ? room.getGuest().getUsername() : null);
+
+        boolean isHost = room.getHost().getId().equals(userId);
+        boolean isGuest = room.getGuest() != null && room.getGuest().getId().equals(userId);
+        if (!isHost && !isGuest) {
+            log.warn("Access denied: user {} is not a participant in room {}", userId, token);
+            throw new IllegalStateException("Not a participant of this room");
+        }
+
+        boolean isExpired = room.getExpiresAt().isBefore(OffsetDateTime.now());
+        String guestUsername = room.getGuest() != null ? room.getGuest().getUsername() : null;
+
+        Game game = gameRepository.findByRoomToken(token).stream().findFirst().orElse(null);
+        UUID gameId = game != null ? game.getId() : null;
+
+        return new RoomResponseDTO(
+                room.getToken(),
+                isExpired ? "EXPIRED" : room.getStatus(),
+                room.getHost().getUsername(),
+                guestUsername,
+                isHost,
+                room.getCreatedAt(),
+                room.getExpiresAt(),
+                isExpired,
+                gameId
+        );
+    }
+
+    @Transactional
+    public void deleteRoom(UUID token, UUID userId) {
+        Room room = roomRepository.findByToken(token);
+        if (room == null) {
+            throw new EntityNotFoundException("Room not found");
+        }
+
+        if (!room.getHost().getId().equals(userId)) {
+            throw new IllegalStateException("Only room host can delete the room");
+        }
+
+        roomRepository.delete(room);
+    }
+}
@@ -0,0 +1,20 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.entity.User;
+
+import java.util.UUID;
+
+/**
+ * A user's role or status changed, or the user was deleted; applied by {@link UserAccessRegistry}
+ * and the game WebSocket after commit.
+ */
+public record UserAccessChanged(UUID userId, User.Role role, User.Status status, boolean deleted) {
+
+    public static UserAccessChanged of(User user) {
+        return new UserAccessChanged(user.getId(), user.getRole(), user.getStatus(), false);
+    }
+
+    public static UserAccessChanged deleted(UUID userId) {
+        return new UserAccessChanged(userId, null, null, true);
+    }
+}
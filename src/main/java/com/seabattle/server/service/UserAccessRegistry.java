@@ -0,0 +1,123 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.RevokedUserRepository;
+import com.seabattle.server.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What a valid token may still do, so requests are authenticated from the JWT claims alone
+ * without loading the user. Only the exceptions are kept: blocked and deleted users, whose
+ * tokens are refused, and the current admins, without whom a token's ADMIN role claim is
+ * refused (a demoted admin has to log in again). A promoted user keeps a USER token until the
+ * next login.
+ * <p>
+ * Rebuilt from the database at startup, before the web server accepts requests, and updated by
+ * {@link UserAccessChanged} right after the admin change commits. The event only reaches the node
+ * that made the change, so every node also reloads the sets every {@code access-refresh-ms}: a
+ * change made on another node is honoured here within that interval. Deletes are recorded in
+ * {@code revoked_users} so a reload still refuses tokens issued before them.
+ */
+@Component
+public class UserAccessRegistry implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAccessRegistry.class);
+
+    private final UserRepository userRepository;
+    private final RevokedUserRepository revokedUserRepository;
+    private final long tokenLifetimeMs;
+    private volatile Set<UUID> blocked = ConcurrentHashMap.newKeySet();
+    private volatile Set<UUID> deleted = ConcurrentHashMap.newKeySet();
+    private volatile Set<UUID> admins = ConcurrentHashMap.newKeySet();
+    /** Bumped by every local change, so a reload that raced one is not swapped in over it. */
+    private long changes;
+
+    public UserAccessRegistry(UserRepository userRepository,
+                              RevokedUserRepository revokedUserRepository,
+                              @Value("${jwt.expiration-ms:86400000}") long tokenLifetimeMs) {
+        this.userRepository = userRepository;
+        this.revokedUserRepository = revokedUserRepository;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+        log.info("Loaded {} blocked users, {} deleted users and {} admins for token checks",
+                blocked.size(), deleted.size(), admins.size());
+    }
+
+    /** Picks up blocks, deletes and role changes made on other nodes. */
+    @Scheduled(fixedDelayString = "${app.auth.access-refresh-ms:30000}",
+            initialDelayString = "${app.auth.access-refresh-ms:30000}")
+    public void refresh() {
+        try {
+            if (!reload()) {
+                log.debug("Access reload raced a local change; keeping the current sets until the next one");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Access reload failed, keeping the current sets: {}", e.getMessage());
+        }
+    }
+
+    /** @return false when a local change arrived during the queries and the result was dropped */
+    private boolean reload() {
+        long before;
+        synchronized (this) {
+            before = changes;
+        }
+        Set<UUID> freshBlocked = ConcurrentHashMap.newKeySet();
+        Set<UUID> freshAdmins = ConcurrentHashMap.newKeySet();
+        Set<UUID> freshDeleted = ConcurrentHashMap.newKeySet();
+        freshBlocked.addAll(userRepository.findIdsByStatus(User.Status.BLOCKED));
+        freshAdmins.addAll(userRepository.findIdsByRole(User.Role.ADMIN));
+        // Older deletes can no longer have an unexpired token
+        freshDeleted.addAll(revokedUserRepository.findIdsRevokedSince(
+                OffsetDateTime.now().minusNanos(tokenLifetimeMs * 1_000_000L)));
+        synchronized (this) {
+            if (changes != before) return false;
+            blocked = freshBlocked;
+            admins = freshAdmins;
+            deleted = freshDeleted;
+            return true;
+        }
+    }
+
+    /** Whether a token of this user carrying this role claim is still honoured. */
+    public boolean allows(UUID userId, String role) {
+        if (userId == null || blocked.contains(userId) || deleted.contains(userId)) return false;
+        return !User.Role.ADMIN.name().equals(role) || admins.contains(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(UserAccessChanged change) {
+        changes++;
+        if (change.deleted()) {
+            deleted.add(change.userId());
+            blocked.remove(change.userId());
+            admins.remove(change.userId());
+            return;
+        }
+        if (change.status() == User.Status.BLOCKED) {
+            blocked.add(change.userId());
+        } else {
+            blocked.remove(change.userId());
+        }
+        if (change.role() == User.Role.ADMIN) {
+            admins.add(change.userId());
+        } else {
+            admins.remove(change.userId());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.seabattle.server.service;
+
+import com.seabattle.server.dto.UserProfileDTO;
+import com.seabattle.server.dto.UserRankDTO;
+import com.seabattle.server.dto.UserRatingDto;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** Profile, leaderboard and avatar data of players. */
+@Service
+@RequiredArgsConstructor
+public class UserService {
+
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public UserProfileDTO getProfile(String username) {
+        User user = userRepository.findByUsername(username).orElseThrow(() -> new EntityNotFoundException("Cannot find user by username"));
+
+        int position = ratingPosition(username);
+
+        int wins = user.getWins() != null ? user.getWins() : 0;
+        int losses = user.getLosses() != null ? user.getLosses() : 0;
+        int rating = user.getRating() != null ? user.getRating() : 0;
+        int totalGames = wins + losses;
+        double winrate = totalGames > 0 ? (double) wins / totalGames * 100 : 0;
+
+        return new UserProfileDTO(
+                user.getUsername(),
+                totalGames,
+                wins,
+                losses,
+                winrate,
+                rating,
+                position,
+                user.getAvatar()
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserRatingDto> getTopPlayers(int limit) {
+        return userRepository.findAll(PageRequest.of(0, limit, Sort.by("rating").descending()))
+                .getContent()
+                .stream()
+                .map(u -> new UserRatingDto(u.getUsername(), u.getRating() != null ? u.getRating() : 0))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public UserRankDTO getUserRank(String username) {
+        int position = ratingPosition(username);
+
+        User user = userRepository.findByUsername(username).orElseThrow(() -> new EntityNotFoundException("Cannot find user by nickname"));
+        int userRating = user.getRating() != null ? user.getRating() : 0;
+        return new UserRankDTO(userRating, position);
+    }
+
+    @Transactional
+    public void updateAvatar(UUID userId, String avatarUrl) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        user.setAvatar(avatarUrl);
+        user.setUpdatedAt(OffsetDateTime.now());
+    }
+
+    private int ratingPosition(String username) {
+        List<User> sorted = userRepository.findAll(Sort.by("rating").descending());
+        int position = 1;
+        for (User u : sorted) {
+            if (u.getUsername().equals(username)) break;
+            position++;
+        }
+        return position;
+    }
+}
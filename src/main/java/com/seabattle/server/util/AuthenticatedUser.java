@@ -0,0 +1,31 @@
+package com.seabattle.server.util;
+
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.UUID;
+
+/**
+ * Principal of a JWT-authenticated request: username, role and the user id from the token
+ * claims. Controllers get it (or just the id) through {@link CurrentUser} and hand the id to
+ * services, so no endpoint has to look the user up by name.
+ */
+public class AuthenticatedUser extends User {
+
+    private final UUID id;
+    private final String role;
+
+    public AuthenticatedUser(UUID id, String username, String role) {
+        super(username, "", AuthorityUtils.createAuthorityList("ROLE_" + role));
+        this.id = id;
+        this.role = role;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
@@ -0,0 +1,18 @@
+package com.seabattle.server.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the authenticated user into a controller method parameter of type {@link java.util.UUID}
+ * (the user id), {@link AuthenticatedUser}, or {@link com.seabattle.server.entity.User} (loaded at
+ * most once per request). See {@link CurrentUserArgumentResolver}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
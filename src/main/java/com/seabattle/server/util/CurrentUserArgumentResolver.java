@@ -0,0 +1,59 @@
+package com.seabattle.server.util;
+
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.UUID;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the {@link AuthenticatedUser} principal. The id and
+ * the principal cost nothing; the {@link User} entity is loaded on first use and kept as a request
+ * attribute, so a request never loads it twice. Resolves to null for anonymous requests, like
+ * {@code @AuthenticationPrincipal}.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String USER_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserArgumentResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (type == UUID.class || type == AuthenticatedUser.class || type == User.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser principal)) {
+            return null;
+        }
+        Class<?> type = parameter.getParameterType();
+        if (type == UUID.class) return principal.getId();
+        if (type == AuthenticatedUser.class) return principal;
+
+        User user = (User) webRequest.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = userRepository.findById(principal.getId())
+                    .orElseThrow(() -> new EntityNotFoundException("User not found"));
+            webRequest.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+}
@@ -1,6 +1,7 @@
 package com.seabattle.server.util;
 
-import com.seabattle.server.service.MyUserDetailsService;
+import com.seabattle.server.service.UserAccessRegistry;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,24 +9,29 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.UUID;
 
+/**
+ * Authenticates requests from the JWT claims alone (username, user id, role); the user row is not
+ * loaded, the principal is an {@link AuthenticatedUser}. Tokens of blocked or deleted users and stale ADMIN claims are refused through
+ * {@link UserAccessRegistry}.
+ */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtUtil jwtUtil;
-    private final MyUserDetailsService userDetailsService;
+    private final UserAccessRegistry userAccess;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, MyUserDetailsService uds) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserAccessRegistry userAccess) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = uds;
+        this.userAccess = userAccess;
     }
 
     @Override
@@ -38,6 +44,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authHeader = request.getHeader("Authorization");
         String token = null;
         String username = null;
+        String role = null;
+        UUID userId = null;
         String authFailReason = null;
 
         if (authHeader == null) {
@@ -46,10 +54,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             authFailReason = "Authorization header without 'Bearer ' prefix";
         } else {
             token = authHeader.substring(7);
-            if (jwtUtil.validateToken(token)) {
-                username = jwtUtil.extractUsername(token);
+            Claims claims = jwtUtil.verify(token).orElse(null);
+            if (claims == null) {
+                authFailReason = "token rejected (expired / bad signature / malformed)";
+            } else if (!userAccess.allows(JwtUtil.userId(claims), claims.get("role", String.class))) {
+                authFailReason = "token revoked (user blocked / deleted / role changed, or issued before user ids)";
             } else {
-                authFailReason = "token rejected by validateToken (expired / bad signature / malformed)";
+                username = claims.getSubject();
+                role = claims.get("role", String.class);
+                userId = JwtUtil.userId(claims);
             }
         }
 
@@ -69,10 +82,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            AuthenticatedUser principal = new AuthenticatedUser(userId, username, role);
 
             UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
 
             // Важно: пометить как authenticated
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -2,13 +2,32 @@ package com.seabattle.server.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
 import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the HS256 tokens. The key and the parser are built once. Verified claims
+ * are cached by SHA-256 of the token until the token expires, so a client sending the same token
+ * on every request costs one signature check, not one per request (or two, validate + extract).
+ * Rejected tokens are never cached; when the cache is full, new tokens are verified without being
+ * cached until there is room again. Expired entries are then swept at most once per sweep
+ * interval, so a full cache costs one scan per interval instead of one per request.
+ */
 @Component
 public class JwtUtil {
 
@@ -18,30 +37,61 @@ public class JwtUtil {
     @Value("${jwt.expiration-ms:86400000}")  // Default to 24 hours if not configured
     private long expirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize = 10000;
+
+    @Value("${jwt.cache.sweep-interval-ms:5000}")
+    private long sweepIntervalMs = 5000;
+
+    private Clock clock = Clock.systemUTC();
+
+    private Key signingKey;
+    private JwtParser parser;
+    private final Map<ByteBuffer, Claims> verified = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepMillis = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
     }
 
-    public String generateToken(String username, String role) {
-        Date now = new Date();
+    /** Subject is the username; {@code uid} and {@code role} let requests authenticate without a user lookup. */
+    public String generateToken(UUID userId, String username, String role) {
+        Date now = Date.from(clock.instant());
         Date exp = new Date(now.getTime() + expirationMs);
         return Jwts.builder()
                 .setSubject(username)
+                .claim("uid", userId.toString())
                 .claim("role", role)
                 .setIssuedAt(now)
                 .setExpiration(exp)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            // логирование при необходимости
-            return false;
-        }
+        return verifiedClaims(token) != null;
+    }
+
+    /** Claims of a valid token; empty when the token is expired, forged or malformed. */
+    public Optional<Claims> verify(String token) {
+        return Optional.ofNullable(verifiedClaims(token));
+    }
+
+    /** User id claim of verified claims; null for tokens issued before it was added. */
+    public static UUID userId(Claims claims) {
+        String uid = claims.get("uid", String.class);
+        return uid != null ? UUID.fromString(uid) : null;
+    }
+
+    /** Subject of a valid token; empty when the token is expired, forged or malformed. */
+    public Optional<String> verifiedUsername(String token) {
+        Claims claims = verifiedClaims(token);
+        return claims != null ? Optional.ofNullable(claims.getSubject()) : Optional.empty();
     }
 
     public String extractUsername(String token) {
@@ -49,9 +99,59 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token).getBody();
+        Claims claims = verifiedClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid token");
+        }
         return claimsResolver.apply(claims);
     }
-}
 
+    public int cachedTokens() {
+        return verified.size();
+    }
+
+    /** Claims of a valid token, from the cache when possible; null when invalid. */
+    private Claims verifiedClaims(String token) {
+        if (token == null || token.isEmpty()) return null;
+        ByteBuffer key = digest(token);
+        long now = clock.millis();
+        Claims cached = verified.get(key);
+        if (cached != null) {
+            if (!expired(cached, now)) return cached;
+            verified.remove(key, cached);
+            return null;
+        }
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            // логирование при необходимости
+            return null;
+        }
+        if (claims.getExpiration() != null && hasRoom(now)) {
+            verified.put(key, claims);
+        }
+        return claims;
+    }
+
+    /** Whether a new entry fits; a full cache is swept by one caller per interval, the others skip caching. */
+    private boolean hasRoom(long now) {
+        if (verified.size() < cacheMaxSize) return true;
+        long due = nextSweepMillis.get();
+        if (now < due || !nextSweepMillis.compareAndSet(due, now + sweepIntervalMs)) return false;
+        verified.values().removeIf(c -> expired(c, now));
+        return verified.size() < cacheMaxSize;
+    }
+
+    private static boolean expired(Claims claims, long now) {
+        return claims.getExpiration().getTime() <= now;
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
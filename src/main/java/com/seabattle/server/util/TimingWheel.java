@@ -0,0 +1,198 @@
+package com.seabattle.server.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: one thread advances a ring of buckets every tick and fires the timeouts
+ * whose deadline has passed. Scheduling and cancellation are O(1) and lock-free for callers
+ * (they only enqueue); bucket lists are touched by the wheel thread alone. Deadlines longer than
+ * one revolution are kept in their bucket with a remaining-rounds counter.
+ * <p>
+ * Tasks run on the wheel thread and must only hand work off (e.g. enqueue a game command);
+ * precision is one tick.
+ */
+public final class TimingWheel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    /** Upper bound of newly scheduled timeouts moved into buckets per tick, so a burst cannot stall expiry. */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    public interface Timeout {
+        /** @return false when the timeout already fired or was cancelled */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Entry> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick;
+
+    public TimingWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) throw new IllegalArgumentException("tickDuration must be positive");
+        if (ticksPerWheel <= 0) throw new IllegalArgumentException("ticksPerWheel must be positive");
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < ticksPerWheel) size <<= 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) wheel[i] = new Bucket();
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) throw new IllegalStateException("Timing wheel is stopped");
+        Entry entry = new Entry(task, System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay)));
+        pending.incrementAndGet();
+        scheduled.add(entry);
+        return entry;
+    }
+
+    /** Timeouts scheduled and neither fired nor cancelled yet. */
+    public long pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            removeCancelled();
+            transferScheduled();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        for (Entry e; (e = cancelled.poll()) != null; ) {
+            if (e.bucket != null) e.bucket.remove(e);
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Entry e = scheduled.poll();
+            if (e == null) return;
+            if (e.state.get() != Entry.WAITING) continue;
+            long due = e.deadline / tickNanos;
+            e.remainingRounds = (due - tick) / wheel.length;
+            wheel[(int) (Math.max(due, tick) & mask)].add(e);
+        }
+    }
+
+    private final class Entry implements Timeout {
+        static final int WAITING = 0, CANCELLED = 1, EXPIRED = 2;
+
+        final Runnable task;
+        final long deadline;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        long remainingRounds;
+        Bucket bucket;
+        Entry prev, next;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) return false;
+            pending.decrementAndGet();
+            cancelled.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) return;
+            pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.warn("Timeout task {} failed", task, t);
+            }
+        }
+    }
+
+    /** Doubly linked list of entries; only the wheel thread reads or changes it. */
+    private static final class Bucket {
+        Entry head, tail;
+
+        void add(Entry e) {
+            e.bucket = this;
+            if (head == null) {
+                head = tail = e;
+            } else {
+                tail.next = e;
+                e.prev = tail;
+                tail = e;
+            }
+        }
+
+        void expire(long deadline) {
+            Entry e = head;
+            while (e != null) {
+                Entry next = e.next;
+                if (e.remainingRounds <= 0 && e.deadline <= deadline) {
+                    remove(e);
+                    e.expire();
+                } else if (e.isCancelled()) {
+                    remove(e);
+                } else if (e.remainingRounds > 0) {
+                    e.remainingRounds--;
+                }
+                e = next;
+            }
+        }
+
+        void remove(Entry e) {
+            if (e.bucket != this) return;
+            if (e.prev != null) e.prev.next = e.next; else head = e.next;
+            if (e.next != null) e.next.prev = e.prev; else tail = e.prev;
+            e.prev = e.next = null;
+            e.bucket = null;
+        }
+    }
+}
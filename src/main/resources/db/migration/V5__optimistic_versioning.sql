@@ -0,0 +1,3 @@
+-- Optimistic locking for games and boards (JPA @Version)
+ALTER TABLE public.games ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE public.boards ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,92 @@
+-- Range-partition moves and game_history by created_at (one partition per month).
+-- Old partitions are streamed to compressed segment files and dropped by PartitionArchiver,
+-- so the live tables and their indexes only hold recent months.
+
+-- Creates <parent>_pYYYYMM for the month containing month_start, if it does not exist yet.
+CREATE OR REPLACE FUNCTION public.ensure_monthly_partition(parent TEXT, month_start DATE)
+RETURNS TEXT AS $$
+DECLARE
+    range_from DATE := date_trunc('month', month_start)::DATE;
+    range_to   DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    part_name TEXT := parent || '_p' || to_char(range_from, 'YYYYMM');
+BEGIN
+    IF to_regclass('public.' || part_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE public.%I PARTITION OF public.%I FOR VALUES FROM (%L) TO (%L)',
+                       part_name, parent, range_from, range_to);
+    END IF;
+    RETURN part_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- moves ---------------------------------------------------------------------
+
+ALTER TABLE public.moves RENAME TO moves_legacy;
+ALTER SEQUENCE public.moves_id_seq OWNED BY NONE;
+
+CREATE TABLE public.moves (
+    id         BIGINT NOT NULL DEFAULT nextval('public.moves_id_seq'),
+    game_id    UUID NOT NULL REFERENCES public.games(id),
+    player_id  UUID REFERENCES public.users(id),
+    x          SMALLINT NOT NULL,
+    y          SMALLINT NOT NULL,
+    hit        BOOLEAN NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE public.moves_default PARTITION OF public.moves DEFAULT;
+
+-- game_history --------------------------------------------------------------
+
+ALTER TABLE public.game_history RENAME TO game_history_legacy;
+ALTER SEQUENCE public.game_history_id_seq OWNED BY NONE;
+
+CREATE TABLE public.game_history (
+    id           BIGINT NOT NULL DEFAULT nextval('public.game_history_id_seq'),
+    game_id      UUID NOT NULL REFERENCES public.games(id),
+    player_id    UUID NOT NULL REFERENCES public.users(id),
+    opponent_id  UUID REFERENCES public.users(id),
+    result       VARCHAR(10) NOT NULL,
+    delta_rating INTEGER DEFAULT 0,
+    created_at   TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE public.game_history_default PARTITION OF public.game_history DEFAULT;
+
+-- Monthly partitions covering existing data plus the next two months ----------
+
+DO $$
+DECLARE
+    first_month DATE;
+    m DATE;
+BEGIN
+    SELECT date_trunc('month', LEAST(
+               COALESCE((SELECT MIN(created_at) FROM public.moves_legacy), now()),
+               COALESCE((SELECT MIN(created_at) FROM public.game_history_legacy), now())))::DATE
+      INTO first_month;
+    m := first_month;
+    WHILE m <= (date_trunc('month', now()) + INTERVAL '2 months')::DATE LOOP
+        PERFORM public.ensure_monthly_partition('moves', m);
+        PERFORM public.ensure_monthly_partition('game_history', m);
+        m := (m + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+INSERT INTO public.moves (id, game_id, player_id, x, y, hit, created_at)
+SELECT id, game_id, player_id, x, y, hit, COALESCE(created_at, now())
+FROM public.moves_legacy;
+
+INSERT INTO public.game_history (id, game_id, player_id, opponent_id, result, delta_rating, created_at)
+SELECT id, game_id, player_id, opponent_id, result, delta_rating, COALESCE(created_at, now())
+FROM public.game_history_legacy;
+
+DROP TABLE public.moves_legacy;
+DROP TABLE public.game_history_legacy;
+
+ALTER SEQUENCE public.moves_id_seq OWNED BY public.moves.id;
+ALTER SEQUENCE public.game_history_id_seq OWNED BY public.game_history.id;
+
+CREATE INDEX idx_moves_game_id ON public.moves(game_id);
+CREATE INDEX idx_game_history_game_id ON public.game_history(game_id);
+CREATE INDEX idx_game_history_player_id ON public.game_history(player_id);
@@ -0,0 +1,6 @@
+-- Finished games compacted into one replay blob (fleets + move log); their boards and moves rows are deleted
+CREATE TABLE public.game_archive (
+    game_id    UUID PRIMARY KEY REFERENCES public.games(id) ON DELETE CASCADE,
+    data       BYTEA NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE
+);
@@ -0,0 +1,5 @@
+-- Deleted users whose tokens may still be unexpired; reloaded into the token checks at startup
+CREATE TABLE public.revoked_users (
+    user_id    UUID PRIMARY KEY,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Games open to spectators (tournament finals, streamed games); set by an admin
+ALTER TABLE public.games ADD COLUMN IF NOT EXISTS featured BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,190 @@
+package com.seabattle.server;
+
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Board;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.BoardRepository;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.service.ActiveGame;
+import com.seabattle.server.service.ActiveGameRegistry;
+import com.seabattle.server.service.GameService;
+import com.seabattle.server.service.GracefulDrain;
+import com.seabattle.server.service.LiveSnapshotCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ActiveGameRegistryTest {
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private ActiveGameRegistry registry;
+    @Autowired
+    private MeterRegistry meters;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private BoardRepository boardRepository;
+    @Autowired
+    private GracefulDrain gracefulDrain;
+
+    @Test
+    void attackRehydratesOnceThenServesFromMemory() {
+        User host = user("host");
+        User guest = user("guest");
+        BoardModel guestFleet = new BoardModel();
+        guestFleet.placeShip(1, 0, 0, true, 2);
+        Game game = onlineGame(host, guest, BoardModel.autoPlaceRandom(), guestFleet);
+        UUID gameId = game.getId();
+
+        double misses = count("game.registry.misses");
+        gameService.attack(gameId, host.getId(), 0, 0);
+        assertThat(count("game.registry.misses")).isEqualTo(misses + 1);
+
+        ActiveGame cached = registry.peek(gameId).orElseThrow();
+        assertThat(cached.game().getCurrentTurn()).isEqualTo(Game.Turn.HOST);
+        assertThat(cached.opponentBoard().model().getCells()[0][0].getState()).isEqualTo(BoardModel.CellState.HIT);
+
+        double hits = count("game.registry.hits");
+        gameService.attack(gameId, host.getId(), 5, 5);
+        assertThat(count("game.registry.hits")).isEqualTo(hits + 1);
+        assertThat(count("game.registry.misses")).isEqualTo(misses + 1);
+
+        Game stored = gameRepository.findById(gameId).orElseThrow();
+        assertThat(stored.getCurrentTurn()).isEqualTo(Game.Turn.GUEST);
+        assertThat(stored.getVersion()).isEqualTo(registry.peek(gameId).orElseThrow().game().getVersion());
+        Board guestBoard = boardRepository.findFirstByGameIdAndPlayerIdOrderByIdAsc(gameId, guest.getId()).orElseThrow();
+        assertThat(guestBoard.getVersion()).isEqualTo(2L);
+        assertThat(BoardModel.fromJson(guestBoard.getCells()).getCells()[5][5].getState()).isEqualTo(BoardModel.CellState.MISS);
+
+        Map<String, Object> boards = gameService.getBoards(gameId, guest.getId());
+        assertThat(boards.get("currentTurn")).isEqualTo("GUEST");
+        assertThat(boards.get("isHost")).isEqualTo(false);
+    }
+
+    @Test
+    void finishedGamesAreDroppedAndIdleGamesSwept() {
+        User host = user("host");
+        User guest = user("guest");
+        BoardModel guestFleet = new BoardModel();
+        guestFleet.placeShip(1, 9, 9, true, 1);
+        UUID finishing = onlineGame(host, guest, BoardModel.autoPlaceRandom(), guestFleet).getId();
+        UUID idle = onlineGame(host, guest, BoardModel.autoPlaceRandom(), BoardModel.autoPlaceRandom()).getId();
+
+        gameService.attack(finishing, host.getId(), 9, 9);
+        assertThat(gameRepository.findById(finishing).orElseThrow().getStatus()).isEqualTo(Game.GameStatus.FINISHED);
+        assertThat(registry.peek(finishing)).isEmpty();
+
+        gameService.attack(idle, host.getId(), 0, 0);
+        assertThat(registry.peek(idle)).isPresent();
+
+        Object idleMinutes = ReflectionTestUtils.getField(registry, "idleMinutes");
+        ReflectionTestUtils.setField(registry, "idleMinutes", 0L);
+        try {
+            registry.sweep();
+        } finally {
+            ReflectionTestUtils.setField(registry, "idleMinutes", idleMinutes);
+        }
+        assertThat(registry.peek(idle)).isEmpty();
+        assertThat(meters.counter("game.registry.evictions", "cause", "idle").count()).isPositive();
+    }
+
+    @Test
+    void snapshotsOutsideTheLaneNeverCreateBoards() {
+        User host = user("host");
+        Game game = gameRepository.save(Game.builder()
+                .type(Game.GameType.BOT)
+                .host(host)
+                .isBot(true)
+                .status(Game.GameStatus.IN_PROGRESS)
+                .currentTurn(Game.Turn.HOST)
+                .build());
+        boardRepository.save(Board.builder().game(game).player(host).cells(BoardModel.autoPlaceRandom().toJson()).build());
+
+        assertThatThrownBy(() -> gameService.stateSnapshot(game.getId(), host.getId()))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(boardRepository.findByGameIdAndPlayerIsNull(game.getId())).isEmpty();
+        assertThat(registry.peek(game.getId())).isEmpty();
+    }
+
+    @Test
+    void snapshotEntriesChangedElsewhereAreNotRestored(@TempDir Path dir) throws Exception {
+        User host = user("host");
+        User guest = user("guest");
+        Game unchanged = onlineGame(host, guest, BoardModel.autoPlaceRandom(), BoardModel.autoPlaceRandom());
+        Game changed = onlineGame(host, guest, BoardModel.autoPlaceRandom(), BoardModel.autoPlaceRandom());
+        List<ActiveGame> live = List.of(stored(unchanged.getId()), stored(changed.getId()));
+        Board moved = boardRepository.findFirstByGameIdAndPlayerIdOrderByIdAsc(changed.getId(), guest.getId()).orElseThrow();
+        moved.setCells(BoardModel.autoPlaceRandom().toJson());
+        boardRepository.save(moved);
+
+        Path file = dir.resolve("live.bin");
+        LiveSnapshotCodec.write(file, new LiveSnapshotCodec.Snapshot(Instant.now(), live, Map.of()));
+        ReflectionTestUtils.setField(gracefulDrain, "snapshotFile", file);
+        ReflectionTestUtils.setField(gracefulDrain, "snapshotEnabled", true);
+        try {
+            gracefulDrain.afterSingletonsInstantiated();
+        } finally {
+            ReflectionTestUtils.setField(gracefulDrain, "snapshotEnabled", false);
+        }
+
+        assertThat(registry.peek(unchanged.getId())).isPresent();
+        assertThat(registry.peek(changed.getId())).as("board changed by another node").isEmpty();
+        registry.evict(unchanged.getId());
+    }
+
+    private ActiveGame stored(UUID gameId) {
+        Game game = gameRepository.findById(gameId).orElseThrow();
+        List<Board> boards = boardRepository.findByGameIdOrderByIdAsc(gameId);
+        Board hostBoard = boards.stream().filter(b -> b.getPlayer().getId().equals(game.getHost().getId())).findFirst().orElseThrow();
+        Board guestBoard = boards.stream().filter(b -> b != hostBoard).findFirst().orElseThrow();
+        return new ActiveGame(game,
+                new ActiveGame.BoardState(hostBoard.getId(), hostBoard.getVersion(), BoardModel.fromJson(hostBoard.getCells())),
+                new ActiveGame.BoardState(guestBoard.getId(), guestBoard.getVersion(), BoardModel.fromJson(guestBoard.getCells())));
+    }
+
+    private double count(String name) {
+        return meters.counter(name).count();
+    }
+
+    private User user(String prefix) {
+        return userRepository.save(User.builder()
+                .username(prefix + "-" + UUID.randomUUID().toString().substring(0, 8))
+                .passwordHash("x")
+                .build());
+    }
+
+    private Game onlineGame(User host, User guest, BoardModel hostFleet, BoardModel guestFleet) {
+        Game game = gameRepository.save(Game.builder()
+                .type(Game.GameType.ONLINE)
+                .host(host)
+                .guest(guest)
+                .status(Game.GameStatus.IN_PROGRESS)
+                .currentTurn(Game.Turn.HOST)
+                .build());
+        boardRepository.save(Board.builder().game(game).player(host).cells(hostFleet.toJson()).build());
+        boardRepository.save(Board.builder().game(game).player(guest).cells(guestFleet.toJson()).build());
+        return game;
+    }
+}
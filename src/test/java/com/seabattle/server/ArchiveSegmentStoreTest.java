@@ -0,0 +1,72 @@
+package com.seabattle.server;
+
+import com.seabattle.server.dto.MoveDto;
+import com.seabattle.server.service.ArchiveSegmentStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveSegmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writtenPartitionCanBeReadBackByGame() throws Exception {
+        UUID gameA = UUID.randomUUID();
+        UUID gameB = UUID.randomUUID();
+        UUID player = UUID.randomUUID();
+        OffsetDateTime t = OffsetDateTime.of(2026, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC);
+
+        ArchiveSegmentStore store = new ArchiveSegmentStore(dir.toString());
+        try (Connection con = DriverManager.getConnection("jdbc:h2:mem:segments;MODE=PostgreSQL", "sa", "")) {
+            try (Statement st = con.createStatement()) {
+                st.execute("CREATE TABLE moves_p202601 (id BIGINT, game_id UUID, player_id UUID, "
+                        + "x SMALLINT, y SMALLINT, hit BOOLEAN, created_at TIMESTAMP WITH TIME ZONE)");
+            }
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO moves_p202601 VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                insert(ps, 1, gameA, player, 0, 0, true, t);
+                insert(ps, 2, gameB, player, 5, 5, false, t);
+                insert(ps, 3, gameA, null, 9, 1, false, t.plusSeconds(1));
+            }
+            try (Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT * FROM moves_p202601 ORDER BY game_id, id")) {
+                assertThat(store.write("moves", "moves_p202601", rs)).isEqualTo(3);
+            }
+        }
+
+        assertThat(store.exists("moves", "moves_p202601")).isTrue();
+        List<MoveDto> moves = store.findMoves(gameA);
+        assertThat(moves).extracting(MoveDto::id).containsExactly(1L, 3L);
+        assertThat(moves.get(0).playerId()).isEqualTo(player);
+        assertThat(moves.get(0).hit()).isTrue();
+        assertThat(moves.get(1).playerId()).isNull();
+        assertThat(moves.get(1).x()).isEqualTo(9);
+        assertThat(moves.get(1).createdAt().toInstant()).isEqualTo(t.plusSeconds(1).toInstant());
+        assertThat(store.findMoves(UUID.randomUUID())).isEmpty();
+    }
+
+    private static void insert(PreparedStatement ps, long id, UUID game, UUID player, int x, int y,
+                               boolean hit, OffsetDateTime at) throws Exception {
+        ps.setLong(1, id);
+        ps.setObject(2, game);
+        ps.setObject(3, player);
+        ps.setShort(4, (short) x);
+        ps.setShort(5, (short) y);
+        ps.setBoolean(6, hit);
+        ps.setObject(7, at);
+        ps.executeUpdate();
+    }
+}
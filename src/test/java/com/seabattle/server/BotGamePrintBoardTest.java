@@ -63,7 +63,7 @@ class BotGamePrintBoardTest {
     void testFullBotGameWithPrint() throws Exception {
 
         // Создаём игру с ботом
-        Game game = gameService.createBotGame(testUser);
+        Game game = gameService.createBotGame(testUser.getId());
 
         // Авторасстановка кораблей
         gameService.placeShipsAuto(game.getId(), testUser.getId());
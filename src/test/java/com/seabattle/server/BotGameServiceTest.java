@@ -45,7 +45,7 @@ public class BotGameServiceTest {
     @Test
     @WithMockUser(username = "player1", roles = {"PLAYER"})
     void testCreateBotGame() throws Exception {
-        Game game = gameService.createBotGame(testUser);
+        Game game = gameService.createBotGame(testUser.getId());
         assertThat(game).isNotNull();
         assertThat(game.getType()).isEqualTo(Game.GameType.BOT);
         assertThat(game.getStatus()).isEqualTo(Game.GameStatus.WAITING);
@@ -55,7 +55,7 @@ public class BotGameServiceTest {
     @Test
     @WithMockUser(username = "player2", roles = {"PLAYER"})
     void testAutoPlaceShips() throws Exception {
-        Game game = gameService.createBotGame(testUser);
+        Game game = gameService.createBotGame(testUser.getId());
         gameService.placeShipsAuto(game.getId(), testUser.getId());
         Game updated = gameService.playerShot(game.getId(), testUser.getId(), 0, 0).isGameOver() ? game : game;
         assertThat(updated.getStatus()).isEqualTo(Game.GameStatus.IN_PROGRESS);
@@ -64,7 +64,7 @@ public class BotGameServiceTest {
     @Test
     @WithMockUser(username = "player1", roles = {"PLAYER"})
     void testPlayerHitAndBotResponse() throws Exception {
-        Game game = gameService.createBotGame(testUser);
+        Game game = gameService.createBotGame(testUser.getId());
         gameService.placeShipsAuto(game.getId(), testUser.getId());
 
         // делаем один выстрел
@@ -77,7 +77,7 @@ public class BotGameServiceTest {
     @Test
     @WithMockUser(username = "player1", roles = {"PLAYER"})
     void testSurrender() throws Exception {
-        Game game = gameService.createBotGame(testUser);
+        Game game = gameService.createBotGame(testUser.getId());
         gameService.placeShipsAuto(game.getId(), testUser.getId());
 
         gameService.surrender(game.getId(), testUser.getId());
@@ -94,7 +94,7 @@ public class BotGameServiceTest {
     @Test
     @WithMockUser(username = "player1", roles = {"PLAYER"})
     void testRematchCreatesNewGame() throws Exception {
-        Game oldGame = gameService.createBotGame(testUser);
+        Game oldGame = gameService.createBotGame(testUser.getId());
         gameService.placeShipsAuto(oldGame.getId(), testUser.getId());
 
         Game newGame = gameService.rematch(oldGame.getId(), testUser.getId());
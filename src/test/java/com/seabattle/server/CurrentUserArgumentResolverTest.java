@@ -0,0 +1,90 @@
+package com.seabattle.server;
+
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.util.AuthenticatedUser;
+import com.seabattle.server.util.CurrentUser;
+import com.seabattle.server.util.CurrentUserArgumentResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrentUserArgumentResolverTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver(userRepository);
+    private final UUID aliceId = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void idAndPrincipalComeFromTheTokenWithoutAQuery() throws Exception {
+        login();
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        assertThat(resolver.supportsParameter(parameter(0))).isTrue();
+        assertThat(resolver.supportsParameter(parameter(3))).as("parameters without @CurrentUser").isFalse();
+        assertThat(resolver.resolveArgument(parameter(0), null, request, null)).isEqualTo(aliceId);
+        AuthenticatedUser principal = (AuthenticatedUser) resolver.resolveArgument(parameter(1), null, request, null);
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getRole()).isEqualTo("USER");
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void userEntityIsLoadedOncePerRequest() throws Exception {
+        login();
+        User alice = User.builder().id(aliceId).username("alice").build();
+        when(userRepository.findById(aliceId)).thenReturn(Optional.of(alice));
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        assertThat(resolver.resolveArgument(parameter(2), null, request, null)).isSameAs(alice);
+        assertThat(resolver.resolveArgument(parameter(2), null, request, null)).isSameAs(alice);
+        verify(userRepository, times(1)).findById(aliceId);
+
+        resolver.resolveArgument(parameter(2), null, new ServletWebRequest(new MockHttpServletRequest()), null);
+        verify(userRepository, times(2)).findById(aliceId);
+    }
+
+    @Test
+    void anonymousRequestResolvesToNull() throws Exception {
+        assertThat(resolver.resolveArgument(parameter(0), null,
+                new ServletWebRequest(new MockHttpServletRequest()), null)).isNull();
+    }
+
+    private void login() {
+        AuthenticatedUser principal = new AuthenticatedUser(aliceId, "alice", "USER");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static MethodParameter parameter(int index) throws NoSuchMethodException {
+        Method method = CurrentUserArgumentResolverTest.class.getDeclaredMethod("endpoint",
+                UUID.class, AuthenticatedUser.class, User.class, UUID.class);
+        return new MethodParameter(method, index);
+    }
+
+    @SuppressWarnings("unused")
+    private void endpoint(@CurrentUser UUID id, @CurrentUser AuthenticatedUser principal, @CurrentUser User user,
+                          UUID gameId) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.seabattle.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seabattle.server.config.GameBinaryCodec;
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.engine.BoardModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameBinaryCodecTest {
+
+    private final UUID gameId = UUID.randomUUID();
+
+    @Test
+    void deltaRoundTrips() {
+        var delta = new GameSocketMessage.GameStateDelta(gameId, 41, 40, "GUEST", false, null,
+                true, true, false, new int[]{9, 9, 1}, new int[]{0, 1, 3, 0, 2, 4, 1, 0, 4}, -123456789);
+
+        var decoded = (GameSocketMessage.GameStateDelta) roundTrip(delta);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(delta);
+    }
+
+    @Test
+    void snapshotRoundTrips() {
+        BoardModel own = BoardModel.autoPlaceRandom();
+        BoardModel enemy = BoardModel.autoPlaceRandom();
+        own.shoot(3, 3);
+        enemy.shoot(5, 5);
+        int[][] ownView = own.toIntArray(true);
+        int[][] enemyView = enemy.toIntArray(false);
+        var snapshot = new GameSocketMessage.GameSnapshot(gameId, 7, null, true, "SURRENDER",
+                ownView, enemyView, BoardModel.checksum(ownView, enemyView));
+
+        var decoded = (GameSocketMessage.GameSnapshot) roundTrip(snapshot);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(snapshot);
+    }
+
+    @Test
+    void finishedRoundTrips() {
+        assertThat(roundTrip(new GameSocketMessage.GameFinished(gameId, "HOST_WIN")))
+                .isEqualTo(new GameSocketMessage.GameFinished(gameId, "HOST_WIN"));
+    }
+
+    @Test
+    void framesAreMuchSmallerThanJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        var delta = new GameSocketMessage.GameStateDelta(gameId, 12, 11, "HOST", false, null,
+                false, false, false, new int[0], new int[]{4, 7, 2}, 99);
+        int[][] board = BoardModel.autoPlaceRandom().toIntArray(true);
+        var snapshot = new GameSocketMessage.GameSnapshot(gameId, 12, "HOST", false, null, board, board, 99);
+
+        assertThat(GameBinaryCodec.encode(delta)).hasSize(33);
+        assertThat(mapper.writeValueAsBytes(delta).length).isGreaterThan(4 * 33);
+        assertThat(GameBinaryCodec.encode(snapshot)).hasSize(128);
+        assertThat(mapper.writeValueAsBytes(snapshot).length).isGreaterThan(4 * 128);
+    }
+
+    @Test
+    void otherMessagesHaveNoBinaryLayout() {
+        var subscribed = new GameSocketMessage.Subscribed(gameId);
+        assertThat(GameBinaryCodec.supports(subscribed)).isFalse();
+        assertThatThrownBy(() -> GameBinaryCodec.encode(subscribed)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static GameSocketMessage roundTrip(GameSocketMessage message) {
+        ByteBuffer frame = ByteBuffer.wrap(GameBinaryCodec.encode(message));
+        GameSocketMessage decoded = GameBinaryCodec.decode(frame);
+        assertThat(frame.hasRemaining()).isFalse();
+        return decoded;
+    }
+}
@@ -0,0 +1,87 @@
+package com.seabattle.server;
+
+import com.seabattle.server.service.GameCommandDispatcher;
+import com.seabattle.server.service.GameCommandRetry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameCommandDispatcherTest {
+
+    private GameCommandDispatcher dispatcher;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        GameCommandRetry retry = new GameCommandRetry();
+        ReflectionTestUtils.setField(retry, "maxAttempts", 1);
+        dispatcher = new GameCommandDispatcher(retry, 4);
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @Test
+    void commandsOfOneGameNeverOverlap() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            results.add(callers.submit(() -> dispatcher.execute(gameId, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.onSpinWait();
+                running.decrementAndGet();
+                return n;
+            })));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+        }
+        assertThat(maxRunning.get()).isEqualTo(1);
+        // The last caller is released before the worker removes the emptied lane
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.activeLanes() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(dispatcher.activeLanes()).isZero();
+    }
+
+    @Test
+    void differentGamesRunInParallel() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable command = () -> {
+            bothStarted.countDown();
+            try {
+                assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        Future<?> a = callers.submit(() -> dispatcher.execute(UUID.randomUUID(), command));
+        Future<?> b = callers.submit(() -> dispatcher.execute(UUID.randomUUID(), command));
+        a.get(10, TimeUnit.SECONDS);
+        b.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void exceptionIsRethrownToCaller() {
+        UUID gameId = UUID.randomUUID();
+        assertThatThrownBy(() -> dispatcher.execute(gameId, () -> {
+            throw new IllegalStateException("Не ваш ход");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("Не ваш ход");
+        assertThat(dispatcher.execute(gameId, () -> dispatcher.execute(gameId, () -> "nested"))).isEqualTo("nested");
+    }
+}
@@ -0,0 +1,57 @@
+package com.seabattle.server;
+
+import com.seabattle.server.service.GameCommandRetry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameCommandRetryTest {
+
+    private GameCommandRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        retry = new GameCommandRetry();
+        ReflectionTestUtils.setField(retry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retry, "backoffMs", 0L);
+    }
+
+    @Test
+    void retriesConflictAndReturnsResult() {
+        AtomicInteger calls = new AtomicInteger();
+        String result = retry.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Game", "id");
+            }
+            return "ok";
+        });
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> retry.execute(() -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Game", "id");
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotRetryOtherErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> retry.execute(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Сейчас не ваш ход");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,177 @@
+package com.seabattle.server;
+
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.service.ActiveGame;
+import com.seabattle.server.service.GameEvent;
+import com.seabattle.server.service.GameEventDispatcher;
+import com.seabattle.server.service.GameTimeoutService;
+import com.seabattle.server.service.RecentGameEvents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameEventDispatcherTest {
+
+    private final GameWebSocketHandler handler = mock(GameWebSocketHandler.class);
+    private final RecentGameEvents recentEvents = new RecentGameEvents(new SimpleMeterRegistry());
+    private final UUID gameId = UUID.randomUUID();
+    private AnnotationConfigApplicationContext context;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(TransactionalEventListenerFactory.class);
+        context.registerBean(GameEventDispatcher.class, () -> new GameEventDispatcher(handler, recentEvents, 2));
+        context.refresh();
+        tx = new TransactionTemplate(new NoOpTransactionManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void eventsAreDeliveredOnlyAfterCommit() {
+        tx.executeWithoutResult(status -> {
+            context.publishEvent(new GameEvent.Finished(gameId, "HOST_WIN"));
+            verify(handler, after(100).never()).broadcastToGame(any(), any());
+        });
+
+        verify(handler, timeout(5000)).broadcastToGame(gameId, new GameSocketMessage.GameFinished(gameId, "HOST_WIN"));
+    }
+
+    @Test
+    void rolledBackEventsAreNeverDelivered() {
+        tx.executeWithoutResult(status -> {
+            context.publishEvent(new GameEvent.Finished(gameId, "HOST_WIN"));
+            status.setRollbackOnly();
+        });
+
+        verify(handler, after(200).never()).broadcastToGame(any(), any());
+    }
+
+    @Test
+    void eventsOfOneGameKeepTheirOrder() {
+        tx.executeWithoutResult(status -> {
+            context.publishEvent(new GameEvent.TimedOut(gameId, GameTimeoutService.Reason.TURN, "HOST"));
+            context.publishEvent(new GameEvent.Finished(gameId, "GUEST_WIN"));
+        });
+
+        InOrder order = inOrder(handler);
+        order.verify(handler, timeout(5000)).broadcastToGame(eq(gameId), any(GameSocketMessage.Timeout.class));
+        order.verify(handler, timeout(5000)).broadcastToGame(eq(gameId), any(GameSocketMessage.GameFinished.class));
+    }
+
+    @Test
+    void stateChangeSendsEachPlayerTheirOwnDelta() {
+        User host = User.builder().id(UUID.randomUUID()).username("host").build();
+        User guest = User.builder().id(UUID.randomUUID()).username("guest").build();
+        Game game = Game.builder().id(gameId).type(Game.GameType.ONLINE).host(host).guest(guest)
+                .status(Game.GameStatus.IN_PROGRESS).currentTurn(Game.Turn.GUEST).build();
+        BoardModel hostBoard = new BoardModel();
+        hostBoard.placeShip(1, 0, 0, true, 1);
+        BoardModel guestBoard = new BoardModel();
+        guestBoard.placeShip(1, 5, 5, true, 1);
+        ActiveGame before = new ActiveGame(game,
+                new ActiveGame.BoardState(UUID.randomUUID(), 3, hostBoard),
+                new ActiveGame.BoardState(UUID.randomUUID(), 3, guestBoard));
+        BoardModel shotAt = guestBoard.copy();
+        shotAt.shoot(2, 2);
+        ActiveGame after = new ActiveGame(game, before.hostBoard(),
+                new ActiveGame.BoardState(before.opponentBoard().boardId(), 4, shotAt));
+
+        context.publishEvent(new GameEvent.StateChanged(game, before, after, false, false, false));
+
+        ArgumentCaptor<GameSocketMessage> toHost = ArgumentCaptor.forClass(GameSocketMessage.class);
+        ArgumentCaptor<GameSocketMessage> toGuest = ArgumentCaptor.forClass(GameSocketMessage.class);
+        verify(handler, timeout(5000)).sendToUser(eq(gameId), eq("host"), toHost.capture());
+        verify(handler, timeout(5000)).sendToUser(eq(gameId), eq("guest"), toGuest.capture());
+        var hostDelta = (GameSocketMessage.GameStateDelta) toHost.getValue();
+        var guestDelta = (GameSocketMessage.GameStateDelta) toGuest.getValue();
+
+        assertThat(hostDelta.baseSeq()).isEqualTo(6);
+        assertThat(hostDelta.seq()).isEqualTo(7);
+        assertThat(hostDelta.playerCells()).isEmpty();
+        assertThat(hostDelta.enemyCells()).containsExactly(2, 2, 2);
+        assertThat(guestDelta.playerCells()).containsExactly(2, 2, 2);
+        assertThat(guestDelta.enemyCells()).isEmpty();
+        assertThat(guestDelta.checksum()).isEqualTo(BoardModel.checksum(shotAt.toIntArray(true), hostBoard.toIntArray(false)));
+        verify(handler, never()).broadcastToGame(any(), any());
+        assertThat(recentEvents.since(gameId, "guest", 6)).contains(List.of(guestDelta));
+    }
+
+    @Test
+    void spectatorsGetOneDeltaWithoutShips() {
+        when(handler.hasSpectators(gameId)).thenReturn(true);
+        User host = User.builder().id(UUID.randomUUID()).username("host").build();
+        User guest = User.builder().id(UUID.randomUUID()).username("guest").build();
+        Game game = Game.builder().id(gameId).type(Game.GameType.ONLINE).host(host).guest(guest)
+                .status(Game.GameStatus.IN_PROGRESS).currentTurn(Game.Turn.GUEST).build();
+        BoardModel hostBoard = new BoardModel();
+        hostBoard.placeShip(1, 0, 0, true, 1);
+        BoardModel guestBoard = new BoardModel();
+        guestBoard.placeShip(1, 5, 5, true, 1);
+        ActiveGame before = new ActiveGame(game,
+                new ActiveGame.BoardState(UUID.randomUUID(), 3, hostBoard),
+                new ActiveGame.BoardState(UUID.randomUUID(), 3, guestBoard));
+        BoardModel shotAt = hostBoard.copy();
+        shotAt.shoot(9, 9);
+        ActiveGame after = new ActiveGame(game,
+                new ActiveGame.BoardState(before.hostBoard().boardId(), 4, shotAt), before.opponentBoard());
+
+        context.publishEvent(new GameEvent.StateChanged(game, before, after, false, false, false));
+
+        ArgumentCaptor<GameSocketMessage> toSpectators = ArgumentCaptor.forClass(GameSocketMessage.class);
+        verify(handler, timeout(5000)).broadcastToSpectators(eq(gameId), toSpectators.capture());
+        var delta = (GameSocketMessage.GameStateDelta) toSpectators.getValue();
+        assertThat(delta.playerCells()).containsExactly(9, 9, 2);
+        assertThat(delta.enemyCells()).isEmpty();
+        assertThat(delta.checksum()).isEqualTo(BoardModel.checksum(shotAt.toIntArray(false), guestBoard.toIntArray(false)));
+    }
+
+    /** Just enough of a transaction manager to drive transaction synchronization. */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) { }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) { }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) { }
+    }
+}
@@ -0,0 +1,115 @@
+package com.seabattle.server;
+
+import com.seabattle.server.config.GameSessionReaper;
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameSessionReaperTest {
+
+    private final GameRepository gameRepository = mock(GameRepository.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final UUID gameId = UUID.randomUUID();
+    private GameWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new GameSocketHandlerBuilder()
+                .gameRepository(gameRepository)
+                .jwtUtil(jwtUtil)
+                .build();
+        UUID hostId = UUID.randomUUID();
+        Claims claims = Jwts.claims().setSubject("host");
+        claims.put("uid", hostId.toString());
+        claims.put("role", "USER");
+        when(jwtUtil.verify(anyString())).thenReturn(Optional.of(claims));
+        when(gameRepository.isParticipant(gameId, hostId)).thenReturn(true);
+    }
+
+    @Test
+    void idleSessionsAreClosedAndUnsubscribed() throws Exception {
+        WebSocketSession idle = connect("1");
+        handler.handleMessage(idle, new TextMessage("{\"type\":\"subscribe\",\"gameId\":\"" + gameId + "\"}"));
+        assertThat(handler.subscribedGames()).isEqualTo(1);
+
+        assertThat(handler.reapIdle(Duration.ZERO)).isEqualTo(1);
+
+        assertThat(handler.connectedSessions()).isZero();
+        assertThat(handler.subscribedGames()).isZero();
+        verify(idle).close(CloseStatus.SESSION_NOT_RELIABLE.withReason("Idle timeout"));
+    }
+
+    @Test
+    void pongKeepsTheSessionAlive() throws Exception {
+        WebSocketSession quiet = connect("1");
+        WebSocketSession answering = connect("2");
+        Thread.sleep(30);
+
+        handler.handleMessage(answering, new PongMessage());
+
+        assertThat(handler.reapIdle(Duration.ofMillis(20))).isEqualTo(1);
+        verify(quiet).close(any(CloseStatus.class));
+        verify(answering, never()).close(any(CloseStatus.class));
+        assertThat(handler.connectedSessions()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeatPingsLiveSessionsAndExportsMetrics() throws Exception {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        GameSessionReaper reaper = new GameSessionReaper(handler, meters, 60_000);
+        WebSocketSession session = connect("1");
+
+        reaper.heartbeat();
+
+        verify(session).sendMessage(any(PingMessage.class));
+        assertThat(meters.counter("ws.game.pings").count()).isEqualTo(1);
+        assertThat(meters.counter("ws.game.reaped").count()).isZero();
+        assertThat(meters.get("ws.game.sessions").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void closedSessionIsForgotten() throws Exception {
+        WebSocketSession session = connect("1");
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        assertThat(handler.connectedSessions()).isZero();
+        assertThat(handler.reapIdle(Duration.ZERO)).isZero();
+    }
+
+    private WebSocketSession connect(String id) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getUri()).thenReturn(new URI("ws://localhost/api/ws/game?token=t"));
+        handler.afterConnectionEstablished(session);
+        return session;
+    }
+}
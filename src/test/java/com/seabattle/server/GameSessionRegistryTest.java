@@ -0,0 +1,86 @@
+package com.seabattle.server;
+
+import com.seabattle.server.config.GameSessionRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GameSessionRegistryTest {
+
+    @Test
+    void indexesSubscriptionsByGameAndPlayerAndDropsThemOnClose() {
+        GameSessionRegistry registry = new GameSessionRegistry();
+        UUID gameA = UUID.randomUUID();
+        UUID gameB = UUID.randomUUID();
+        WebSocketSession hostTab1 = session("1");
+        WebSocketSession hostTab2 = session("2");
+        WebSocketSession guest = session("3");
+
+        registry.subscribe(gameA, "host", hostTab1);
+        registry.subscribe(gameB, "host", hostTab1);
+        registry.subscribe(gameA, "host", hostTab2);
+        registry.subscribe(gameA, "guest", guest);
+        registry.subscribe(gameA, "guest", guest);
+
+        assertThat(registry.sessions(gameA)).containsExactlyInAnyOrder(hostTab1, hostTab2, guest);
+        assertThat(registry.sessions(gameA, "host")).containsExactlyInAnyOrder(hostTab1, hostTab2);
+        assertThat(registry.sessions(gameA, "guest")).containsExactly(guest);
+        assertThat(registry.sessionCount()).isEqualTo(3);
+
+        assertThat(registry.unsubscribeAll(hostTab1, "host")).containsExactlyInAnyOrder(gameA, gameB);
+        assertThat(registry.sessions(gameA, "host")).containsExactly(hostTab2);
+        assertThat(registry.sessions(gameB)).isEmpty();
+        assertThat(registry.gameCount()).isEqualTo(1);
+
+        registry.unsubscribeAll(hostTab2, "host");
+        registry.unsubscribeAll(guest, "guest");
+        assertThat(registry.unsubscribeAll(guest, "guest")).isEmpty();
+        assertThat(registry.sessions(gameA)).isEmpty();
+        assertThat(registry.gameCount()).isZero();
+        assertThat(registry.sessionCount()).isZero();
+        assertThat(registry.allSessions()).isEmpty();
+    }
+
+    @Test
+    void removingAGameDropsOnlyItsSubscriptions() {
+        GameSessionRegistry registry = new GameSessionRegistry();
+        UUID gameA = UUID.randomUUID();
+        UUID gameB = UUID.randomUUID();
+        WebSocketSession host = session("1", "host");
+        WebSocketSession guest = session("2", "guest");
+
+        registry.subscribe(gameA, "host", host);
+        registry.subscribe(gameB, "host", host);
+        registry.subscribe(gameA, "guest", guest);
+
+        registry.removeGame(gameA);
+        registry.removeGame(gameA);
+
+        assertThat(registry.sessions(gameA)).isEmpty();
+        assertThat(registry.sessions(gameA, "host")).isEmpty();
+        assertThat(registry.sessions(gameA, "guest")).isEmpty();
+        assertThat(registry.sessions(gameB, "host")).containsExactly(host);
+        assertThat(registry.sessionCount()).isEqualTo(1);
+        assertThat(registry.unsubscribeAll(host, "host")).containsExactly(gameB);
+        assertThat(registry.gameCount()).isZero();
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        return session;
+    }
+
+    private static WebSocketSession session(String id, String username) {
+        WebSocketSession session = session(id);
+        when(session.getAttributes()).thenReturn(new HashMap<>(Map.of("username", username)));
+        return session;
+    }
+}
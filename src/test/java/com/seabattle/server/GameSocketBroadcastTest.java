@@ -0,0 +1,146 @@
+package com.seabattle.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seabattle.server.config.GameBinaryCodec;
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.service.ActiveGame;
+import com.seabattle.server.service.ActiveGameRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameSocketBroadcastTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void messagesKeepTheJsonShapeTheFrontendReads() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        JsonNode delta = mapper.readTree(mapper.writeValueAsString(new GameSocketMessage.GameStateDelta(
+                gameId, 7, 6, "GUEST", false, null, true, false, false, new int[]{1, 0, 3}, new int[0], 42)));
+
+        assertThat(delta.get("type").asText()).isEqualTo("gameStateDelta");
+        assertThat(delta.get("gameId").asText()).isEqualTo(gameId.toString());
+        assertThat(delta.get("currentTurn").asText()).isEqualTo("GUEST");
+        assertThat(delta.has("winner")).isTrue();
+        assertThat(delta.get("winner").isNull()).isTrue();
+        assertThat(delta.get("seq").asLong()).isEqualTo(7);
+        assertThat(delta.get("baseSeq").asLong()).isEqualTo(6);
+        assertThat(delta.get("playerCells").toString()).isEqualTo("[1,0,3]");
+        assertThat(delta.get("enemyCells").toString()).isEqualTo("[]");
+
+        JsonNode snapshot = mapper.readTree(mapper.writeValueAsString(new GameSocketMessage.GameSnapshot(
+                gameId, 7, "HOST", false, null, new int[][]{{1, 0}, {0, 3}}, new int[][]{{0, 0}, {2, 0}}, 42)));
+        assertThat(snapshot.get("type").asText()).isEqualTo("gameSnapshot");
+        assertThat(snapshot.get("playerBoard").toString()).isEqualTo("[[1,0],[0,3]]");
+
+        JsonNode ready = mapper.readTree(mapper.writeValueAsString(
+                new GameSocketMessage.PlayerReady(gameId, true, true, false, false, false, null)));
+        assertThat(ready.get("type").asText()).isEqualTo("playerReady");
+        assertThat(ready.get("isHost").asBoolean()).isTrue();
+        assertThat(ready.has("currentTurn")).isFalse();
+
+        JsonNode finished = mapper.readTree(mapper.writeValueAsString(new GameSocketMessage.GameFinished(gameId, "HOST_WIN")));
+        assertThat(finished.get("type").asText()).isEqualTo("gameFinished");
+        assertThat(finished.get("gameFinished").asBoolean()).isTrue();
+    }
+
+    @Test
+    void broadcastSerializesOnceAndSendsTheSameFrameToEverySubscriber() throws Exception {
+        User host = User.builder().id(UUID.randomUUID()).username("host").build();
+        User guest = User.builder().id(UUID.randomUUID()).username("guest").build();
+        Game game = Game.builder().id(UUID.randomUUID()).type(Game.GameType.ONLINE).host(host).guest(guest).build();
+        ActiveGame active = new ActiveGame(game,
+                new ActiveGame.BoardState(UUID.randomUUID(), 0, new BoardModel()),
+                new ActiveGame.BoardState(UUID.randomUUID(), 0, new BoardModel()));
+        ActiveGameRegistry registry = mock(ActiveGameRegistry.class);
+        when(registry.peek(game.getId())).thenReturn(Optional.of(active));
+
+        GameWebSocketHandler handler = new GameSocketHandlerBuilder().activeGameRegistry(registry).build();
+        WebSocketSession hostTab1 = session("1", host);
+        WebSocketSession hostTab2 = session("2", host);
+        WebSocketSession guestTab = session("3", guest);
+        for (WebSocketSession s : List.of(hostTab1, hostTab2, guestTab)) {
+            handler.handleMessage(s, new TextMessage("{\"type\":\"subscribe\",\"gameId\":\"" + game.getId() + "\"}"));
+        }
+
+        handler.broadcastToGame(game.getId(), new GameSocketMessage.GameFinished(game.getId(), "GUEST_WIN"));
+        handler.sendToUser(game.getId(), "host", new GameSocketMessage.RematchDeclined(game.getId()));
+
+        TextMessage finished = lastFrame(guestTab);
+        assertThat(finished.getPayload()).contains("\"gameFinished\"");
+        assertThat(lastFrame(hostTab2)).isSameAs(lastFrame(hostTab1));
+        assertThat(lastFrame(hostTab1).getPayload()).contains("rematchDeclined");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void binarySessionsGetPerShotMessagesAsFrames() throws Exception {
+        User host = User.builder().id(UUID.randomUUID()).username("host").build();
+        Game game = Game.builder().id(UUID.randomUUID()).type(Game.GameType.ONLINE).host(host).build();
+        ActiveGame active = new ActiveGame(game,
+                new ActiveGame.BoardState(UUID.randomUUID(), 0, new BoardModel()),
+                new ActiveGame.BoardState(UUID.randomUUID(), 0, new BoardModel()));
+        ActiveGameRegistry registry = mock(ActiveGameRegistry.class);
+        when(registry.peek(game.getId())).thenReturn(Optional.of(active));
+        GameWebSocketHandler handler = new GameSocketHandlerBuilder().activeGameRegistry(registry).build();
+        assertThat(handler.getSubProtocols()).containsExactly(GameBinaryCodec.PROTOCOL);
+
+        WebSocketSession binaryTab = session("1", host);
+        when(binaryTab.getAcceptedProtocol()).thenReturn(GameBinaryCodec.PROTOCOL);
+        WebSocketSession jsonTab = session("2", host);
+        for (WebSocketSession s : List.of(binaryTab, jsonTab)) {
+            handler.handleMessage(s, new TextMessage("{\"type\":\"subscribe\",\"gameId\":\"" + game.getId() + "\"}"));
+        }
+
+        GameSocketMessage finished = new GameSocketMessage.GameFinished(game.getId(), "HOST_WIN");
+        handler.broadcastToGame(game.getId(), finished);
+        ArgumentCaptor<WebSocketMessage<?>> binaryFrames = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(binaryTab, atLeastOnce()).sendMessage(binaryFrames.capture());
+        assertThat(binaryFrames.getValue()).isInstanceOf(BinaryMessage.class);
+        assertThat(GameBinaryCodec.decode((ByteBuffer) binaryFrames.getValue().getPayload())).isEqualTo(finished);
+        assertThat(lastFrame(jsonTab).getPayload()).contains("\"gameFinished\"");
+
+        handler.sendToUser(game.getId(), "host", new GameSocketMessage.RematchDeclined(game.getId()));
+        verify(binaryTab, atLeastOnce()).sendMessage(binaryFrames.capture());
+        assertThat(binaryFrames.getValue()).isInstanceOf(TextMessage.class);
+    }
+
+    private static WebSocketSession session(String id, User user) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("username", user.getUsername());
+        attributes.put("userId", user.getId());
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+
+    private static TextMessage lastFrame(WebSocketSession session) throws Exception {
+        ArgumentCaptor<TextMessage> frames = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(frames.capture());
+        return frames.getValue();
+    }
+}
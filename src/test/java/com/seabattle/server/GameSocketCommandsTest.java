@@ -0,0 +1,133 @@
+package com.seabattle.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.dto.AttackResult;
+import com.seabattle.server.dto.PlaceShipsRequest;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.service.GameCommandDispatcher;
+import com.seabattle.server.service.GameCommandRetry;
+import com.seabattle.server.service.GameService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameSocketCommandsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameService gameService = mock(GameService.class);
+    private final UUID gameId = UUID.randomUUID();
+    private final UUID hostId = UUID.randomUUID();
+    private GameWebSocketHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        GameCommandRetry retry = new GameCommandRetry();
+        ReflectionTestUtils.setField(retry, "maxAttempts", 1);
+        handler = new GameSocketHandlerBuilder()
+                .gameService(gameService)
+                .commands(new GameCommandDispatcher(retry, 2))
+                .build();
+        session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("username", "host");
+        attributes.put("userId", hostId);
+        when(session.getId()).thenReturn("1");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+    }
+
+    @Test
+    void attackIsAckedWithTheShotResult() throws Exception {
+        AttackResult result = new AttackResult();
+        result.setHit(true);
+        result.setCurrentTurn("HOST");
+        when(gameService.attack(gameId, hostId, 3, 4)).thenReturn(result);
+
+        JsonNode ack = command("{\"type\":\"attack\",\"requestId\":\"r1\",\"gameId\":\"" + gameId + "\",\"x\":3,\"y\":4}");
+
+        assertThat(ack.get("type").asText()).isEqualTo("ack");
+        assertThat(ack.get("requestId").asText()).isEqualTo("r1");
+        assertThat(ack.get("ok").asBoolean()).isTrue();
+        assertThat(ack.get("result").get("hit").asBoolean()).isTrue();
+        assertThat(ack.get("result").get("currentTurn").asText()).isEqualTo("HOST");
+        assertThat(ack.get("result").has("playerBoard")).isFalse();
+        assertThat(ack.has("status")).isFalse();
+    }
+
+    @Test
+    void rejectedCommandIsAckedWithTheRestStatus() throws Exception {
+        when(gameService.attack(any(), any(), anyInt(), anyInt()))
+                .thenThrow(new IllegalStateException("Сейчас не ваш ход"));
+
+        JsonNode ack = command("{\"type\":\"attack\",\"requestId\":\"r2\",\"gameId\":\"" + gameId + "\",\"x\":0,\"y\":0}");
+
+        assertThat(ack.get("ok").asBoolean()).isFalse();
+        assertThat(ack.get("status").asInt()).isEqualTo(403);
+        assertThat(ack.get("message").asText()).isEqualTo("Сейчас не ваш ход");
+    }
+
+    @Test
+    void coordinatesOutsideTheBoardAreRejected() throws Exception {
+        JsonNode ack = command("{\"type\":\"attack\",\"requestId\":\"r3\",\"gameId\":\"" + gameId + "\",\"x\":10,\"y\":0}");
+
+        assertThat(ack.get("status").asInt()).isEqualTo(400);
+        verify(gameService, never()).attack(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void readyAndPlacementAreRoutedToTheGameService() throws Exception {
+        Game game = Game.builder().id(gameId).hostReady(true).guestReady(true).status(Game.GameStatus.IN_PROGRESS).build();
+        when(gameService.markReady(gameId, hostId)).thenReturn(game);
+
+        JsonNode ready = command("{\"type\":\"ready\",\"requestId\":\"r4\",\"gameId\":\"" + gameId + "\"}");
+        assertThat(ready.get("result").get("bothReady").asBoolean()).isTrue();
+        assertThat(ready.get("result").get("gameStarted").asBoolean()).isTrue();
+
+        JsonNode placed = command("{\"type\":\"placeShips\",\"requestId\":\"r5\",\"gameId\":\"" + gameId
+                + "\",\"ships\":[{\"id\":1}]}");
+        assertThat(placed.get("ok").asBoolean()).isTrue();
+        ArgumentCaptor<PlaceShipsRequest> request = ArgumentCaptor.forClass(PlaceShipsRequest.class);
+        verify(gameService).placeShipsOnline(eq(gameId), eq(hostId), request.capture());
+        assertThat(request.getValue().getShips()).hasSize(1);
+
+        command("{\"type\":\"surrender\",\"requestId\":\"r6\",\"gameId\":\"" + gameId + "\"}");
+        verify(gameService).surrenderOnline(gameId, hostId);
+    }
+
+    @Test
+    void unauthenticatedSessionIsRefused() throws Exception {
+        session.getAttributes().remove("userId");
+
+        JsonNode ack = command("{\"type\":\"surrender\",\"requestId\":\"r7\",\"gameId\":\"" + gameId + "\"}");
+
+        assertThat(ack.get("status").asInt()).isEqualTo(401);
+        verify(gameService, never()).surrenderOnline(any(), any());
+    }
+
+    private JsonNode command(String json) throws Exception {
+        handler.handleMessage(session, new TextMessage(json));
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(sent.capture());
+        return mapper.readTree(sent.getValue().getPayload());
+    }
+}
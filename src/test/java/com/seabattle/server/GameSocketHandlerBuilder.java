@@ -0,0 +1,104 @@
+package com.seabattle.server;
+
+import com.seabattle.server.config.GameSocketCommands;
+import com.seabattle.server.config.GameSocketParticipation;
+import com.seabattle.server.config.GameSocketPlayers;
+import com.seabattle.server.config.GameSocketResume;
+import com.seabattle.server.config.GameSocketSender;
+import com.seabattle.server.config.GameSocketSpectators;
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.config.OutboundQueues;
+import com.seabattle.server.config.SpectatorHub;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.service.ActiveGameRegistry;
+import com.seabattle.server.service.GameCommandDispatcher;
+import com.seabattle.server.service.GameService;
+import com.seabattle.server.service.RecentGameEvents;
+import com.seabattle.server.service.RematchService;
+import com.seabattle.server.service.UserAccessRegistry;
+import com.seabattle.server.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Game WebSocket handler wired with its real components for the socket tests. Collaborators
+ * default to mocks, every token is still honoured and the players' queue sends on the calling
+ * thread; a test replaces only what it looks at.
+ */
+class GameSocketHandlerBuilder {
+
+    private UserAccessRegistry userAccess = allowingEveryone();
+    private GameRepository gameRepository = mock(GameRepository.class);
+    private JwtUtil jwtUtil = mock(JwtUtil.class);
+    private RematchService rematchService = mock(RematchService.class);
+    private ActiveGameRegistry activeGameRegistry = mock(ActiveGameRegistry.class);
+    private GameService gameService = mock(GameService.class);
+    private GameCommandDispatcher commands = mock(GameCommandDispatcher.class);
+    private OutboundQueues outbound = new OutboundQueues(new SimpleMeterRegistry(), Runnable::run, 5000, 65536);
+    private SpectatorHub spectators = mock(SpectatorHub.class);
+    private RecentGameEvents recentEvents = mock(RecentGameEvents.class);
+
+    GameSocketHandlerBuilder userAccess(UserAccessRegistry userAccess) {
+        this.userAccess = userAccess;
+        return this;
+    }
+
+    GameSocketHandlerBuilder gameRepository(GameRepository gameRepository) {
+        this.gameRepository = gameRepository;
+        return this;
+    }
+
+    GameSocketHandlerBuilder jwtUtil(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+        return this;
+    }
+
+    GameSocketHandlerBuilder activeGameRegistry(ActiveGameRegistry activeGameRegistry) {
+        this.activeGameRegistry = activeGameRegistry;
+        return this;
+    }
+
+    GameSocketHandlerBuilder gameService(GameService gameService) {
+        this.gameService = gameService;
+        return this;
+    }
+
+    GameSocketHandlerBuilder commands(GameCommandDispatcher commands) {
+        this.commands = commands;
+        return this;
+    }
+
+    GameSocketHandlerBuilder outbound(OutboundQueues outbound) {
+        this.outbound = outbound;
+        return this;
+    }
+
+    GameSocketHandlerBuilder spectators(SpectatorHub spectators) {
+        this.spectators = spectators;
+        return this;
+    }
+
+    GameSocketHandlerBuilder recentEvents(RecentGameEvents recentEvents) {
+        this.recentEvents = recentEvents;
+        return this;
+    }
+
+    GameWebSocketHandler build() {
+        GameSocketSender sender = new GameSocketSender(outbound, spectators);
+        GameSocketResume resume = new GameSocketResume(recentEvents, sender);
+        GameSocketParticipation participation = new GameSocketParticipation(gameRepository, activeGameRegistry);
+        return new GameWebSocketHandler(userAccess, jwtUtil, sender,
+                new GameSocketPlayers(gameService, rematchService, participation, sender, resume),
+                new GameSocketCommands(gameService, commands, sender),
+                new GameSocketSpectators(gameService, spectators, sender, resume));
+    }
+
+    private static UserAccessRegistry allowingEveryone() {
+        UserAccessRegistry userAccess = mock(UserAccessRegistry.class);
+        when(userAccess.allows(any(), any())).thenReturn(true);
+        return userAccess;
+    }
+}
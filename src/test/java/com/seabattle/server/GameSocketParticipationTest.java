@@ -0,0 +1,143 @@
+package com.seabattle.server;
+
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.service.UserAccessChanged;
+import com.seabattle.server.service.UserAccessRegistry;
+import com.seabattle.server.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameSocketParticipationTest {
+
+    private static final CloseStatus REVOKED = CloseStatus.POLICY_VIOLATION.withReason("Access revoked");
+
+    private final GameRepository gameRepository = mock(GameRepository.class);
+    private final UserAccessRegistry userAccess = mock(UserAccessRegistry.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final UUID gameId = UUID.randomUUID();
+    private final UUID hostId = UUID.randomUUID();
+    private GameWebSocketHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        handler = new GameSocketHandlerBuilder()
+                .userAccess(userAccess)
+                .gameRepository(gameRepository)
+                .jwtUtil(jwtUtil)
+                .build();
+        Claims claims = Jwts.claims().setSubject("host");
+        claims.put("uid", hostId.toString());
+        claims.put("role", "USER");
+        when(jwtUtil.verify(anyString())).thenReturn(Optional.of(claims));
+        when(userAccess.allows(hostId, "USER")).thenReturn(true);
+        when(gameRepository.isParticipant(gameId, hostId)).thenReturn(true);
+
+        session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        when(session.getId()).thenReturn("1");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getUri()).thenReturn(new URI("ws://localhost/api/ws/game?token=t"));
+        handler.afterConnectionEstablished(session);
+    }
+
+    @Test
+    void userIsTakenFromTheTokenAndParticipationCheckedOncePerSession() throws Exception {
+        subscribe();
+        subscribe();
+        subscribe();
+
+        assertThat(session.getAttributes()).containsEntry("username", "host").containsEntry("userId", hostId);
+        verify(jwtUtil, times(1)).verify("t");
+        verify(gameRepository, times(1)).isParticipant(gameId, hostId);
+        verify(gameRepository, never()).findById(any());
+        assertThat(handler.subscribedGames()).isEqualTo(1);
+    }
+
+    @Test
+    void deletingTheGameDropsSubscriptionsAndCachedParticipation() throws Exception {
+        subscribe();
+
+        handler.forgetGame(gameId);
+        assertThat(handler.subscribedGames()).isZero();
+
+        when(gameRepository.isParticipant(gameId, hostId)).thenReturn(false);
+        subscribe();
+        assertThat(handler.subscribedGames()).isZero();
+        verify(gameRepository, times(2)).isParticipant(gameId, hostId);
+    }
+
+    @Test
+    void revokedTokenIsRefusedAtTheHandshake() throws Exception {
+        when(userAccess.allows(hostId, "USER")).thenReturn(false);
+        WebSocketSession blocked = mock(WebSocketSession.class);
+        when(blocked.getId()).thenReturn("2");
+        when(blocked.getAttributes()).thenReturn(new HashMap<>());
+        when(blocked.getUri()).thenReturn(new URI("ws://localhost/api/ws/game?token=t"));
+
+        handler.afterConnectionEstablished(blocked);
+
+        verify(blocked).close(CloseStatus.POLICY_VIOLATION.withReason("Invalid token"));
+        assertThat(handler.connectedSessions()).isEqualTo(1);
+    }
+
+    @Test
+    void blockingTheUserClosesTheOpenSession() throws Exception {
+        subscribe();
+
+        handler.on(new UserAccessChanged(hostId, User.Role.USER, User.Status.BLOCKED, false));
+
+        verify(session).close(REVOKED);
+        assertThat(handler.connectedSessions()).isZero();
+        assertThat(handler.subscribedGames()).isZero();
+    }
+
+    @Test
+    void otherUsersChangesLeaveTheSessionOpen() throws Exception {
+        subscribe();
+
+        handler.on(UserAccessChanged.deleted(UUID.randomUUID()));
+        handler.on(new UserAccessChanged(hostId, User.Role.USER, User.Status.ACTIVE, false));
+
+        verify(session, never()).close(any(CloseStatus.class));
+        assertThat(handler.subscribedGames()).isEqualTo(1);
+    }
+
+    @Test
+    void messagesAfterARevocationCloseTheSessionUnhandled() throws Exception {
+        when(userAccess.allows(hostId, "USER")).thenReturn(false);
+
+        subscribe();
+
+        verify(session).close(REVOKED);
+        verify(gameRepository, never()).isParticipant(any(), any());
+        assertThat(handler.connectedSessions()).isZero();
+    }
+
+    private void subscribe() throws Exception {
+        handler.handleMessage(session, new TextMessage("{\"type\":\"subscribe\",\"gameId\":\"" + gameId + "\"}"));
+    }
+}
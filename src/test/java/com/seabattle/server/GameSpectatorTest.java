@@ -0,0 +1,153 @@
+package com.seabattle.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seabattle.server.config.GameWebSocketHandler;
+import com.seabattle.server.config.OutboundQueues;
+import com.seabattle.server.config.SpectatorHub;
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.service.GameService;
+import com.seabattle.server.service.RecentGameEvents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameSpectatorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameService gameService = mock(GameService.class);
+    private final UUID gameId = UUID.randomUUID();
+    private final List<Object> playerFrames = new ArrayList<>();
+    private SpectatorHub hub;
+    private RecentGameEvents recentEvents;
+    private GameWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        hub = new SpectatorHub(new SimpleMeterRegistry(),
+                new OutboundQueues(new SimpleMeterRegistry(), "ws.spectators.outbound", Runnable::run, 5000, 16384), 2);
+        recentEvents = new RecentGameEvents(new SimpleMeterRegistry());
+        handler = new GameSocketHandlerBuilder()
+                .gameService(gameService)
+                .outbound(new OutboundQueues(new SimpleMeterRegistry(), r -> playerFrames.add(r), 5000, 65536))
+                .spectators(hub)
+                .recentEvents(recentEvents)
+                .build();
+        when(gameService.isSpectatable(gameId)).thenReturn(true);
+        int[][] empty = new int[10][10];
+        when(gameService.spectatorSnapshot(gameId)).thenReturn(new GameSocketMessage.GameSnapshot(
+                gameId, 6, "HOST", false, null, empty, empty, 0));
+    }
+
+    @Test
+    void spectatorGetsTheFogOfWarSnapshotAndViewersAreCapped() throws Exception {
+        WebSocketSession first = spectator("1");
+        WebSocketSession second = spectator("2");
+        WebSocketSession third = spectator("3");
+
+        spectate(first);
+        spectate(second);
+        spectate(third);
+
+        List<JsonNode> toFirst = received(first);
+        assertThat(toFirst).extracting(n -> n.get("type").asText()).containsExactly("spectating", "gameSnapshot");
+        assertThat(toFirst.get(1).get("seq").asLong()).isEqualTo(6);
+        assertThat(received(third)).extracting(n -> n.get("type").asText()).containsExactly("error");
+        assertThat(hub.viewerCount()).isEqualTo(2);
+        assertThat(playerFrames).as("spectators never use the players' senders").isEmpty();
+    }
+
+    @Test
+    void gamesThatAreNotFeaturedCannotBeWatched() throws Exception {
+        WebSocketSession viewer = spectator("1");
+        UUID privateGame = UUID.randomUUID();
+
+        handler.handleMessage(viewer, new TextMessage("{\"type\":\"spectate\",\"gameId\":\"" + privateGame + "\"}"));
+
+        assertThat(received(viewer).get(0).get("message").asText()).isEqualTo("Game is not open to spectators");
+        assertThat(hub.viewerCount()).isZero();
+        verify(gameService, never()).spectatorSnapshot(privateGame);
+    }
+
+    @Test
+    void spectatorsCannotSendCommands() throws Exception {
+        WebSocketSession viewer = spectator("1");
+
+        handler.handleMessage(viewer, new TextMessage(
+                "{\"type\":\"attack\",\"requestId\":\"r1\",\"gameId\":\"" + gameId + "\",\"x\":1,\"y\":1}"));
+
+        assertThat(received(viewer).get(0).get("message").asText()).isEqualTo("Spectator sessions are read-only");
+        verify(gameService, never()).attack(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void broadcastIsSerializedOnceForAllViewers() throws Exception {
+        WebSocketSession first = spectator("1");
+        WebSocketSession second = spectator("2");
+        spectate(first);
+        spectate(second);
+
+        handler.broadcastToSpectators(gameId, new GameSocketMessage.GameFinished(gameId, "HOST_WIN"));
+
+        Object toFirst = last(first);
+        Object toSecond = last(second);
+        assertThat(toFirst).isSameAs(toSecond);
+
+        handler.afterConnectionClosed(first, CloseStatus.NORMAL);
+        assertThat(hub.viewerCount()).isEqualTo(1);
+    }
+
+    private WebSocketSession spectator(String id) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getUri()).thenReturn(new URI("ws://localhost/api/ws/game?mode=spectator"));
+        handler.afterConnectionEstablished(session);
+        return session;
+    }
+
+    private void spectate(WebSocketSession session) throws Exception {
+        handler.handleMessage(session, new TextMessage("{\"type\":\"spectate\",\"gameId\":\"" + gameId + "\"}"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JsonNode> received(WebSocketSession session) throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass((Class) WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(sent.capture());
+        List<JsonNode> messages = new ArrayList<>();
+        for (WebSocketMessage<?> m : sent.getAllValues()) {
+            messages.add(mapper.readTree((String) m.getPayload()));
+        }
+        return messages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object last(WebSocketSession session) throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass((Class) WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(sent.capture());
+        return sent.getValue();
+    }
+}
@@ -0,0 +1,56 @@
+package com.seabattle.server;
+
+import com.seabattle.server.engine.BoardModel;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameStateDeltaTest {
+
+    @Test
+    void missChangesOneCell() {
+        BoardModel board = new BoardModel();
+        board.placeShip(1, 0, 0, true, 2);
+        int[][] before = board.toIntArray(false);
+
+        board.shoot(5, 5);
+
+        assertThat(BoardModel.changedCells(before, board.toIntArray(false))).containsExactly(5, 5, 2);
+    }
+
+    @Test
+    void sinkingShotCarriesTheHitAndTheHalo() {
+        BoardModel board = new BoardModel();
+        board.placeShip(1, 0, 0, true, 2);
+        board.shoot(0, 0);
+        int[][] before = board.toIntArray(false);
+
+        board.shoot(0, 1);
+        int[] changed = BoardModel.changedCells(before, board.toIntArray(false));
+
+        // (0,1) becomes HIT; (0,2), (1,0), (1,1), (1,2) become the sunk halo
+        assertThat(changed).hasSize(5 * 3);
+        assertThat(changed).startsWith(0, 1, 3, 0, 2, 4);
+    }
+
+    @Test
+    void unchangedBoardsGiveNoCells() {
+        BoardModel board = BoardModel.autoPlaceRandom();
+        assertThat(BoardModel.changedCells(board.toIntArray(true), board.toIntArray(true))).isEmpty();
+    }
+
+    @Test
+    void checksumFollowsEveryCellAndBoardOrder() {
+        BoardModel own = BoardModel.autoPlaceRandom();
+        BoardModel enemy = new BoardModel();
+        int[][] ownView = own.toIntArray(true);
+        int[][] enemyView = enemy.toIntArray(false);
+        int checksum = BoardModel.checksum(ownView, enemyView);
+
+        assertThat(BoardModel.checksum(own.copy().toIntArray(true), enemyView)).isEqualTo(checksum);
+        assertThat(BoardModel.checksum(enemyView, ownView)).isNotEqualTo(checksum);
+
+        enemy.shoot(9, 9);
+        assertThat(BoardModel.checksum(ownView, enemy.toIntArray(false))).isNotEqualTo(checksum);
+    }
+}
@@ -0,0 +1,70 @@
+package com.seabattle.server;
+
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.GameHistory;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.GameHistoryRepository;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.service.GameTimeoutService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.game.timeouts.turn-seconds=1",
+        "app.game.timeouts.tick-ms=10"
+})
+@ActiveProfiles("test")
+class GameTimeoutServiceTest {
+
+    @Autowired
+    private GameTimeoutService gameTimeouts;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameHistoryRepository historyRepository;
+
+    @Test
+    void playerOnTurnForfeitsWhenTurnClockRunsOut() throws Exception {
+        User host = user("host");
+        User guest = user("guest");
+        UUID gameId = gameRepository.save(Game.builder()
+                .type(Game.GameType.ONLINE)
+                .host(host)
+                .guest(guest)
+                .status(Game.GameStatus.IN_PROGRESS)
+                .currentTurn(Game.Turn.GUEST)
+                .build()).getId();
+
+        gameTimeouts.turnStarted(gameId);
+        assertThat(gameTimeouts.trackedGames()).isPositive();
+
+        Game game = gameRepository.findById(gameId).orElseThrow();
+        for (int i = 0; i < 100 && game.getStatus() != Game.GameStatus.FINISHED; i++) {
+            Thread.sleep(50);
+            game = gameRepository.findById(gameId).orElseThrow();
+        }
+
+        assertThat(game.getStatus()).isEqualTo(Game.GameStatus.FINISHED);
+        assertThat(game.getResult()).isEqualTo(Game.GameResult.HOST_WIN);
+        assertThat(historyRepository.findAll().stream()
+                .filter(h -> h.getPlayer().getId().equals(guest.getId()))
+                .map(GameHistory::getResult))
+                .containsExactly("LOSS");
+    }
+
+    private User user(String prefix) {
+        return userRepository.save(User.builder()
+                .username(prefix + "-" + UUID.randomUUID().toString().substring(0, 8))
+                .passwordHash("x")
+                .build());
+    }
+}
@@ -0,0 +1,96 @@
+package com.seabattle.server;
+
+import com.seabattle.server.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private final Instant now = Instant.parse("2026-01-01T12:00:00Z");
+    private JwtUtil jwt;
+
+    @BeforeEach
+    void setUp() {
+        jwt = jwtAt(now);
+    }
+
+    @Test
+    void verifiedTokenIsCachedAndServesBothChecks() {
+        String token = jwt.generateToken(UUID.randomUUID(), "alice", "USER");
+
+        assertThat(jwt.validateToken(token)).isTrue();
+        assertThat(jwt.extractUsername(token)).isEqualTo("alice");
+        assertThat(jwt.verifiedUsername(token)).contains("alice");
+        assertThat(jwt.cachedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void forgedAndMalformedTokensAreRejectedAndNotCached() {
+        String token = jwt.generateToken(UUID.randomUUID(), "alice", "USER");
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwt.verifiedUsername(forged)).isEmpty();
+        assertThat(jwt.validateToken("not-a-jwt")).isFalse();
+        assertThat(jwt.validateToken(null)).isFalse();
+        assertThatThrownBy(() -> jwt.extractUsername("not-a-jwt")).isInstanceOf(io.jsonwebtoken.JwtException.class);
+        assertThat(jwt.cachedTokens()).isZero();
+    }
+
+    @Test
+    void cachedTokenStopsBeingValidWhenItExpires() {
+        String token = jwt.generateToken(UUID.randomUUID(), "alice", "USER");
+        assertThat(jwt.validateToken(token)).isTrue();
+
+        ReflectionTestUtils.setField(jwt, "clock", Clock.fixed(now.plus(Duration.ofHours(25)), ZoneOffset.UTC));
+
+        assertThat(jwt.validateToken(token)).isFalse();
+        assertThat(jwt.cachedTokens()).isZero();
+    }
+
+    @Test
+    void fullCacheStillVerifiesNewTokens() {
+        ReflectionTestUtils.setField(jwt, "cacheMaxSize", 1);
+        String first = jwt.generateToken(UUID.randomUUID(), "alice", "USER");
+        String second = jwt.generateToken(UUID.randomUUID(), "bob", "USER");
+
+        assertThat(jwt.validateToken(first)).isTrue();
+        assertThat(jwt.verifiedUsername(second)).contains("bob");
+        assertThat(jwt.cachedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void fullCacheIsSweptAtMostOncePerInterval() {
+        ReflectionTestUtils.setField(jwt, "cacheMaxSize", 1);
+        ReflectionTestUtils.setField(jwt, "expirationMs", Duration.ofMinutes(1).toMillis());
+        assertThat(jwt.validateToken(jwt.generateToken(UUID.randomUUID(), "alice", "USER"))).isTrue();
+        ReflectionTestUtils.setField(jwt, "expirationMs", Duration.ofHours(24).toMillis());
+
+        Instant later = now.plus(Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(jwt, "clock", Clock.fixed(later, ZoneOffset.UTC));
+        assertThat(jwt.validateToken(jwt.generateToken(UUID.randomUUID(), "bob", "USER"))).isTrue();
+        assertThat(jwt.cachedTokens()).as("expired alice swept, bob cached").isEqualTo(1);
+
+        ReflectionTestUtils.setField(jwt, "clock", Clock.fixed(later.plusMillis(1), ZoneOffset.UTC));
+        assertThat(jwt.validateToken(jwt.generateToken(UUID.randomUUID(), "carol", "USER"))).isTrue();
+        assertThat(jwt.cachedTokens()).as("full and not due for a sweep").isEqualTo(1);
+    }
+
+    private static JwtUtil jwtAt(Instant instant) {
+        JwtUtil jwt = new JwtUtil();
+        ReflectionTestUtils.setField(jwt, "secret", "test-secret-test-secret-test-secret-0123456789");
+        ReflectionTestUtils.setField(jwt, "expirationMs", Duration.ofHours(24).toMillis());
+        ReflectionTestUtils.setField(jwt, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+        ReflectionTestUtils.invokeMethod(jwt, "init");
+        return jwt;
+    }
+}
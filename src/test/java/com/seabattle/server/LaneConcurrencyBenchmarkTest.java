@@ -0,0 +1,86 @@
+package com.seabattle.server;
+
+import com.seabattle.server.service.GameCommandDispatcher;
+import com.seabattle.server.service.GameCommandRetry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * How many games can run a blocking command (a lane waiting on JDBC) at once in the platform-thread
+ * mode versus the virtual-thread mode. Not part of {@code mvn test}; run with
+ * {@code mvn -Pbenchmark test}, and with {@code -Pvirtual-threads,benchmark} on Java 21 for the
+ * virtual half. Results are logged so runs on different machines can be compared.
+ */
+@Tag("benchmark")
+class LaneConcurrencyBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LaneConcurrencyBenchmarkTest.class);
+
+    /** Default app.game.lanes.workers. */
+    private static final int WORKERS = 16;
+    private static final int GAMES = 1000;
+    private static final long BLOCK_MS = 50;
+
+    @Test
+    void platformLanesAreCappedAtTheWorkerCount() throws Exception {
+        Result result = run(new MockEnvironment());
+        log.info("platform lanes: peak {} games blocked at once, {} ms for {} games", result.peak, result.millis, GAMES);
+        assertThat(result.peak).isLessThanOrEqualTo(WORKERS);
+    }
+
+    @Test
+    void virtualLanesAreNotCappedByAPool() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+        Result result = run(new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+        log.info("virtual lanes: peak {} games blocked at once, {} ms for {} games", result.peak, result.millis, GAMES);
+        assertThat(result.peak).isGreaterThan(WORKERS);
+    }
+
+    private static Result run(MockEnvironment env) throws InterruptedException {
+        GameCommandDispatcher dispatcher = new GameCommandDispatcher(new GameCommandRetry(), WORKERS, env);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(GAMES);
+        ExecutorService callers = Executors.newCachedThreadPool();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < GAMES; i++) {
+                callers.execute(() -> {
+                    try {
+                        dispatcher.execute(UUID.randomUUID(), () -> {
+                            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                            try {
+                                Thread.sleep(BLOCK_MS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            } finally {
+                                inFlight.decrementAndGet();
+                            }
+                        });
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            callers.shutdownNow();
+        }
+        return new Result(peak.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private record Result(int peak, long millis) { }
+}
@@ -0,0 +1,85 @@
+package com.seabattle.server;
+
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.service.ActiveGame;
+import com.seabattle.server.service.LiveSnapshotCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveSnapshotCodecTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void liveGamesAndRematchesSurviveRoundTrip() throws Exception {
+        User host = User.builder().id(UUID.randomUUID()).username("host").build();
+        User guest = User.builder().id(UUID.randomUUID()).username("гость").avatar("/avatars/guest.png").build();
+        OffsetDateTime started = OffsetDateTime.of(2026, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+        Game game = Game.builder()
+                .id(UUID.randomUUID())
+                .type(Game.GameType.ONLINE)
+                .status(Game.GameStatus.IN_PROGRESS)
+                .host(host)
+                .guest(guest)
+                .hostReady(true)
+                .guestReady(true)
+                .currentTurn(Game.Turn.GUEST)
+                .startedAt(started)
+                .version(7L)
+                .build();
+
+        BoardModel hostBoard = BoardModel.autoPlaceRandom();
+        hostBoard.shoot(0, 0);
+        hostBoard.shoot(5, 5);
+        BoardModel guestBoard = new BoardModel();
+        guestBoard.placeShip(1, 2, 2, true, 1);
+        guestBoard.placeShip(2, 7, 3, false, 3);
+        guestBoard.shoot(2, 2);
+        guestBoard.shoot(7, 3);
+
+        ActiveGame active = new ActiveGame(game,
+                new ActiveGame.BoardState(UUID.randomUUID(), 4, hostBoard),
+                new ActiveGame.BoardState(UUID.randomUUID(), 5, guestBoard));
+        UUID finishedGame = UUID.randomUUID();
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Path file = dir.resolve("snapshots/live.bin");
+
+        LiveSnapshotCodec.write(file, new LiveSnapshotCodec.Snapshot(createdAt, List.of(active), Map.of(finishedGame, "гость")));
+        LiveSnapshotCodec.Snapshot restored = LiveSnapshotCodec.read(file);
+
+        assertThat(restored.createdAt()).isEqualTo(createdAt);
+        assertThat(restored.rematches()).containsExactly(Map.entry(finishedGame, "гость"));
+        assertThat(restored.games()).hasSize(1);
+
+        ActiveGame copy = restored.games().get(0);
+        assertThat(copy.id()).isEqualTo(game.getId());
+        assertThat(copy.game().getStatus()).isEqualTo(Game.GameStatus.IN_PROGRESS);
+        assertThat(copy.game().getResult()).isNull();
+        assertThat(copy.game().getCurrentTurn()).isEqualTo(Game.Turn.GUEST);
+        assertThat(copy.game().getStartedAt().toInstant()).isEqualTo(started.toInstant());
+        assertThat(copy.game().getFinishedAt()).isNull();
+        assertThat(copy.game().getVersion()).isEqualTo(7L);
+        assertThat(copy.participant(guest.getId()).getUsername()).isEqualTo("гость");
+        assertThat(copy.participant(guest.getId()).getAvatar()).isEqualTo("/avatars/guest.png");
+        assertThat(copy.participant(host.getId()).getAvatar()).isNull();
+        assertThat(copy.isHost(host)).isTrue();
+        assertThat(copy.hostBoard().version()).isEqualTo(4);
+        assertThat(copy.opponentBoard().boardId()).isEqualTo(active.opponentBoard().boardId());
+        assertThat(copy.hostBoard().model().toJson()).isEqualTo(hostBoard.toJson());
+        assertThat(copy.opponentBoard().model().toJson()).isEqualTo(guestBoard.toJson());
+    }
+}
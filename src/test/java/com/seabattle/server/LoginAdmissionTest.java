@@ -0,0 +1,106 @@
+package com.seabattle.server;
+
+import com.seabattle.server.service.LoginRateLimiter;
+import com.seabattle.server.service.PasswordHashing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoginAdmissionTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @Test
+    void hashingBeyondThreadsAndQueueIsRefused() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode("slow")).thenAnswer(inv -> {
+            hashing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        when(encoder.matches("pw", "hash")).thenReturn(true);
+        PasswordHashing passwords = new PasswordHashing(encoder, meters, 1, 1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwords.encode("slow"));
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwords.matches("pw", "hash"));
+        while (meters.get("auth.hashing.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> passwords.matches("pw", "hash")).isInstanceOf(PasswordHashing.SaturatedException.class);
+        assertThat(meters.get("auth.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meters.get("auth.hashing.duration").tag("op", "matches").timer().count()).isEqualTo(1);
+        assertThat(passwords.matches("pw", "hash")).as("admitted again once the queue drained").isTrue();
+    }
+
+    @Test
+    void bucketsLimitPerIpAndPerUsernameAndRefill() {
+        MutableClock clock = new MutableClock();
+        LoginRateLimiter limiter = new LoginRateLimiter(meters, clock, 3, 60, 2, 1);
+
+        limiter.admit("10.0.0.1", "alice");
+        limiter.admit("10.0.0.2", "Alice");
+        assertThatThrownBy(() -> limiter.admit("10.0.0.3", "ALICE"))
+                .isInstanceOf(LoginRateLimiter.ThrottledException.class)
+                .extracting(e -> ((LoginRateLimiter.ThrottledException) e).getRetryAfterSeconds())
+                .isEqualTo(60L);
+
+        limiter.admit("10.0.0.1", "bob");
+        limiter.admit("10.0.0.1", "carol");
+        assertThatThrownBy(() -> limiter.admit("10.0.0.1", "dave"))
+                .isInstanceOf(LoginRateLimiter.ThrottledException.class);
+        assertThat(meters.get("auth.login.throttled").tag("key", "ip").counter().count()).isEqualTo(1);
+        assertThat(meters.get("auth.login.throttled").tag("key", "username").counter().count()).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(1));
+        limiter.admit("10.0.0.1", "alice");
+
+        clock.advance(Duration.ofMinutes(5));
+        limiter.sweep();
+        assertThat(limiter.trackedKeys()).isZero();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
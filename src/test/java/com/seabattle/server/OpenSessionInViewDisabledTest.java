@@ -0,0 +1,162 @@
+package com.seabattle.server;
+
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.entity.Board;
+import com.seabattle.server.entity.Game;
+import com.seabattle.server.entity.Move;
+import com.seabattle.server.entity.Room;
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.BoardRepository;
+import com.seabattle.server.repository.GameRepository;
+import com.seabattle.server.repository.MoveRepository;
+import com.seabattle.server.repository.RoomRepository;
+import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.service.UserAccessChanged;
+import com.seabattle.server.service.UserAccessRegistry;
+import com.seabattle.server.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With open-session-in-view off, every response is built inside its service transaction: the
+ * endpoints that read lazy associations (boards, moves, admin and room listings) still serialize
+ * through the full MVC stack.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OpenSessionInViewDisabledTest {
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserAccessRegistry userAccess;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private BoardRepository boardRepository;
+    @Autowired
+    private MoveRepository moveRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private User host;
+    private User guest;
+    private User admin;
+    private Game game;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        host = user("host", User.Role.USER);
+        guest = user("guest", User.Role.USER);
+        admin = user("admin", User.Role.ADMIN);
+        userAccess.on(UserAccessChanged.of(admin));
+        room = roomRepository.save(Room.builder().host(host).guest(guest).token(UUID.randomUUID()).status("STARTED").build());
+        game = gameRepository.save(Game.builder()
+                .type(Game.GameType.ONLINE)
+                .status(Game.GameStatus.IN_PROGRESS)
+                .currentTurn(Game.Turn.HOST)
+                .host(host)
+                .guest(guest)
+                .roomToken(room.getToken())
+                .build());
+        boardRepository.save(Board.builder().game(game).player(host).cells(new BoardModel().toJson()).build());
+        boardRepository.save(Board.builder().game(game).player(guest).cells(new BoardModel().toJson()).build());
+        moveRepository.save(Move.builder().game(game).player(host).x((short) 3).y((short) 4).hit(true).build());
+    }
+
+    @Test
+    void noEntityManagerIsBoundToTheRequest() {
+        assertThat(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    void gameBoardsSerialize() throws Exception {
+        mvc.perform(as(host, get("/api/games/{id}/boards", game.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.opponentName").value(guest.getUsername()))
+                .andExpect(jsonPath("$.isHost").value(true))
+                .andExpect(jsonPath("$.currentTurn").value("HOST"))
+                .andExpect(jsonPath("$.playerBoard", hasSize(BoardModel.SIZE)));
+
+        mvc.perform(as(guest, get("/api/games/{id}/board", game.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.grid", hasSize(BoardModel.SIZE)));
+    }
+
+    @Test
+    void roomStatusSerializes() throws Exception {
+        mvc.perform(as(guest, get("/api/rooms/{token}", room.getToken())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hostUsername").value(host.getUsername()))
+                .andExpect(jsonPath("$.guestUsername").value(guest.getUsername()))
+                .andExpect(jsonPath("$.gameId").value(game.getId().toString()));
+    }
+
+    @Test
+    void userProfileSerializes() throws Exception {
+        mvc.perform(get("/api/users/profile").param("username", host.getUsername()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(host.getUsername()));
+    }
+
+    @Test
+    void adminListingsSerialize() throws Exception {
+        mvc.perform(as(admin, get("/api/admin/games").param("size", "1000").param("status", "IN_PROGRESS")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.id == '%s')].guestUsername", game.getId())
+                        .value(contains(guest.getUsername())));
+
+        mvc.perform(as(admin, get("/api/admin/rooms").param("size", "1000")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.id == '%s')].hostUsername", room.getId())
+                        .value(contains(host.getUsername())));
+
+        mvc.perform(as(admin, get("/api/admin/users").param("query", host.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value(host.getUsername()));
+
+        mvc.perform(as(admin, get("/api/admin/games/{id}/moves", game.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].playerId").value(host.getId().toString()))
+                .andExpect(jsonPath("$[0].hit").value(true));
+    }
+
+    private User user(String prefix, User.Role role) {
+        return userRepository.save(User.builder()
+                .username(prefix + "-" + UUID.randomUUID().toString().substring(0, 8))
+                .passwordHash("x")
+                .role(role)
+                .build());
+    }
+
+    private MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+        return request.header("Authorization",
+                "Bearer " + jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole().name()));
+    }
+}
@@ -0,0 +1,198 @@
+package com.seabattle.server;
+
+import com.seabattle.server.config.OutboundQueues;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class OutboundQueuesTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final ManualExecutor senders = new ManualExecutor();
+    private final UUID gameId = UUID.randomUUID();
+
+    @Test
+    void sendersDoNotBlockAndFramesKeepTheirOrder() throws Exception {
+        OutboundQueues queues = new OutboundQueues(meters, senders, 5000, 65536);
+        WebSocketSession session = session("1");
+
+        queues.send(session, frame("a", 10));
+        queues.send(session, frame("b", 10));
+        queues.send(session, frame("c", 10));
+
+        verify(session, never()).sendMessage(any());
+        assertThat(senders.tasks).hasSize(1);
+        assertThat(queues.queuedFrames()).isEqualTo(3);
+
+        senders.runAll();
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, times(3)).sendMessage(sent.capture());
+        assertThat(sent.getAllValues()).extracting(m -> ((String) m.getPayload()).charAt(0)).containsExactly('a', 'b', 'c');
+        assertThat(queues.queuedFrames()).isZero();
+        assertThat(meters.counter("ws.outbound.sent").count()).isEqualTo(3);
+    }
+
+    @Test
+    void overflowKeepsOnlyTheNewestBoardUpdateAndAllControlFrames() throws Exception {
+        OutboundQueues queues = new OutboundQueues(meters, senders, 5000, 100);
+        WebSocketSession session = session("1");
+
+        queues.send(session, frame("1", 40), gameId);
+        queues.send(session, frame("r", 10));
+        queues.send(session, frame("2", 40), gameId);
+        queues.send(session, frame("3", 40), gameId);
+
+        assertThat(queues.queuedFrames()).isEqualTo(2);
+        assertThat(meters.counter("ws.outbound.conflated").count()).isEqualTo(2);
+
+        senders.runAll();
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, times(2)).sendMessage(sent.capture());
+        assertThat(sent.getAllValues()).extracting(m -> ((String) m.getPayload()).charAt(0)).containsExactly('r', '3');
+        verify(session, never()).close(any());
+    }
+
+    @Test
+    void sessionStillOverTheBufferLimitIsDisconnected() throws Exception {
+        OutboundQueues queues = new OutboundQueues(meters, senders, 5000, 100);
+        WebSocketSession session = session("1");
+
+        queues.send(session, frame("a", 60));
+        queues.send(session, frame("b", 60));
+        queues.send(session, frame("c", 10));
+
+        assertThat(queues.queuedFrames()).isZero();
+        senders.runAll();
+        verify(session, never()).sendMessage(any());
+        verify(session, timeout(5000)).close(argThat(s -> s.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()));
+        assertThat(meters.counter("ws.outbound.evicted", "reason", "buffer").count()).isEqualTo(1);
+    }
+
+    @Test
+    void sessionWithASendPastTheTimeLimitIsDisconnected() throws Exception {
+        OutboundQueues queues = new OutboundQueues(meters, r -> new Thread(r).start(), 50, 65536);
+        WebSocketSession session = session("1");
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(session).sendMessage(any());
+
+        queues.send(session, frame("a", 10));
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        queues.send(session, frame("b", 10));
+
+        verify(session, timeout(5000)).close(argThat(s -> s.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()));
+        assertThat(meters.counter("ws.outbound.evicted", "reason", "send-time").count()).isEqualTo(1);
+        release.countDown();
+        verify(session, times(1)).sendMessage(any());
+    }
+
+    @Test
+    void failedSendEvictsWithoutUsingTheSenders() throws Exception {
+        OutboundQueues queues = new OutboundQueues(meters, senders, 5000, 65536);
+        WebSocketSession session = session("1");
+        doThrow(new IOException("Blocking send timed out")).when(session).sendMessage(any());
+
+        queues.send(session, frame("a", 10));
+        queues.send(session, frame("b", 10));
+        senders.runAll();
+
+        verify(session, times(1)).sendMessage(any());
+        verify(session, timeout(5000)).close(argThat(s -> s.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()));
+        assertThat(senders.tasks).as("the close is not queued behind other sessions' sends").isEmpty();
+        assertThat(meters.counter("ws.outbound.evicted", "reason", "send-failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void blockingSendTimeoutIsTheSendTimeLimit() throws Exception {
+        OutboundQueues queues = new OutboundQueues(meters, senders, 3000, 65536);
+        WebSocketSession session = mock(WebSocketSession.class, withSettings().extraInterfaces(NativeWebSocketSession.class));
+        when(session.getId()).thenReturn("1");
+        when(session.isOpen()).thenReturn(true);
+        Session container = mock(Session.class);
+        Map<String, Object> userProperties = new HashMap<>();
+        when(container.getUserProperties()).thenReturn(userProperties);
+        when(((NativeWebSocketSession) session).getNativeSession()).thenReturn(container);
+
+        queues.send(session, frame("a", 10));
+
+        assertThat(userProperties).containsEntry("org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT", 3000L);
+    }
+
+    @Test
+    void closeRunsAfterTheFramesQueuedBeforeIt() throws Exception {
+        OutboundQueues queues = new OutboundQueues(meters, senders, 5000, 65536);
+        WebSocketSession session = session("1");
+
+        queues.send(session, frame("bye", 10));
+        queues.close(session, CloseStatus.SERVICE_RESTARTED);
+        senders.runAll();
+
+        InOrder order = inOrder(session);
+        order.verify(session).sendMessage(any());
+        order.verify(session).close(CloseStatus.SERVICE_RESTARTED);
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private static TextMessage frame(String tag, int length) {
+        return new TextMessage(tag + "x".repeat(length - tag.length()));
+    }
+
+    /** Runs queued sender tasks only when asked to, including tasks they queue themselves. */
+    private static final class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable next;
+            while ((next = tasks.poll()) != null) {
+                next.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.seabattle.server;
+
+import com.seabattle.server.config.DataSourceConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Routing as the app runs it: JPA transactions through {@link JpaTransactionManager}. */
+class ReadWriteRoutingDataSourceTest {
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(JpaRouting.class)) {
+            NodeService nodes = context.getBean(NodeService.class);
+
+            assertThat(nodes.readOnly()).isEqualTo("replica");
+            assertThat(nodes.readWrite()).isEqualTo("primary");
+            assertThat(nodes.readOnly()).as("connection not pinned by the previous transaction").isEqualTo("replica");
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class JpaRouting {
+
+        @Bean
+        DataSource dataSource() {
+            return DataSourceConfig.readWriteRouting(h2("primary"), h2("replica"));
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean emf = new LocalContainerEntityManagerFactoryBean();
+            emf.setDataSource(dataSource);
+            emf.setPackagesToScan("com.seabattle.server.entity");
+            emf.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            emf.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+            return emf;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
+            return new JpaTransactionManager(emf);
+        }
+
+        @Bean
+        NodeService nodeService() {
+            return new NodeService();
+        }
+    }
+
+    static class NodeService {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Transactional(readOnly = true)
+        public String readOnly() {
+            return node();
+        }
+
+        @Transactional
+        public String readWrite() {
+            return node();
+        }
+
+        private String node() {
+            return (String) entityManager.createNativeQuery("SELECT name FROM node").getSingleResult();
+        }
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        jdbc.update("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return ds;
+    }
+}
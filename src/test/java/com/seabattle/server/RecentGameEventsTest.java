@@ -0,0 +1,69 @@
+package com.seabattle.server;
+
+import com.seabattle.server.dto.GameSocketMessage;
+import com.seabattle.server.service.RecentGameEvents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentGameEventsTest {
+
+    private final RecentGameEvents events = new RecentGameEvents(new SimpleMeterRegistry());
+    private final UUID gameId = UUID.randomUUID();
+
+    @Test
+    void replaysOnlyWhatTheRecipientMissed() {
+        GameSocketMessage host1 = delta(0, 1);
+        GameSocketMessage guest1 = delta(0, 1);
+        GameSocketMessage host2 = delta(1, 2);
+        GameSocketMessage guest2 = delta(1, 2);
+        GameSocketMessage finished = new GameSocketMessage.GameFinished(gameId, "HOST_WIN");
+        events.recordDelta(gameId, 0, 1, Map.of("host", host1, "guest", guest1));
+        events.recordDelta(gameId, 1, 2, Map.of("host", host2, "guest", guest2));
+        events.recordBroadcast(gameId, finished);
+
+        assertThat(events.since(gameId, "guest", 0)).contains(List.of(guest1, guest2, finished));
+        assertThat(events.since(gameId, "host", 1)).contains(List.of(host2, finished));
+        assertThat(events.since(gameId, "host", 2)).contains(List.of(finished));
+        assertThat(events.since(gameId, "host", 3)).isEmpty();
+        assertThat(events.since(gameId, RecentGameEvents.SPECTATORS, 1)).as("no spectator view recorded").isEmpty();
+        assertThat(events.since(UUID.randomUUID(), "host", 0)).isEmpty();
+    }
+
+    @Test
+    void fallsBackToSnapshotOnceTheRingRolledOver() {
+        ReflectionTestUtils.setField(events, "size", 2);
+        for (int seq = 1; seq <= 3; seq++) {
+            events.recordDelta(gameId, seq - 1, seq, Map.of("host", delta(seq - 1, seq)));
+        }
+
+        assertThat(events.since(gameId, "host", 0)).isEmpty();
+        assertThat(events.since(gameId, "host", 1)).hasValueSatisfying(missed -> assertThat(missed).hasSize(2));
+
+        for (int i = 0; i < 3; i++) {
+            events.recordBroadcast(gameId, new GameSocketMessage.Timeout(gameId, "TURN", "HOST"));
+        }
+        assertThat(events.since(gameId, "host", 3)).as("a dropped broadcast at seq 3 may be missed").isEmpty();
+    }
+
+    @Test
+    void stateChangedWithoutDeltaRestartsTheRing() {
+        events.recordDelta(gameId, 0, 1, Map.of("host", delta(0, 1)));
+        GameSocketMessage afterGap = delta(3, 4);
+        events.recordDelta(gameId, 3, 4, Map.of("host", afterGap));
+
+        assertThat(events.since(gameId, "host", 1)).isEmpty();
+        assertThat(events.since(gameId, "host", 3)).contains(List.of(afterGap));
+    }
+
+    private GameSocketMessage delta(long baseSeq, long seq) {
+        return new GameSocketMessage.GameStateDelta(gameId, seq, baseSeq, "HOST", false, null,
+                false, false, false, new int[0], new int[0], 0);
+    }
+}
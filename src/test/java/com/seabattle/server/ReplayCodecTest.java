@@ -0,0 +1,55 @@
+package com.seabattle.server;
+
+import com.seabattle.server.engine.BoardModel;
+import com.seabattle.server.engine.GameReplay;
+import com.seabattle.server.engine.ReplayCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplayCodecTest {
+
+    @Test
+    void replayReproducesFinalBoards() {
+        BoardModel host = BoardModel.autoPlaceRandom();
+        BoardModel opponent = BoardModel.autoPlaceRandom();
+        List<GameReplay.Shot> shots = new ArrayList<>();
+        long t = 1_760_000_000_000L;
+        for (int i = 0; i < 30; i++) {
+            int x = i % BoardModel.SIZE;
+            int y = (i * 3) % BoardModel.SIZE;
+            boolean byHost = i % 2 == 0;
+            BoardModel target = byHost ? opponent : host;
+            BoardModel.ShotOutcome outcome = target.shoot(x, y);
+            if (outcome.already) continue;
+            shots.add(new GameReplay.Shot(byHost, x, y, outcome.hit, t += 1500));
+        }
+
+        byte[] data = ReplayCodec.encode(host, opponent, shots);
+        GameReplay replay = ReplayCodec.decode(data);
+
+        assertThat(replay.hasStoredCells()).isFalse();
+        assertThat(replay.getShots()).containsExactlyElementsOf(shots);
+        assertThat(replay.hostBoard().toIntArray(true)).isDeepEqualTo(host.toIntArray(true));
+        assertThat(replay.opponentBoard().toIntArray(true)).isDeepEqualTo(opponent.toIntArray(true));
+        assertThat(data.length).isLessThan(host.toJson().length());
+    }
+
+    @Test
+    void incompleteMoveLogFallsBackToStoredCells() {
+        BoardModel host = BoardModel.autoPlaceRandom();
+        BoardModel opponent = BoardModel.autoPlaceRandom();
+        opponent.shoot(4, 4);
+        host.shoot(7, 2);
+
+        GameReplay replay = ReplayCodec.decode(ReplayCodec.encode(host, opponent, List.of()));
+
+        assertThat(replay.hasStoredCells()).isTrue();
+        assertThat(replay.getShots()).isEmpty();
+        assertThat(replay.hostBoard().toIntArray(true)).isDeepEqualTo(host.toIntArray(true));
+        assertThat(replay.opponentBoard().toIntArray(true)).isDeepEqualTo(opponent.toIntArray(true));
+    }
+}
@@ -0,0 +1,168 @@
+package com.seabattle.server;
+
+import com.seabattle.server.entity.User;
+import com.seabattle.server.repository.RevokedUserRepository;
+import com.seabattle.server.repository.UserRepository;
+import com.seabattle.server.service.UserAccessChanged;
+import com.seabattle.server.service.UserAccessRegistry;
+import com.seabattle.server.util.JwtAuthenticationFilter;
+import com.seabattle.server.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatelessAuthenticationTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RevokedUserRepository revokedUserRepository = mock(RevokedUserRepository.class);
+    private final UUID alice = UUID.randomUUID();
+    private final UUID boss = UUID.randomUUID();
+    private JwtUtil jwt;
+    private UserAccessRegistry access;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwt = new JwtUtil();
+        ReflectionTestUtils.setField(jwt, "secret", "test-secret-test-secret-test-secret-0123456789");
+        ReflectionTestUtils.setField(jwt, "expirationMs", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(jwt, "init");
+        when(userRepository.findIdsByStatus(User.Status.BLOCKED)).thenReturn(List.of());
+        when(userRepository.findIdsByRole(User.Role.ADMIN)).thenReturn(List.of(boss));
+        when(revokedUserRepository.findIdsRevokedSince(any())).thenReturn(List.of());
+        access = new UserAccessRegistry(userRepository, revokedUserRepository, 3_600_000L);
+        access.afterSingletonsInstantiated();
+        filter = new JwtAuthenticationFilter(jwt, access);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void requestIsAuthenticatedFromClaimsWithoutLoadingTheUser() throws Exception {
+        Authentication auth = authenticate(jwt.generateToken(alice, "alice", "USER"));
+
+        assertThat(auth.getName()).isEqualTo("alice");
+        assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void blockedAndDeletedUsersAreRefusedImmediately() throws Exception {
+        String token = jwt.generateToken(alice, "alice", "USER");
+        access.on(new UserAccessChanged(alice, User.Role.USER, User.Status.BLOCKED, false));
+        assertThat(authenticate(token)).isNull();
+
+        access.on(new UserAccessChanged(alice, User.Role.USER, User.Status.ACTIVE, false));
+        assertThat(authenticate(token)).isNotNull();
+
+        access.on(UserAccessChanged.deleted(alice));
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void demotedAdminTokenLosesAccess() throws Exception {
+        String token = jwt.generateToken(boss, "boss", "ADMIN");
+        assertThat(authenticate(token).getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+
+        access.on(new UserAccessChanged(boss, User.Role.USER, User.Status.ACTIVE, false));
+
+        assertThat(authenticate(token)).isNull();
+        assertThat(authenticate(jwt.generateToken(boss, "boss", "USER"))).isNotNull();
+    }
+
+    @Test
+    void blockedUsersAreLoadedAtStartup() throws Exception {
+        when(userRepository.findIdsByStatus(User.Status.BLOCKED)).thenReturn(List.of(alice));
+        UserAccessRegistry rebuilt = new UserAccessRegistry(userRepository, revokedUserRepository, 3_600_000L);
+        rebuilt.afterSingletonsInstantiated();
+
+        assertThat(rebuilt.allows(alice, "USER")).isFalse();
+        assertThat(rebuilt.allows(boss, "ADMIN")).isTrue();
+        assertThat(rebuilt.allows(null, "USER")).as("tokens without a user id").isFalse();
+    }
+
+    @Test
+    void deletedUsersAreLoadedAtStartup() throws Exception {
+        String token = jwt.generateToken(alice, "alice", "USER");
+        when(revokedUserRepository.findIdsRevokedSince(any())).thenReturn(List.of(alice));
+        UserAccessRegistry rebuilt = new UserAccessRegistry(userRepository, revokedUserRepository, 3_600_000L);
+        rebuilt.afterSingletonsInstantiated();
+        filter = new JwtAuthenticationFilter(jwt, rebuilt);
+
+        assertThat(rebuilt.allows(alice, "USER")).isFalse();
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void changesMadeOnAnotherNodeArePickedUpByTheRefresh() {
+        UUID carol = UUID.randomUUID();
+        when(userRepository.findIdsByStatus(User.Status.BLOCKED)).thenReturn(List.of(alice));
+        when(userRepository.findIdsByRole(User.Role.ADMIN)).thenReturn(List.of());
+        when(revokedUserRepository.findIdsRevokedSince(any())).thenReturn(List.of(carol));
+
+        access.refresh();
+
+        assertThat(access.allows(alice, "USER")).isFalse();
+        assertThat(access.allows(carol, "USER")).isFalse();
+        assertThat(access.allows(boss, "ADMIN")).isFalse();
+        assertThat(access.allows(boss, "USER")).isTrue();
+
+        when(userRepository.findIdsByStatus(User.Status.BLOCKED)).thenReturn(List.of());
+        access.refresh();
+        assertThat(access.allows(alice, "USER")).isTrue();
+    }
+
+    @Test
+    void refreshThatRacedALocalChangeDoesNotUndoIt() {
+        when(userRepository.findIdsByStatus(User.Status.BLOCKED)).thenAnswer(inv -> {
+            // Block committed on this node after the reload read the users
+            access.on(new UserAccessChanged(alice, User.Role.USER, User.Status.BLOCKED, false));
+            return List.of();
+        });
+
+        access.refresh();
+        assertThat(access.allows(alice, "USER")).isFalse();
+
+        when(userRepository.findIdsByStatus(User.Status.BLOCKED)).thenReturn(List.of(alice));
+        access.refresh();
+        assertThat(access.allows(alice, "USER")).isFalse();
+    }
+
+    @Test
+    void failedRefreshKeepsTheCurrentSets() {
+        access.on(new UserAccessChanged(alice, User.Role.USER, User.Status.BLOCKED, false));
+        when(userRepository.findIdsByStatus(User.Status.BLOCKED)).thenThrow(new IllegalStateException("db down"));
+
+        access.refresh();
+
+        assertThat(access.allows(alice, "USER")).isFalse();
+        assertThat(access.allows(boss, "ADMIN")).isTrue();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games/active");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
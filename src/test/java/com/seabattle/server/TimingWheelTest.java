@@ -0,0 +1,61 @@
+package com.seabattle.server;
+
+import com.seabattle.server.util.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void firesInDeadlineOrderAcrossRoundsAndSkipsCancelled() throws Exception {
+        // 4 buckets x 10 ms: the later deadlines need several revolutions
+        try (TimingWheel wheel = new TimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 4)) {
+            List<String> fired = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(2);
+            wheel.schedule(() -> { fired.add("late"); done.countDown(); }, 150, TimeUnit.MILLISECONDS);
+            TimingWheel.Timeout cancelled = wheel.schedule(() -> fired.add("cancelled"), 90, TimeUnit.MILLISECONDS);
+            TimingWheel.Timeout early = wheel.schedule(() -> { fired.add("early"); done.countDown(); }, 30, TimeUnit.MILLISECONDS);
+
+            assertThat(cancelled.cancel()).isTrue();
+            assertThat(wheel.pending()).isEqualTo(2);
+            assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(fired).containsExactly("early", "late");
+            assertThat(early.isExpired()).isTrue();
+            assertThat(early.cancel()).isFalse();
+            assertThat(cancelled.isCancelled()).isTrue();
+            assertThat(wheel.pending()).isZero();
+        }
+    }
+
+    @Test
+    void handlesManyPendingTimers() throws Exception {
+        int timers = 200_000;
+        try (TimingWheel wheel = new TimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 512)) {
+            AtomicInteger fired = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(timers / 2);
+            TimingWheel.Timeout[] scheduled = new TimingWheel.Timeout[timers];
+            for (int i = 0; i < timers; i++) {
+                scheduled[i] = wheel.schedule(() -> {
+                    fired.incrementAndGet();
+                    done.countDown();
+                }, 1000 + i % 200, TimeUnit.MILLISECONDS);
+            }
+            for (int i = 0; i < timers; i += 2) {
+                scheduled[i].cancel();
+            }
+
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(50);
+            assertThat(fired.get()).isEqualTo(timers / 2);
+            assertThat(wheel.pending()).isZero();
+        }
+    }
+}
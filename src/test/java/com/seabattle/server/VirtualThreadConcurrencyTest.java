@@ -0,0 +1,25 @@
+package com.seabattle.server;
+
+import com.seabattle.server.service.GameCommandDispatcher;
+import com.seabattle.server.service.GameCommandRetry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Game lanes in the virtual-thread mode, which only takes effect on a Java 21 runtime. */
+class VirtualThreadConcurrencyTest {
+
+    @Test
+    void lanesRunOnVirtualThreadsOnlyOnJava21() {
+        MockEnvironment env = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        GameCommandDispatcher dispatcher = new GameCommandDispatcher(new GameCommandRetry(), 2, env);
+
+        String thread = dispatcher.execute(UUID.randomUUID(), () -> Thread.currentThread().toString());
+
+        assertThat(thread).contains("game-lane-");
+        assertThat(thread.contains("VirtualThread")).isEqualTo(Runtime.version().feature() >= 21);
+    }
+}